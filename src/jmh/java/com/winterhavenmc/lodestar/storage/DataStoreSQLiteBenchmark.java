@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks of the SQLite datastore, against a database file seeded with {@code seedSize} destinations.
+ * Each operation is measured for throughput and sampled latency (for p99), and the gc profiler added
+ * by the bench profile reports allocation rate. Writes are synced, so their cost includes the commit.
+ * <p>
+ * Run with: {@code mvn -P bench test-compile exec:exec}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataStoreSQLiteBenchmark {
+
+	// number of destinations in the database
+	@Param({ "1000", "10000", "100000" })
+	private int seedSize;
+
+	// pragma configuration: tuned is the shipped config.yml, stock is the SQLite defaults
+	@Param({ "tuned", "stock" })
+	private String pragmas;
+
+	// wrap the datastore in the in-memory destination cache, as the plugin does
+	@Param({ "true", "false" })
+	private boolean cached;
+
+	// number of destinations written by one insertRecords call
+	private static final int INSERT_BATCH_SIZE = 100;
+
+	private static final int SEED_BATCH_SIZE = 1000;
+
+	private PluginMain plugin;
+	private World world;
+	private DataStore dataStore;
+	private String[] keys;
+
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		ServerMock server = MockBukkit.mock();
+		plugin = MockBukkit.load(PluginMain.class);
+		world = server.addSimpleWorld("world");
+
+		// benchmark datastore uses the plugin database file, so close the plugin datastore first
+		plugin.dataStore.close();
+		deleteDatabaseFiles();
+
+		configurePragmas();
+
+		DataStore sqlite = new DataStoreSQLite(plugin);
+		dataStore = cached ? new DataStoreCache(plugin, sqlite) : sqlite;
+		dataStore.initialize();
+
+		// seed database
+		keys = new String[seedSize];
+		List<Destination> batch = new ArrayList<>(SEED_BATCH_SIZE);
+		for (int i = 0; i < seedSize; i++) {
+			keys[i] = "Destination_" + i;
+			batch.add(destination(keys[i], i));
+			if (batch.size() == SEED_BATCH_SIZE) {
+				dataStore.insertRecords(batch);
+				batch.clear();
+			}
+		}
+		dataStore.insertRecords(batch);
+		dataStore.sync();
+	}
+
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dataStore.close();
+		deleteDatabaseFiles();
+		MockBukkit.unmock();
+	}
+
+
+	/**
+	 * Destination removed by the deleteRecord benchmark, restored before each invocation
+	 */
+	@State(Scope.Thread)
+	public static class DeleteTarget {
+
+		private final String key = "Deleted_Destination";
+
+		@Setup(Level.Invocation)
+		public void setUp(final DataStoreSQLiteBenchmark benchmark) {
+			benchmark.dataStore.insertRecord(benchmark.destination(key, 0));
+			benchmark.dataStore.sync();
+		}
+	}
+
+
+	@Benchmark
+	public Optional<Destination> selectRecord() {
+		return dataStore.selectRecord(keys[ThreadLocalRandom.current().nextInt(seedSize)]);
+	}
+
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public List<String> selectAllKeys() {
+		return dataStore.selectAllKeys();
+	}
+
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public Collection<Destination> selectAllRecords() {
+		return dataStore.selectAllRecords();
+	}
+
+
+	@Benchmark
+	public void insertRecords(final Blackhole blackhole) {
+
+		// replace existing destinations, so the database size stays constant
+		int start = ThreadLocalRandom.current().nextInt(seedSize);
+		List<Destination> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+		for (int i = 0; i < INSERT_BATCH_SIZE; i++) {
+			int index = (start + i) % seedSize;
+			batch.add(destination(keys[index], index + 1));
+		}
+
+		blackhole.consume(dataStore.insertRecords(batch));
+		dataStore.sync();
+	}
+
+
+	@Benchmark
+	public void deleteRecord(final DeleteTarget target, final Blackhole blackhole) {
+		blackhole.consume(dataStore.deleteRecord(target.key));
+		dataStore.sync();
+	}
+
+
+	private Destination destination(final String name, final int index) {
+		return new Destination(name, new Location(world, index, 64, -index, index % 360, 0));
+	}
+
+
+	private void configurePragmas() {
+
+		if (pragmas.equals("stock")) {
+			plugin.getConfig().set("storage.sqlite.journal-mode", "DELETE");
+			plugin.getConfig().set("storage.sqlite.synchronous", "FULL");
+			plugin.getConfig().set("storage.sqlite.mmap-size", 0);
+			plugin.getConfig().set("storage.sqlite.cache-size", -2000);
+			plugin.getConfig().set("storage.sqlite.temp-store", "DEFAULT");
+		}
+	}
+
+
+	private void deleteDatabaseFiles() {
+		String path = plugin.getDataFolder() + File.separator + DataStoreType.SQLITE.getStorageName();
+		for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) {
+			//noinspection ResultOfMethodCallIgnored
+			new File(path + suffix).delete();
+		}
+	}
+
+}
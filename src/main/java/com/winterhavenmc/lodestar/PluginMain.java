@@ -19,9 +19,12 @@ package com.winterhavenmc.lodestar;
 
 import com.winterhavenmc.lodestar.commands.CommandManager;
 import com.winterhavenmc.lodestar.listeners.PlayerEventListener;
+import com.winterhavenmc.lodestar.listeners.WorldEventListener;
 import com.winterhavenmc.lodestar.messages.Macro;
 import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.storage.AsyncDataStore;
 import com.winterhavenmc.lodestar.storage.DataStore;
+import com.winterhavenmc.lodestar.storage.Destination;
 import com.winterhavenmc.lodestar.teleport.TeleportHandler;
 import com.winterhavenmc.lodestar.util.LodeStarUtility;
 import com.winterhavenmc.lodestar.util.MetricsHandler;
@@ -48,7 +51,8 @@ import java.io.File;
 public final class PluginMain extends JavaPlugin {
 
 	public MessageBuilder<MessageId, Macro> messageBuilder;
-	public DataStore dataStore;
+	public volatile DataStore dataStore;
+	public AsyncDataStore asyncDataStore;
 	public TeleportHandler teleportHandler;
 	public SoundConfiguration soundConfig;
 	public WorldManager worldManager;
@@ -92,9 +96,15 @@ public final class PluginMain extends JavaPlugin {
 		// instantiate world manager
 		worldManager = new WorldManager(this);
 
+		// snapshot loaded worlds, so destination worlds can be looked up from the storage thread
+		Destination.invalidateWorlds();
+
 		// get initialized destination storage object
 		dataStore = DataStore.connect(this);
 
+		// instantiate non-blocking datastore access
+		asyncDataStore = new AsyncDataStore(this);
+
 		// instantiate teleport manager
 		teleportHandler = new TeleportHandler(this);
 
@@ -107,6 +117,9 @@ public final class PluginMain extends JavaPlugin {
 		// instantiate player listener
 		new PlayerEventListener(this);
 
+		// instantiate world listener
+		new WorldEventListener(this);
+
 		// instantiate metrics handler
 		new MetricsHandler(this);
 
@@ -115,6 +128,8 @@ public final class PluginMain extends JavaPlugin {
 
 	@Override
 	public void onDisable() {
+		teleportHandler.shutdown();
+		asyncDataStore.shutdown();
 		dataStore.close();
 	}
 
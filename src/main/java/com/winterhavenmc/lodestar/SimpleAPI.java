@@ -26,6 +26,8 @@ import org.bukkit.plugin.java.JavaPlugin;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -212,14 +214,61 @@ public final class SimpleAPI {
 		}
 
 		// else get destination name from datastore
-		else if (plugin.dataStore.selectRecord(key).isPresent()) {
-			resultString = plugin.dataStore.selectRecord(key).get().getDisplayName();
+		else {
+			resultString = plugin.dataStore.selectRecord(key).map(Destination::getDisplayName).orElse(null);
 		}
 
 		return resultString;
 	}
 
 
+	/**
+	 * Check if destination exists in storage or is reserved name, without blocking the calling thread.
+	 * The returned future is completed on the main server thread.
+	 *
+	 * @param destinationName the destination name to check
+	 * @return future completed with {@code true} if destination exists, {@code false} if it does not
+	 */
+	public static CompletableFuture<Boolean> isValidDestinationAsync(final String destinationName) {
+
+		// if destination name is null or blank, return completed future
+		if (destinationName == null || destinationName.isBlank()) {
+			return CompletableFuture.completedFuture(false);
+		}
+
+		// if destination name is reserved name, return completed future
+		if (Destination.isReserved(destinationName)) {
+			return CompletableFuture.completedFuture(true);
+		}
+
+		return plugin.asyncDataStore.selectRecord(destinationName).thenApply(Optional::isPresent);
+	}
+
+
+	/**
+	 * Get destination name from passed key, without blocking the calling thread. Matching is case-insensitive.
+	 * The returned future is completed on the main server thread.
+	 *
+	 * @param key the key for which to get destination name
+	 * @return future completed with the name of destination, or null if no matching destination found
+	 */
+	public static CompletableFuture<String> getDestinationNameAsync(final String key) {
+
+		// if key is null, return completed future
+		if (key == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		// if key matches reserved name, return completed future
+		if (Destination.isReserved(key)) {
+			return CompletableFuture.completedFuture(Destination.getDisplayName(key));
+		}
+
+		return plugin.asyncDataStore.selectRecord(key)
+				.thenApply(optionalDestination -> optionalDestination.map(Destination::getDisplayName).orElse(null));
+	}
+
+
 	/**
 	 * Get configuration setting for allowing items to be used in recipes
 	 *
@@ -17,7 +17,9 @@
 
 package com.winterhavenmc.lodestar.commands;
 
+import com.winterhavenmc.lodestar.PluginMain;
 import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.storage.Destination;
 
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -27,6 +29,9 @@ import java.util.*;
 
 abstract class AbstractSubcommand implements Subcommand {
 
+	// maximum number of destination keys offered for tab completion
+	private static final int MAX_COMPLETIONS = 100;
+
 	protected String name;
 	protected Collection<String> aliases = Collections.emptySet();
 	protected String permissionNode = "";
@@ -75,7 +80,37 @@ abstract class AbstractSubcommand implements Subcommand {
 	}
 
 	protected boolean matchPrefix(String string, String prefix) {
-		return string.toLowerCase().startsWith(prefix.toLowerCase());
+		return string.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+
+
+	/**
+	 * Get destination keys beginning with a prefix, ignoring case, for tab completion
+	 *
+	 * @param plugin reference to plugin main class
+	 * @param prefix the partial argument to match
+	 * @param includeReserved if true, include the home and spawn keys when they match
+	 * @return List of matching destination keys
+	 */
+	protected List<String> matchDestinationKeys(final PluginMain plugin, final String prefix, final boolean includeReserved) {
+
+		List<String> resultList = new ArrayList<>();
+
+		// add home and spawn destinations to list if they match
+		if (includeReserved) {
+			String homeKey = Destination.deriveKey(plugin.messageBuilder.getHomeDisplayName().orElse("Home"));
+			String spawnKey = Destination.deriveKey(plugin.messageBuilder.getSpawnDisplayName().orElse("Spawn"));
+			if (matchPrefix(homeKey, prefix)) {
+				resultList.add(homeKey);
+			}
+			if (matchPrefix(spawnKey, prefix)) {
+				resultList.add(spawnKey);
+			}
+		}
+
+		resultList.addAll(plugin.dataStore.selectKeysByPrefix(prefix, MAX_COMPLETIONS));
+
+		return resultList;
 	}
 
 }
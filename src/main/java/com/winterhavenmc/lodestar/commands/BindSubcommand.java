@@ -31,7 +31,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 
 final class BindSubcommand extends AbstractSubcommand {
@@ -59,10 +58,7 @@ final class BindSubcommand extends AbstractSubcommand {
 									  final String alias, final String[] args) {
 
 		if (args.length == 2) {
-			List<String> resultList = new ArrayList<>(plugin.dataStore.selectAllKeys());
-			resultList.add(0, plugin.messageBuilder.getSpawnDisplayName().orElse("Spawn"));
-			resultList.add(0, plugin.messageBuilder.getHomeDisplayName().orElse("Home"));
-			return resultList.stream().filter(key -> matchPrefix(key, args[1])).collect(Collectors.toList());
+			return matchDestinationKeys(plugin, args[1], true);
 		}
 
 		return Collections.emptyList();
@@ -94,45 +90,60 @@ final class BindSubcommand extends AbstractSubcommand {
 		}
 
 		// join remaining arguments into destination name
-		String destinationName = String.join(" ", args);
+		final String destinationName = String.join(" ", args);
 
-		// check if destination exists
-		if (!Destination.exists(destinationName)) {
-			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_DESTINATION)
-					.setMacro(Macro.DESTINATION, destinationName)
-					.send();
-			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+		// if destination is a reserved name, bind item without fetching destination from datastore
+		if (Destination.isReserved(destinationName)) {
+			bindItem(player, destinationName);
 			return true;
 		}
 
+		// fetch destination off the main thread, then bind item or send invalid destination message
+		plugin.asyncDataStore.selectRecord(destinationName).thenAccept(optionalDestination ->
+				optionalDestination.ifPresentOrElse(
+						destination -> bindItem(player, destination.getDisplayName()),
+						() -> sendInvalidDestinationMessage(player, destinationName)
+				));
+
+		return true;
+	}
+
+
+	/**
+	 * Bind destination to the item in player main hand
+	 *
+	 * @param player the player holding the item
+	 * @param destinationName the destination display name
+	 */
+	private void bindItem(final Player player, String destinationName) {
+
+		// if player logged off while destination was fetched, do nothing and return
+		if (!player.isOnline()) {
+			return;
+		}
+
 		// get player item in hand
 		ItemStack playerItem = player.getInventory().getItemInMainHand();
 
 		// if default-item-only configured true, check that item in hand has default material and data
 		if (plugin.getConfig().getBoolean("default-material-only")
-				&& !sender.hasPermission("lodestar.default-override")) {
+				&& !player.hasPermission("lodestar.default-override")) {
 			if (!plugin.lodeStarUtility.isDefaultItem(playerItem)) {
-				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_MATERIAL)
+				plugin.messageBuilder.compose(player, MessageId.COMMAND_FAIL_INVALID_MATERIAL)
 						.setMacro(Macro.DESTINATION, destinationName)
 						.send();
-				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
-				return true;
+				plugin.soundConfig.playSound(player, SoundId.COMMAND_FAIL);
+				return;
 			}
 		}
 
 		// check that item in hand is valid material
 		if (invalidMaterials.contains(playerItem.getType())) {
-			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_MATERIAL)
+			plugin.messageBuilder.compose(player, MessageId.COMMAND_FAIL_INVALID_MATERIAL)
 					.setMacro(Macro.DESTINATION, destinationName)
 					.send();
-			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
-			return true;
-		}
-
-		// try to get formatted destination name from storage
-		Optional<Destination> destination = plugin.dataStore.selectRecord(destinationName);
-		if (destination.isPresent()) {
-			destinationName = destination.get().getDisplayName();
+			plugin.soundConfig.playSound(player, SoundId.COMMAND_FAIL);
+			return;
 		}
 
 		if ("spawn".equalsIgnoreCase(destinationName)) {
@@ -147,14 +158,26 @@ final class BindSubcommand extends AbstractSubcommand {
 		plugin.lodeStarUtility.setMetaData(playerItem, destinationName);
 
 		// send success message
-		plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_BIND)
+		plugin.messageBuilder.compose(player, MessageId.COMMAND_SUCCESS_BIND)
 				.setMacro(Macro.DESTINATION, destinationName)
 				.send();
 
 		// play sound effect
-		plugin.soundConfig.playSound(sender, SoundId.COMMAND_SUCCESS_BIND);
+		plugin.soundConfig.playSound(player, SoundId.COMMAND_SUCCESS_BIND);
+	}
 
-		return true;
+
+	/**
+	 * Send invalid destination message to player
+	 *
+	 * @param player the player
+	 * @param destinationName the destination name
+	 */
+	private void sendInvalidDestinationMessage(final Player player, final String destinationName) {
+		plugin.messageBuilder.compose(player, MessageId.COMMAND_FAIL_INVALID_DESTINATION)
+				.setMacro(Macro.DESTINATION, destinationName)
+				.send();
+		plugin.soundConfig.playSound(player, SoundId.COMMAND_FAIL);
 	}
 
 }
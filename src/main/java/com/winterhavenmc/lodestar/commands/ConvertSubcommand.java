@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.commands;
+
+import com.winterhavenmc.lodestar.PluginMain;
+import com.winterhavenmc.lodestar.messages.Macro;
+import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.sounds.SoundId;
+import com.winterhavenmc.lodestar.storage.ConversionService;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Convert command implementation<br>
+ * copies all destinations to another storage type and switches the plugin to it
+ */
+final class ConvertSubcommand extends AbstractSubcommand {
+
+	private final PluginMain plugin;
+	private final ConversionService conversionService;
+
+
+	/**
+	 * Class constructor
+	 * @param plugin reference to plugin main class instance
+	 */
+	ConvertSubcommand(final PluginMain plugin) {
+		this.plugin = plugin;
+		this.conversionService = new ConversionService(plugin);
+		this.name = "convert";
+		this.permissionNode = "lodestar.convert";
+		this.usageString = "/lodestar convert <storage type>";
+		this.description = MessageId.COMMAND_HELP_CONVERT;
+		this.minArgs = 1;
+		this.maxArgs = 1;
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args) {
+
+		if (args.length == 2) {
+			List<String> returnList = new ArrayList<>();
+			for (String typeName : conversionService.getTypeNames()) {
+				if (matchPrefix(typeName, args[1])) {
+					returnList.add(typeName);
+				}
+			}
+			return returnList;
+		}
+
+		return Collections.emptyList();
+	}
+
+
+	@Override
+	public boolean onCommand(final CommandSender sender, final List<String> args) {
+
+		// check for permission
+		if (!sender.hasPermission(permissionNode)) {
+			plugin.messageBuilder.compose(sender, MessageId.PERMISSION_DENIED_CONVERT).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// check min arguments
+		if (args.size() < getMinArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_UNDER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		// check max arguments
+		if (args.size() > getMaxArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_OVER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		// get storage type name with its configured capitalization
+		String typeName = null;
+		for (String name : conversionService.getTypeNames()) {
+			if (name.equalsIgnoreCase(args.get(0))) {
+				typeName = name;
+			}
+		}
+
+		// test that storage type is valid
+		if (typeName == null) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_STORAGE_TYPE)
+					.setMacro(Macro.STORAGE_TYPE, args.get(0))
+					.send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// test that destinations are not already stored in storage type
+		if (typeName.equals(plugin.dataStore.toString())) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_CONVERT_SAME_TYPE)
+					.setMacro(Macro.STORAGE_TYPE, typeName)
+					.send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_CONVERT_START)
+				.setMacro(Macro.STORAGE_TYPE, typeName)
+				.send();
+
+		// convert off the main thread; progress is written to the server log
+		final String finalTypeName = typeName;
+		conversionService.convert(typeName).whenComplete((count, throwable) -> {
+			if (throwable == null) {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_CONVERT)
+						.setMacro(Macro.ITEM_QUANTITY, count)
+						.setMacro(Macro.STORAGE_TYPE, finalTypeName)
+						.send();
+			}
+			else {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_CONVERT)
+						.setMacro(Macro.STORAGE_TYPE, finalTypeName)
+						.send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			}
+		});
+
+		return true;
+	}
+
+}
@@ -27,7 +27,6 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 
 final class DeleteSubcommand extends AbstractSubcommand {
@@ -51,10 +50,7 @@ final class DeleteSubcommand extends AbstractSubcommand {
 									  final String alias, final String[] args) {
 
 		if (args.length == 2) {
-			List<String> resultList = new ArrayList<>(plugin.dataStore.selectAllKeys());
-			resultList.add(0, plugin.messageBuilder.getSpawnDisplayName().orElse("Spawn"));
-			resultList.add(0, plugin.messageBuilder.getHomeDisplayName().orElse("Home"));
-			return resultList.stream().filter(key -> matchPrefix(key, args[1])).collect(Collectors.toList());
+			return matchDestinationKeys(plugin, args[1], true);
 		}
 
 		return Collections.emptyList();
@@ -80,7 +76,7 @@ final class DeleteSubcommand extends AbstractSubcommand {
 		}
 
 		// join remaining arguments into destination name
-		String destinationName = String.join(" ", args);
+		final String destinationName = String.join(" ", args);
 
 		// get key for destination name
 		String key = plugin.lodeStarUtility.deriveKey(destinationName);
@@ -91,20 +87,25 @@ final class DeleteSubcommand extends AbstractSubcommand {
 					.setMacro(Macro.DESTINATION, destinationName)
 					.send();
 			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
 		}
-		// if delete method returns valid destination, delete was successful
-		else if (plugin.dataStore.deleteRecord(key).isPresent()) {
-			plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_DELETE)
-					.setMacro(Macro.DESTINATION, destinationName)
-					.send();
-			plugin.soundConfig.playSound(sender, SoundId.COMMAND_SUCCESS_DELETE);
-		}
-		else {
-			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_DESTINATION)
-					.setMacro(Macro.DESTINATION, destinationName)
-					.send();
-			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
-		}
+
+		// delete record off the main thread; if delete returns valid destination, delete was successful
+		plugin.asyncDataStore.deleteRecord(key).thenAccept(deletedDestination -> {
+			if (deletedDestination.isPresent()) {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_DELETE)
+						.setMacro(Macro.DESTINATION, destinationName)
+						.send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_SUCCESS_DELETE);
+			}
+			else {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_DESTINATION)
+						.setMacro(Macro.DESTINATION, destinationName)
+						.send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			}
+		});
+
 		return true;
 	}
 
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.commands;
+
+import com.winterhavenmc.lodestar.PluginMain;
+import com.winterhavenmc.lodestar.messages.Macro;
+import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.sounds.SoundId;
+import com.winterhavenmc.lodestar.storage.TransferService;
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+
+/**
+ * Export command implementation<br>
+ * writes all destinations to a file in the transfer folder
+ */
+final class ExportSubcommand extends AbstractSubcommand {
+
+	private final PluginMain plugin;
+	private final TransferService transferService;
+
+
+	/**
+	 * Class constructor
+	 * @param plugin reference to plugin main class instance
+	 */
+	ExportSubcommand(final PluginMain plugin) {
+		this.plugin = plugin;
+		this.transferService = new TransferService(plugin);
+		this.name = "export";
+		this.permissionNode = "lodestar.export";
+		this.usageString = "/lodestar export <file name>";
+		this.description = MessageId.COMMAND_HELP_EXPORT;
+		this.minArgs = 1;
+		this.maxArgs = 1;
+	}
+
+
+	@Override
+	public boolean onCommand(final CommandSender sender, final List<String> args) {
+
+		// check for permission
+		if (!sender.hasPermission(permissionNode)) {
+			plugin.messageBuilder.compose(sender, MessageId.PERMISSION_DENIED_EXPORT).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// check min arguments
+		if (args.size() < getMinArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_UNDER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		// check max arguments
+		if (args.size() > getMaxArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_OVER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		final String fileName = args.get(0);
+
+		// test that file name does not leave the transfer folder
+		if (!transferService.isValidTransferFileName(fileName)) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_FILE_NAME)
+					.setMacro(Macro.FILE_NAME, fileName)
+					.send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// export off the main thread
+		transferService.exportDestinations(fileName).whenComplete((result, throwable) -> {
+			if (throwable == null) {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_EXPORT)
+						.setMacro(Macro.ITEM_QUANTITY, result.getCount())
+						.setMacro(Macro.FILE_NAME, fileName)
+						.send();
+			}
+			else {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_EXPORT)
+						.setMacro(Macro.FILE_NAME, fileName)
+						.send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			}
+		});
+
+		return true;
+	}
+
+}
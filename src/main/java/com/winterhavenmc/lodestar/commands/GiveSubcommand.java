@@ -62,15 +62,8 @@ final class GiveSubcommand extends AbstractSubcommand {
 
 		else if (args.length == 3) {
 
-			// get all destination keys in list
-			List<String> resultList = new ArrayList<>(plugin.dataStore.selectAllKeys());
-
-			// add home and spawn destinations to list
-			resultList.add(0, Destination.deriveKey(plugin.messageBuilder.getSpawnDisplayName().orElse("Spawn")));
-			resultList.add(0, Destination.deriveKey(plugin.messageBuilder.getHomeDisplayName().orElse("Home")));
-
-			// return list filtered by matching prefix to argument
-			return resultList.stream().filter(destinationKey -> matchPrefix(destinationKey, args[2])).collect(Collectors.toList());
+			// return home, spawn and stored destination keys matching argument
+			return matchDestinationKeys(plugin, args[2], true);
 		}
 
 		return Collections.emptyList();
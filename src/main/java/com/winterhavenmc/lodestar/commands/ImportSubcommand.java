@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.commands;
+
+import com.winterhavenmc.lodestar.PluginMain;
+import com.winterhavenmc.lodestar.messages.Macro;
+import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.sounds.SoundId;
+import com.winterhavenmc.lodestar.storage.TransferService;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Import command implementation<br>
+ * inserts all destinations in a file in the transfer folder, replacing destinations with the same name
+ */
+final class ImportSubcommand extends AbstractSubcommand {
+
+	private final PluginMain plugin;
+	private final TransferService transferService;
+
+
+	/**
+	 * Class constructor
+	 * @param plugin reference to plugin main class instance
+	 */
+	ImportSubcommand(final PluginMain plugin) {
+		this.plugin = plugin;
+		this.transferService = new TransferService(plugin);
+		this.name = "import";
+		this.permissionNode = "lodestar.import";
+		this.usageString = "/lodestar import <file name>";
+		this.description = MessageId.COMMAND_HELP_IMPORT;
+		this.minArgs = 1;
+		this.maxArgs = 1;
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args) {
+
+		if (args.length == 2) {
+			List<String> returnList = new ArrayList<>();
+			for (String fileName : transferService.getTransferFileNames()) {
+				if (matchPrefix(fileName, args[1])) {
+					returnList.add(fileName);
+				}
+			}
+			return returnList;
+		}
+
+		return Collections.emptyList();
+	}
+
+
+	@Override
+	public boolean onCommand(final CommandSender sender, final List<String> args) {
+
+		// check for permission
+		if (!sender.hasPermission(permissionNode)) {
+			plugin.messageBuilder.compose(sender, MessageId.PERMISSION_DENIED_IMPORT).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// check min arguments
+		if (args.size() < getMinArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_UNDER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		// check max arguments
+		if (args.size() > getMaxArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_OVER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		final String fileName = args.get(0);
+
+		// test that file name does not leave the transfer folder
+		if (!transferService.isValidTransferFileName(fileName)) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_FILE_NAME)
+					.setMacro(Macro.FILE_NAME, fileName)
+					.send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// import off the main thread
+		transferService.importDestinations(fileName).whenComplete((result, throwable) -> {
+			if (throwable == null) {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_IMPORT)
+						.setMacro(Macro.ITEM_QUANTITY, result.getCount())
+						.setMacro(Macro.FILE_NAME, fileName)
+						.setMacro(Macro.SKIPPED_QUANTITY, result.getSkipped())
+						.send();
+			}
+			else {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_IMPORT)
+						.setMacro(Macro.FILE_NAME, fileName)
+						.send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			}
+		});
+
+		return true;
+	}
+
+}
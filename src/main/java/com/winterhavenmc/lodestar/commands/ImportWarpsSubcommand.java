@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.commands;
+
+import com.winterhavenmc.lodestar.PluginMain;
+import com.winterhavenmc.lodestar.messages.Macro;
+import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.sounds.SoundId;
+import com.winterhavenmc.lodestar.storage.TransferService;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Import warps command implementation<br>
+ * inserts the warps of another plugin as destinations, without replacing existing destinations
+ */
+final class ImportWarpsSubcommand extends AbstractSubcommand {
+
+	private final PluginMain plugin;
+	private final TransferService transferService;
+
+	private static final String DRY_RUN = "dry-run";
+
+
+	/**
+	 * Class constructor
+	 * @param plugin reference to plugin main class instance
+	 */
+	ImportWarpsSubcommand(final PluginMain plugin) {
+		this.plugin = plugin;
+		this.transferService = new TransferService(plugin);
+		this.name = "importwarps";
+		this.permissionNode = "lodestar.import";
+		this.usageString = "/lodestar importwarps <format> [path] [dry-run]";
+		this.description = MessageId.COMMAND_HELP_IMPORT_WARPS;
+		this.minArgs = 1;
+		this.maxArgs = 3;
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args) {
+
+		List<String> returnList = new ArrayList<>();
+
+		if (args.length == 2) {
+			for (String formatName : transferService.getWarpFormatNames()) {
+				if (matchPrefix(formatName, args[1])) {
+					returnList.add(formatName);
+				}
+			}
+		}
+		else if (args.length == 3) {
+			String defaultPath = transferService.getDefaultWarpPath(args[1]);
+			if (defaultPath != null && matchPrefix(defaultPath, args[2])) {
+				returnList.add(defaultPath);
+			}
+			if (matchPrefix(DRY_RUN, args[2])) {
+				returnList.add(DRY_RUN);
+			}
+		}
+		else if (args.length == 4) {
+			if (matchPrefix(DRY_RUN, args[3])) {
+				returnList.add(DRY_RUN);
+			}
+		}
+		else {
+			return Collections.emptyList();
+		}
+
+		return returnList;
+	}
+
+
+	@Override
+	public boolean onCommand(final CommandSender sender, final List<String> args) {
+
+		// check for permission
+		if (!sender.hasPermission(permissionNode)) {
+			plugin.messageBuilder.compose(sender, MessageId.PERMISSION_DENIED_IMPORT).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// check min arguments
+		if (args.size() < getMinArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_UNDER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		// check max arguments
+		if (args.size() > getMaxArgs()) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_OVER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+
+		// test that format is supported
+		final String defaultPath = transferService.getDefaultWarpPath(args.get(0));
+		if (defaultPath == null) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_WARP_FORMAT)
+					.setMacro(Macro.WARP_FORMAT, args.get(0))
+					.send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			return true;
+		}
+
+		// dry run flag is always the last argument; path defaults to the usual location for the format
+		final List<String> remaining = new ArrayList<>(args.subList(1, args.size()));
+		final boolean dryRun = !remaining.isEmpty() && remaining.get(remaining.size() - 1).equalsIgnoreCase(DRY_RUN);
+		if (dryRun) {
+			remaining.remove(remaining.size() - 1);
+		}
+		if (remaining.size() > 1) {
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_ARGS_COUNT_OVER).send();
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			displayUsage(sender);
+			return true;
+		}
+		final String path = remaining.isEmpty() ? defaultPath : remaining.get(0);
+
+		// import off the main thread
+		transferService.importWarps(args.get(0), path, dryRun).whenComplete((result, throwable) -> {
+			if (throwable == null) {
+				plugin.messageBuilder.compose(sender, dryRun
+								? MessageId.COMMAND_SUCCESS_IMPORT_WARPS_DRY_RUN
+								: MessageId.COMMAND_SUCCESS_IMPORT_WARPS)
+						.setMacro(Macro.ITEM_QUANTITY, result.getCount())
+						.setMacro(Macro.FILE_NAME, path)
+						.setMacro(Macro.CONFLICT_QUANTITY, result.getConflicts())
+						.setMacro(Macro.SKIPPED_QUANTITY, result.getSkipped())
+						.send();
+			}
+			else {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_IMPORT_WARPS)
+						.setMacro(Macro.FILE_NAME, path)
+						.send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+			}
+		});
+
+		return true;
+	}
+
+}
@@ -20,13 +20,13 @@ package com.winterhavenmc.lodestar.commands;
 import com.winterhavenmc.lodestar.PluginMain;
 import com.winterhavenmc.lodestar.sounds.SoundId;
 import com.winterhavenmc.lodestar.storage.Destination;
+import com.winterhavenmc.lodestar.storage.DestinationPage;
 
 import com.winterhavenmc.lodestar.messages.Macro;
 import com.winterhavenmc.lodestar.messages.MessageId;
 import org.bukkit.command.CommandSender;
 
 import java.util.List;
-import java.util.Optional;
 
 
 final class ListSubcommand extends AbstractSubcommand {
@@ -73,75 +73,91 @@ final class ListSubcommand extends AbstractSubcommand {
 		}
 
 		// set page to at least 1
-		page = Math.max(1, page);
+		final int pageNumber = Math.max(1, page);
+
+		// fetch page of records off the main thread, then display page
+		requestPage(sender, pageNumber);
+
+		return true;
+	}
+
+
+	/**
+	 * Fetch one page of destination records from the datastore and display it
+	 *
+	 * @param sender the command sender
+	 * @param page the page number to display
+	 */
+	private void requestPage(final CommandSender sender, final int page) {
 
 		// get configured items per page
-		int itemsPerPage = plugin.getConfig().getInt("list-page-size");
+		final int itemsPerPage = Math.max(1, plugin.getConfig().getInt("list-page-size"));
+
+		plugin.asyncDataStore.selectPage((page - 1) * itemsPerPage, itemsPerPage, null, null)
+				.thenAccept(destinationPage -> displayPage(sender, page, itemsPerPage, destinationPage));
+	}
 
-		// get all records from datastore
-		final List<String> allKeys = plugin.dataStore.selectAllKeys();
+
+	/**
+	 * Display one page of destination records
+	 *
+	 * @param sender the command sender
+	 * @param page the page number to display
+	 * @param itemsPerPage the number of records per page
+	 * @param destinationPage the page of destination records fetched from the datastore
+	 */
+	private void displayPage(final CommandSender sender,
+	                         final int page,
+	                         final int itemsPerPage,
+	                         final DestinationPage destinationPage) {
 
 		if (plugin.getConfig().getBoolean("debug")) {
-			plugin.getLogger().info("Total records fetched from data store: " + allKeys.size());
+			plugin.getLogger().info("Total records in data store: " + destinationPage.getTotalCount());
 		}
 
-		// if display list is empty, output list empty message and return
-		if (allKeys.isEmpty()) {
+		// if there are no records, output list empty message and return
+		if (destinationPage.getTotalCount() == 0) {
 			plugin.messageBuilder.compose(sender, MessageId.LIST_EMPTY).send();
-			return true;
+			return;
 		}
 
 		// get page count
-		int pageCount = ((allKeys.size() - 1) / itemsPerPage) + 1;
+		int pageCount = ((destinationPage.getTotalCount() - 1) / itemsPerPage) + 1;
+
+		// if page is past the end of the list, display the last page instead
 		if (page > pageCount) {
-			page = pageCount;
+			requestPage(sender, pageCount);
+			return;
 		}
 
-		// get item range for page
-		int startIndex = ((page - 1) * itemsPerPage);
-		int endIndex = Math.min((page * itemsPerPage), allKeys.size());
-
-		// get keys for items on page
-		List<String> displayKeys = allKeys.subList(startIndex, endIndex);
-
 		// display list header
 		plugin.messageBuilder.compose(sender, MessageId.LIST_HEADER).setMacro(Macro.PAGE_NUMBER, page).setMacro(Macro.PAGE_TOTAL, pageCount).send();
 
-		int itemNumber = startIndex;
-
-		for (String key : displayKeys) {
-
-			Optional<Destination> optionalDestination = plugin.dataStore.selectRecord(key);
+		int itemNumber = destinationPage.getOffset();
 
-			if (optionalDestination.isPresent()) {
+		for (Destination destination : destinationPage.getDestinations()) {
 
-				// unwrap optional destination
-				Destination destination = optionalDestination.get();
+			// increment item number
+			itemNumber++;
 
-				// increment item number
-				itemNumber++;
-
-				if (destination.isWorldValid()) {
-					plugin.messageBuilder.compose(sender, MessageId.LIST_ITEM)
-							.setMacro(Macro.DESTINATION, destination.getDisplayName())
-							.setMacro(Macro.ITEM_NUMBER, itemNumber)
-							.setMacro(Macro.LOCATION, destination.getLocation())
-							.send();
-				}
-				else {
-					plugin.messageBuilder.compose(sender, MessageId.LIST_ITEM_INVALID)
-							.setMacro(Macro.DESTINATION, destination.getDisplayName())
-							.setMacro(Macro.ITEM_NUMBER, itemNumber)
-							.setMacro(Macro.WORLD, destination.getWorldName())
-							.send();
-				}
+			if (destination.isWorldValid()) {
+				plugin.messageBuilder.compose(sender, MessageId.LIST_ITEM)
+						.setMacro(Macro.DESTINATION, destination.getDisplayName())
+						.setMacro(Macro.ITEM_NUMBER, itemNumber)
+						.setMacro(Macro.LOCATION, destination.getLocation())
+						.send();
+			}
+			else {
+				plugin.messageBuilder.compose(sender, MessageId.LIST_ITEM_INVALID)
+						.setMacro(Macro.DESTINATION, destination.getDisplayName())
+						.setMacro(Macro.ITEM_NUMBER, itemNumber)
+						.setMacro(Macro.WORLD, destination.getWorldName())
+						.send();
 			}
 		}
 
 		// display list footer
 		plugin.messageBuilder.compose(sender, MessageId.LIST_FOOTER).setMacro(Macro.PAGE_NUMBER, page).setMacro(Macro.PAGE_TOTAL, pageCount).send();
-
-		return true;
 	}
 
 }
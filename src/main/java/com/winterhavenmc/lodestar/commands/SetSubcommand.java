@@ -30,9 +30,6 @@ import org.bukkit.entity.Player;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 
 final class SetSubcommand extends AbstractSubcommand {
@@ -55,12 +52,7 @@ final class SetSubcommand extends AbstractSubcommand {
 									  final String alias, final String[] args) {
 
 		if (args.length == 2) {
-
-			Predicate<String> startsWith = string -> string.toLowerCase().startsWith(args[1].toLowerCase());
-
-			return plugin.dataStore.selectAllKeys().stream()
-					.filter(startsWith)
-					.collect(Collectors.toList());
+			return matchDestinationKeys(plugin, args[1], false);
 		}
 
 		return Collections.emptyList();
@@ -92,10 +84,10 @@ final class SetSubcommand extends AbstractSubcommand {
 		}
 
 		// get player location
-		Location location = ((Player) sender).getLocation();
+		final Location location = ((Player) sender).getLocation();
 
 		// set destinationName to passed argument
-		String destinationName = String.join(" ", args);
+		final String destinationName = String.join(" ", args);
 
 		// check if destination name is a reserved name
 		if (Destination.isReserved(destinationName)) {
@@ -106,16 +98,32 @@ final class SetSubcommand extends AbstractSubcommand {
 			return true;
 		}
 
-		// get optional destination from data store
-		Optional<Destination> optionalDestination = plugin.dataStore.selectRecord(destinationName);
+		// fetch existing destination off the main thread, then store new destination
+		plugin.asyncDataStore.selectRecord(destinationName).thenAccept(optionalDestination ->
+				storeDestination(sender, destinationName, location, optionalDestination.isPresent()));
+
+		return true;
+	}
+
+
+	/**
+	 * Store destination at location and send result message to command sender
+	 *
+	 * @param sender the command sender
+	 * @param destinationName the destination name
+	 * @param location the destination location
+	 * @param exists true if a destination with the same key is already stored
+	 */
+	private void storeDestination(final CommandSender sender, final String destinationName,
+	                              final Location location, final boolean exists) {
 
 		// check for overwrite permission if destination already exists
-		if (optionalDestination.isPresent() && sender.hasPermission(permissionNode + ".overwrite")) {
+		if (exists && sender.hasPermission(permissionNode + ".overwrite")) {
 			plugin.messageBuilder.compose(sender, MessageId.PERMISSION_DENIED_OVERWRITE)
 					.setMacro(Macro.DESTINATION, destinationName)
 					.send();
 			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
-			return true;
+			return;
 		}
 
 		// send warning message if name begins with a number
@@ -128,16 +136,15 @@ final class SetSubcommand extends AbstractSubcommand {
 		// create destination object
 		Destination destination = new Destination(destinationName, location);
 
-		// store destination object
-		plugin.dataStore.insertRecord(destination);
+		// store destination object off the main thread, then send success message
+		plugin.asyncDataStore.insertRecord(destination).thenRun(() -> {
 
-		// send success message to player
-		plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_SET).setMacro(Macro.DESTINATION, destinationName).send();
+			// send success message to player
+			plugin.messageBuilder.compose(sender, MessageId.COMMAND_SUCCESS_SET).setMacro(Macro.DESTINATION, destinationName).send();
 
-		// play sound effect
-		plugin.soundConfig.playSound(sender, SoundId.COMMAND_SUCCESS_SET);
-
-		return true;
+			// play sound effect
+			plugin.soundConfig.playSound(sender, SoundId.COMMAND_SUCCESS_SET);
+		});
 	}
 
 }
@@ -20,23 +20,33 @@ package com.winterhavenmc.lodestar.commands;
 import com.winterhavenmc.lodestar.PluginMain;
 import com.winterhavenmc.lodestar.sounds.SoundId;
 import com.winterhavenmc.lodestar.messages.MessageId;
+import com.winterhavenmc.lodestar.storage.DataStoreStatistics;
+import com.winterhavenmc.lodestar.teleport.HotDestination;
 
 import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static com.winterhavenmc.util.TimeUnit.SECONDS;
 
 
 /**
  * Status command implementation<br>
- * displays plugin settings
+ * displays plugin settings, hot destinations and datastore latencies, or dumps datastore statistics in a machine-readable format
  */
 final class StatusSubcommand extends AbstractSubcommand {
 
 	private final PluginMain plugin;
 
+	private static final String DUMP = "dump";
+
+	// number of hot destinations displayed
+	private static final int HOT_DESTINATION_LIMIT = 5;
+
 
 	/**
 	 * Class constructor
@@ -47,8 +57,21 @@ final class StatusSubcommand extends AbstractSubcommand {
 		this.plugin = plugin;
 		this.name = "status";
 		this.permissionNode = "lodestar.status";
-		this.usageString = "/lodestar status";
+		this.usageString = "/lodestar status [dump]";
 		this.description = MessageId.COMMAND_HELP_STATUS;
+		this.maxArgs = 1;
+	}
+
+
+	@Override
+	public List<String> onTabComplete(final CommandSender sender, final Command command,
+	                                  final String alias, final String[] args) {
+
+		if (args.length == 2 && matchPrefix(DUMP, args[1])) {
+			return List.of(DUMP);
+		}
+
+		return Collections.emptyList();
 	}
 
 
@@ -70,6 +93,18 @@ final class StatusSubcommand extends AbstractSubcommand {
 			return true;
 		}
 
+		// output datastore statistics only, one metric per line
+		if (args.size() == 1) {
+			if (!args.get(0).equalsIgnoreCase(DUMP)) {
+				plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_COMMAND).send();
+				plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
+				displayUsage(sender);
+				return true;
+			}
+			dumpDatastoreStatistics(sender);
+			return true;
+		}
+
 		// output plugin info and config settings
 		displayPluginVersion(sender);
 		displayDebugSetting(sender);
@@ -86,6 +121,8 @@ final class StatusSubcommand extends AbstractSubcommand {
 		displayFromEndSetting(sender);
 		displayLightningSetting(sender);
 		displayEnabledWorlds(sender);
+		displayHotDestinations(sender);
+		displayDatastoreStatistics(sender);
 
 		return true;
 	}
@@ -187,4 +224,101 @@ final class StatusSubcommand extends AbstractSubcommand {
 				+ ChatColor.RESET + plugin.worldManager.getEnabledWorldNames().toString());
 	}
 
+
+	private void displayHotDestinations(final CommandSender sender) {
+
+		sender.sendMessage(ChatColor.GREEN + "Hot chunks: " + ChatColor.RESET
+				+ plugin.teleportHandler.getHotChunkCount() + "/" + plugin.getConfig().getInt("hot-chunks.max-chunks", 45));
+
+		for (HotDestination hotDestination : plugin.teleportHandler.getHotDestinations(HOT_DESTINATION_LIMIT)) {
+			sender.sendMessage(ChatColor.GREEN + "  " + hotDestination.getDisplayName() + ": " + ChatColor.RESET
+					+ String.format("%.1f", hotDestination.getRecentUses()) + " recent uses"
+					+ (hotDestination.isPinned() ? ChatColor.AQUA + " (pinned)" : ""));
+		}
+	}
+
+
+	private void displayDatastoreStatistics(final CommandSender sender) {
+
+		sender.sendMessage(ChatColor.GREEN + "Datastore: " + ChatColor.RESET + plugin.dataStore
+				+ ChatColor.GREEN + "  queued: " + ChatColor.RESET + plugin.asyncDataStore.getQueueDepth()
+				+ " (peak " + plugin.asyncDataStore.getPeakQueueDepth() + ")");
+
+		Optional<DataStoreStatistics> optionalStatistics = plugin.asyncDataStore.getStatistics();
+		if (optionalStatistics.isEmpty()) {
+			return;
+		}
+		DataStoreStatistics statistics = optionalStatistics.get();
+
+		sender.sendMessage(ChatColor.GREEN + "  Rows read/written: " + ChatColor.RESET
+				+ statistics.getRowsRead() + "/" + statistics.getRowsWritten()
+				+ ChatColor.GREEN + "  errors: " + ChatColor.RESET + statistics.getErrors()
+				+ ChatColor.GREEN + "  cache hits/misses: " + ChatColor.RESET
+				+ statistics.getCacheHits() + "/" + statistics.getCacheMisses());
+
+		statistics.getWriteQueue().ifPresent(writeQueue ->
+				sender.sendMessage(ChatColor.GREEN + "  Writer queued: " + ChatColor.RESET
+						+ writeQueue.getDepth() + " (peak " + writeQueue.getPeakDepth() + ")"
+						+ ChatColor.GREEN + "  written: " + ChatColor.RESET + writeQueue.getOperationsWritten()
+						+ " in " + writeQueue.getBatchesCommitted() + " batches"
+						+ ChatColor.GREEN + "  write errors: " + ChatColor.RESET + writeQueue.getWriteErrors()));
+
+		for (DataStoreStatistics.OperationLatency latency : statistics.getOperations()) {
+			sender.sendMessage(ChatColor.GREEN + "  " + latency.getOperation() + ": " + ChatColor.RESET
+					+ latency.getCount() + " ops, p50 " + millis(latency.getP50Micros())
+					+ " / p95 " + millis(latency.getP95Micros())
+					+ " / p99 " + millis(latency.getP99Micros())
+					+ " / max " + millis(latency.getMaxMicros()) + " ms");
+		}
+	}
+
+
+	/**
+	 * Output datastore statistics in Prometheus text format, so they can be copied from the console log
+	 * into monitoring tools. Latencies are in microseconds.
+	 *
+	 * @param sender the command sender
+	 */
+	private void dumpDatastoreStatistics(final CommandSender sender) {
+
+		String type = "{type=\"" + plugin.dataStore + "\"}";
+
+		sender.sendMessage("lodestar_datastore_queue_depth" + type + " " + plugin.asyncDataStore.getQueueDepth());
+		sender.sendMessage("lodestar_datastore_queue_depth_peak" + type + " " + plugin.asyncDataStore.getPeakQueueDepth());
+
+		Optional<DataStoreStatistics> optionalStatistics = plugin.asyncDataStore.getStatistics();
+		if (optionalStatistics.isEmpty()) {
+			return;
+		}
+		DataStoreStatistics statistics = optionalStatistics.get();
+
+		sender.sendMessage("lodestar_datastore_rows_read_total" + type + " " + statistics.getRowsRead());
+		sender.sendMessage("lodestar_datastore_rows_written_total" + type + " " + statistics.getRowsWritten());
+		sender.sendMessage("lodestar_datastore_errors_total" + type + " " + statistics.getErrors());
+		sender.sendMessage("lodestar_datastore_cache_hits_total" + type + " " + statistics.getCacheHits());
+		sender.sendMessage("lodestar_datastore_cache_misses_total" + type + " " + statistics.getCacheMisses());
+
+		statistics.getWriteQueue().ifPresent(writeQueue -> {
+			sender.sendMessage("lodestar_datastore_writer_queue_depth" + type + " " + writeQueue.getDepth());
+			sender.sendMessage("lodestar_datastore_writer_queue_depth_peak" + type + " " + writeQueue.getPeakDepth());
+			sender.sendMessage("lodestar_datastore_writer_operations_total" + type + " " + writeQueue.getOperationsWritten());
+			sender.sendMessage("lodestar_datastore_writer_batches_total" + type + " " + writeQueue.getBatchesCommitted());
+			sender.sendMessage("lodestar_datastore_writer_errors_total" + type + " " + writeQueue.getWriteErrors());
+		});
+
+		for (DataStoreStatistics.OperationLatency latency : statistics.getOperations()) {
+			String labels = "type=\"" + plugin.dataStore + "\",operation=\"" + latency.getOperation() + "\"";
+			sender.sendMessage("lodestar_datastore_latency_micros{" + labels + ",quantile=\"0.5\"} " + latency.getP50Micros());
+			sender.sendMessage("lodestar_datastore_latency_micros{" + labels + ",quantile=\"0.95\"} " + latency.getP95Micros());
+			sender.sendMessage("lodestar_datastore_latency_micros{" + labels + ",quantile=\"0.99\"} " + latency.getP99Micros());
+			sender.sendMessage("lodestar_datastore_latency_micros{" + labels + ",quantile=\"1\"} " + latency.getMaxMicros());
+			sender.sendMessage("lodestar_datastore_latency_micros_count{" + labels + "} " + latency.getCount());
+		}
+	}
+
+
+	private static String millis(final long micros) {
+		return String.format("%.2f", micros / 1000.0);
+	}
+
 }
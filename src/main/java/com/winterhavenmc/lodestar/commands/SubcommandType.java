@@ -29,6 +29,13 @@ enum SubcommandType {
 		}
 	},
 
+	CONVERT() {
+		@Override
+		Subcommand create(final PluginMain plugin) {
+			return new ConvertSubcommand(plugin);
+		}
+	},
+
 	DELETE() {
 		@Override
 		Subcommand create(final PluginMain plugin) {
@@ -43,6 +50,13 @@ enum SubcommandType {
 		}
 	},
 
+	EXPORT() {
+		@Override
+		Subcommand create(final PluginMain plugin) {
+			return new ExportSubcommand(plugin);
+		}
+	},
+
 	GIVE() {
 		@Override
 		Subcommand create(final PluginMain plugin) {
@@ -50,6 +64,20 @@ enum SubcommandType {
 		}
 	},
 
+	IMPORT() {
+		@Override
+		Subcommand create(final PluginMain plugin) {
+			return new ImportSubcommand(plugin);
+		}
+	},
+
+	IMPORTWARPS() {
+		@Override
+		Subcommand create(final PluginMain plugin) {
+			return new ImportWarpsSubcommand(plugin);
+		}
+	},
+
 	LIST() {
 		@Override
 		Subcommand create(final PluginMain plugin) {
@@ -32,7 +32,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 
 final class TeleportSubcommand extends AbstractSubcommand {
@@ -56,10 +55,7 @@ final class TeleportSubcommand extends AbstractSubcommand {
 									  final String alias, final String[] args) {
 
 		if (args.length == 2) {
-
-			return plugin.dataStore.selectAllKeys().stream()
-					.filter(string -> matchPrefix(string, args[1]))
-					.collect(Collectors.toList());
+			return matchDestinationKeys(plugin, args[1], false);
 		}
 
 		return Collections.emptyList();
@@ -91,42 +87,61 @@ final class TeleportSubcommand extends AbstractSubcommand {
 		}
 
 		// join remaining arguments to get destination name
-		String destinationName = String.join(" ", args);
+		final String destinationName = String.join(" ", args);
+
+		// fetch destination off the main thread, then teleport player
+		plugin.asyncDataStore.selectRecord(destinationName).thenAccept(optionalDestination ->
+				teleportPlayer(player, destinationName, optionalDestination));
+
+		return true;
+	}
+
+
+	/**
+	 * Teleport player to destination, or send invalid destination message
+	 *
+	 * @param player the player to teleport
+	 * @param destinationName the destination name
+	 * @param optionalDestination the destination fetched from the datastore
+	 */
+	private void teleportPlayer(final Player player, final String destinationName,
+	                            final Optional<Destination> optionalDestination) {
+
+		// if player logged off while destination was fetched, do nothing and return
+		if (!player.isOnline()) {
+			return;
+		}
 
 		// test that destination name is valid
-		if (!Destination.exists(destinationName)) {
-			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_DESTINATION)
+		if (optionalDestination.isEmpty()) {
+			plugin.messageBuilder.compose(player, MessageId.COMMAND_FAIL_INVALID_DESTINATION)
 					.setMacro(Macro.DESTINATION, destinationName)
 					.send();
-			plugin.soundConfig.playSound(sender, SoundId.COMMAND_FAIL);
-			return true;
+			plugin.soundConfig.playSound(player, SoundId.COMMAND_FAIL);
+			return;
 		}
 
-		// get destination from datastore
-		Optional<Destination> optionalDestination = plugin.dataStore.selectRecord(destinationName);
+		// unwrap optional destination
+		Destination destination = optionalDestination.get();
 
-		if (optionalDestination.isPresent() && optionalDestination.get().getLocation().isPresent()) {
+		Optional<Location> optionalLocation = destination.getLocation();
 
-			// unwrap optional destination
-			Destination destination = optionalDestination.get();
+		if (optionalLocation.isPresent()) {
 
 			// unwrap optional location
-			Location location = destination.getLocation().get();
+			Location location = optionalLocation.get();
 
 			plugin.soundConfig.playSound(player.getLocation(), SoundId.TELEPORT_SUCCESS_DEPARTURE);
 			player.teleport(location);
-			plugin.messageBuilder.compose(sender, MessageId.TELEPORT_SUCCESS)
+			plugin.messageBuilder.compose(player, MessageId.TELEPORT_SUCCESS)
 					.setMacro(Macro.DESTINATION, destination)
 					.send();
 			plugin.soundConfig.playSound(location, SoundId.TELEPORT_SUCCESS_ARRIVAL);
-			return true;
 		}
 		else {
-			plugin.messageBuilder.compose(sender, MessageId.COMMAND_FAIL_INVALID_DESTINATION).send();
-			plugin.soundConfig.playSound(sender, SoundId.TELEPORT_DENIED_WORLD_DISABLED);
+			plugin.messageBuilder.compose(player, MessageId.COMMAND_FAIL_INVALID_DESTINATION).send();
+			plugin.soundConfig.playSound(player, SoundId.TELEPORT_DENIED_WORLD_DISABLED);
 		}
-
-		return true;
 	}
 
 }
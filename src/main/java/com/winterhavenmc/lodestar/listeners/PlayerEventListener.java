@@ -35,6 +35,7 @@ import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
@@ -216,6 +217,17 @@ public final class PlayerEventListener implements Listener {
 	}
 
 
+	/**
+	 * load stored cooldown when player joins server
+	 *
+	 * @param event the event being handled by this method
+	 */
+	@EventHandler
+	void onPlayerJoin(final PlayerJoinEvent event) {
+		plugin.teleportHandler.loadPlayerCooldown(event.getPlayer());
+	}
+
+
 	/**
 	 * clean up any pending player tasks when player logs off of server
 	 *
@@ -225,6 +237,9 @@ public final class PlayerEventListener implements Listener {
 	void onPlayerQuit(final PlayerQuitEvent event) {
 		// cancel any pending teleport for player
 		plugin.teleportHandler.cancelTeleport(event.getPlayer());
+
+		// store player cooldown without waiting for the next flush
+		plugin.teleportHandler.savePlayerCooldown(event.getPlayer());
 	}
 
 
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.listeners;
+
+import com.winterhavenmc.lodestar.PluginMain;
+import com.winterhavenmc.lodestar.storage.Destination;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Objects;
+
+
+/**
+ * Invalidates the cached destination locations when worlds are loaded or unloaded,
+ * and forgets the chunk tickets held in unloaded worlds
+ */
+public final class WorldEventListener implements Listener {
+
+	// reference to main class
+	private final PluginMain plugin;
+
+
+	/**
+	 * constructor method for WorldEventListener class
+	 *
+	 * @param    plugin        A reference to this plugin's main class
+	 */
+	public WorldEventListener(final PluginMain plugin) {
+
+		// reference to main
+		Objects.requireNonNull(this.plugin = plugin);
+
+		// register events in this class
+		plugin.getServer().getPluginManager().registerEvents(this, plugin);
+	}
+
+
+	/**
+	 * destinations in a newly loaded world become valid
+	 *
+	 * @param event the event being handled by this method
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onWorldLoad(final WorldLoadEvent event) {
+		Destination.invalidateWorlds();
+	}
+
+
+	/**
+	 * destinations in an unloaded world become invalid, and chunk tickets held in it are forgotten
+	 *
+	 * @param event the event being handled by this method
+	 */
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onWorldUnload(final WorldUnloadEvent event) {
+		Destination.invalidateWorlds();
+		plugin.teleportHandler.worldUnloaded(event.getWorld());
+
+		// the world is still loaded while the event is handled, so invalidate again once it is gone
+		plugin.getServer().getScheduler().runTask(plugin, Destination::invalidateWorlds);
+	}
+
+}
@@ -31,5 +31,10 @@ public enum Macro {
 	PAGE_TOTAL,
 	ITEM_NUMBER,
 	LOCATION,
+	STORAGE_TYPE,
+	FILE_NAME,
+	SKIPPED_QUANTITY,
+	CONFLICT_QUANTITY,
+	WARP_FORMAT,
 
 }
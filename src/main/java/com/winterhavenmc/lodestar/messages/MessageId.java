@@ -24,10 +24,14 @@ public enum MessageId {
 
 	COMMAND_HELP_INVALID,
 	COMMAND_HELP_BIND,
+	COMMAND_HELP_CONVERT,
 	COMMAND_HELP_DELETE,
 	COMMAND_HELP_DESTROY,
+	COMMAND_HELP_EXPORT,
 	COMMAND_HELP_GIVE,
 	COMMAND_HELP_HELP,
+	COMMAND_HELP_IMPORT,
+	COMMAND_HELP_IMPORT_WARPS,
 	COMMAND_HELP_LIST,
 	COMMAND_HELP_RELOAD,
 	COMMAND_HELP_SET,
@@ -38,12 +42,20 @@ public enum MessageId {
 	COMMAND_FAIL_ARGS_COUNT_OVER,
 	COMMAND_FAIL_ARGS_COUNT_UNDER,
 	COMMAND_FAIL_CONSOLE,
+	COMMAND_FAIL_CONVERT,
+	COMMAND_FAIL_CONVERT_SAME_TYPE,
 	COMMAND_FAIL_DELETE_RESERVED,
+	COMMAND_FAIL_EXPORT,
 	COMMAND_FAIL_GIVE_INVENTORY_FULL,
+	COMMAND_FAIL_IMPORT,
+	COMMAND_FAIL_IMPORT_WARPS,
 	COMMAND_FAIL_INVALID_COMMAND,
 	COMMAND_FAIL_INVALID_DESTINATION,
+	COMMAND_FAIL_INVALID_FILE_NAME,
 	COMMAND_FAIL_INVALID_MATERIAL,
 	COMMAND_FAIL_INVALID_ITEM,
+	COMMAND_FAIL_INVALID_STORAGE_TYPE,
+	COMMAND_FAIL_INVALID_WARP_FORMAT,
 	COMMAND_FAIL_PLAYER_NOT_FOUND,
 	COMMAND_FAIL_PLAYER_NOT_ONLINE,
 	COMMAND_FAIL_SET_RESERVED,
@@ -54,16 +66,25 @@ public enum MessageId {
 
 	COMMAND_WARN_SET_NUMERIC_PREFIX,
 
+	COMMAND_SUCCESS_CONVERT,
+	COMMAND_SUCCESS_CONVERT_START,
 	COMMAND_SUCCESS_DELETE,
 	COMMAND_SUCCESS_DESTROY,
+	COMMAND_SUCCESS_EXPORT,
 	COMMAND_SUCCESS_GIVE_TARGET,
+	COMMAND_SUCCESS_IMPORT,
+	COMMAND_SUCCESS_IMPORT_WARPS,
+	COMMAND_SUCCESS_IMPORT_WARPS_DRY_RUN,
 	COMMAND_SUCCESS_RELOAD,
 
 	PERMISSION_DENIED_BIND,
+	PERMISSION_DENIED_CONVERT,
 	PERMISSION_DENIED_DELETE,
 	PERMISSION_DENIED_DESTROY,
+	PERMISSION_DENIED_EXPORT,
 	PERMISSION_DENIED_GIVE,
 	PERMISSION_DENIED_HELP,
+	PERMISSION_DENIED_IMPORT,
 	PERMISSION_DENIED_LIST,
 	PERMISSION_DENIED_OVERWRITE,
 	PERMISSION_DENIED_RELOAD,
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import com.winterhavenmc.lodestar.PluginMain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+/**
+ * Non-blocking variant of the {@link DataStore} interface. Each operation is run on a dedicated
+ * storage thread against the currently connected datastore, and the returned future is completed
+ * on the main server thread through the Bukkit scheduler, so dependent stages attached with
+ * {@code thenAccept} and friends may safely use the Bukkit API.
+ */
+public final class AsyncDataStore {
+
+	// reference to main class
+	private final PluginMain plugin;
+
+	// single thread executor for datastore operations
+	private final ExecutorService storageExecutor;
+
+	// executor that hands tasks to the main server thread
+	private final Executor mainThreadExecutor;
+
+	// futures not yet completed, completed exceptionally if the plugin is disabled before their turn on the main thread
+	private final Set<CompletableFuture<?>> pendingResults = ConcurrentHashMap.newKeySet();
+
+	// operations submitted and not yet finished on the storage thread
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 */
+	public AsyncDataStore(final PluginMain plugin) {
+		this.plugin = plugin;
+		this.storageExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, plugin.getName() + "-Storage");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.mainThreadExecutor = runnable -> {
+			if (!plugin.isEnabled()) {
+				throw new RejectedExecutionException("Plugin is disabled.");
+			}
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		};
+	}
+
+
+	/**
+	 * Get record
+	 *
+	 * @param destinationName the name string key of the destination to be retrieved from the datastore
+	 * @return future completed on the main thread with the optional destination
+	 */
+	public CompletableFuture<Optional<Destination>> selectRecord(final String destinationName) {
+		return submit(() -> plugin.dataStore.selectRecord(destinationName));
+	}
+
+
+	/**
+	 * Store record
+	 *
+	 * @param destination the destination object to be inserted in the datastore
+	 * @return future completed on the main thread when the record has been handed to the datastore
+	 */
+	public CompletableFuture<Void> insertRecord(final Destination destination) {
+		return submit(() -> {
+			plugin.dataStore.insertRecord(destination);
+			return null;
+		});
+	}
+
+
+	/**
+	 * Insert a collection of records
+	 *
+	 * @param destinations a collection of records to be inserted
+	 * @return future completed on the main thread with the count of records inserted
+	 */
+	public CompletableFuture<Integer> insertRecords(final Collection<Destination> destinations) {
+		return submit(() -> plugin.dataStore.insertRecords(destinations));
+	}
+
+
+	/**
+	 * get all destination keys
+	 *
+	 * @return future completed on the main thread with the list of all destination keys
+	 */
+	public CompletableFuture<List<String>> selectAllKeys() {
+		return submit(() -> plugin.dataStore.selectAllKeys());
+	}
+
+
+	/**
+	 * get all records
+	 *
+	 * @return future completed on the main thread with all destination records
+	 */
+	public CompletableFuture<Collection<Destination>> selectAllRecords() {
+		return submit(() -> plugin.dataStore.selectAllRecords());
+	}
+
+
+	/**
+	 * Get one page of records, ordered by key
+	 *
+	 * @param offset the number of matching records to skip
+	 * @param limit the maximum number of records to return
+	 * @param worldName only match records in the named world, or null to match all worlds
+	 * @param keyPrefix only match records with keys beginning with this prefix, ignoring case, or null to match all keys
+	 * @return future completed on the main thread with the page of matching records
+	 */
+	public CompletableFuture<DestinationPage> selectPage(final int offset,
+	                                                     final int limit,
+	                                                     final String worldName,
+	                                                     final String keyPrefix) {
+		return submit(() -> plugin.dataStore.selectPage(offset, limit, worldName, keyPrefix));
+	}
+
+
+	/**
+	 * Delete record
+	 *
+	 * @param destinationName the name key string of the destination record to be deleted
+	 * @return future completed on the main thread with the destination record that was deleted
+	 */
+	public CompletableFuture<Optional<Destination>> deleteRecord(final String destinationName) {
+		return submit(() -> plugin.dataStore.deleteRecord(destinationName));
+	}
+
+
+	/**
+	 * Test if the datastore in use persists player teleport cooldowns
+	 *
+	 * @return true if cooldowns are stored, false if the datastore discards them
+	 */
+	public boolean storesCooldowns() {
+		return plugin.dataStore.getType().storesCooldowns();
+	}
+
+
+	/**
+	 * Get the expiry time of a player's teleport cooldown
+	 *
+	 * @param playerUid the player uuid
+	 * @return future completed on the main thread with the expiry time in milliseconds since the epoch,
+	 * or zero if the player has no stored cooldown that has not expired
+	 */
+	public CompletableFuture<Long> selectCooldown(final UUID playerUid) {
+		return submit(() -> plugin.dataStore.selectCooldown(playerUid, System.currentTimeMillis()));
+	}
+
+
+	/**
+	 * Insert or replace the teleport cooldowns of a collection of players
+	 *
+	 * @param cooldowns map of player uuids to cooldown expiry times in milliseconds since the epoch;
+	 *                  the map must not be modified after it is passed to this method
+	 * @return future completed on the main thread with the count of cooldowns written
+	 */
+	public CompletableFuture<Integer> insertCooldowns(final Map<UUID, Long> cooldowns) {
+		return submit(() -> plugin.dataStore.insertCooldowns(cooldowns));
+	}
+
+
+	/**
+	 * Delete teleport cooldowns that have expired
+	 *
+	 * @return future completed on the main thread with the count of cooldowns deleted
+	 */
+	public CompletableFuture<Integer> purgeCooldowns() {
+		return submit(() -> plugin.dataStore.purgeCooldowns(System.currentTimeMillis()));
+	}
+
+
+	/**
+	 * Get operation latencies and counters of the datastore in use
+	 *
+	 * @return optional snapshot of datastore statistics, empty if the datastore is not instrumented
+	 */
+	public Optional<DataStoreStatistics> getStatistics() {
+		return plugin.dataStore.getStatistics();
+	}
+
+
+	/**
+	 * Get the number of operations submitted and not yet finished on the storage thread
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+
+	/**
+	 * Get the largest number of operations waiting on the storage thread at once
+	 *
+	 * @return the peak queue depth
+	 */
+	public int getPeakQueueDepth() {
+		return peakQueueDepth.get();
+	}
+
+
+	/**
+	 * Stop accepting new operations and wait for pending operations to finish. Futures that can no
+	 * longer be completed on the main thread are completed exceptionally.
+	 */
+	public void shutdown() {
+		storageExecutor.shutdown();
+		try {
+			if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				plugin.getLogger().warning("Timed out waiting for pending datastore operations to complete.");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// callbacks queued on the main thread are cancelled with the plugin tasks
+		for (CompletableFuture<?> result : pendingResults) {
+			result.completeExceptionally(new CancellationException("Plugin disabled before the datastore operation completed."));
+		}
+		pendingResults.clear();
+	}
+
+
+	/**
+	 * Run a datastore operation on the storage thread, completing the returned future on the main thread
+	 *
+	 * @param operation the datastore operation
+	 * @param <T> the result type of the operation
+	 * @return future completed on the main thread with the operation result
+	 */
+	<T> CompletableFuture<T> submit(final Supplier<T> operation) {
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+
+		peakQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+
+		final CompletableFuture<T> operationFuture;
+		try {
+			operationFuture = CompletableFuture.supplyAsync(() -> {
+				try {
+					return operation.get();
+				}
+				finally {
+					queueDepth.decrementAndGet();
+				}
+			}, storageExecutor);
+		}
+		catch (RejectedExecutionException e) {
+			// storage thread has been shut down
+			queueDepth.decrementAndGet();
+			result.completeExceptionally(e);
+			return result;
+		}
+
+		pendingResults.add(result);
+		result.whenComplete((value, throwable) -> pendingResults.remove(result));
+
+		operationFuture.whenComplete((value, throwable) -> {
+			try {
+				mainThreadExecutor.execute(() -> {
+					if (throwable != null) {
+						plugin.getLogger().warning("An error occurred during an asynchronous datastore operation.");
+						plugin.getLogger().warning(throwable.getLocalizedMessage());
+						result.completeExceptionally(throwable);
+					}
+					else {
+						result.complete(value);
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				// plugin disabled, so dependent stages would never run on the main thread
+				result.completeExceptionally(throwable != null ? throwable : e);
+			}
+		});
+
+		return result;
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import com.winterhavenmc.lodestar.PluginMain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Conversion of the datastore in use to another datastore type
+ */
+public final class ConversionService {
+
+	// reference to main class
+	private final PluginMain plugin;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 */
+	public ConversionService(final PluginMain plugin) {
+		this.plugin = plugin;
+	}
+
+
+	/**
+	 * Convert all records to a new datastore type, and switch the plugin to the new datastore.
+	 * Operations submitted during the conversion wait for it, and are applied to the new datastore.
+	 *
+	 * @param typeName the name of the datastore type to convert to
+	 * @return future completed on the main thread with the count of records converted,
+	 * or completed exceptionally if the conversion failed
+	 */
+	public CompletableFuture<Integer> convert(final String typeName) {
+		return plugin.asyncDataStore.submit(() -> DataStoreConverter.convertCurrent(plugin, DataStoreType.match(typeName)));
+	}
+
+
+	/**
+	 * Get the names of all datastore types
+	 *
+	 * @return list of datastore type names
+	 */
+	public List<String> getTypeNames() {
+		List<String> returnList = new ArrayList<>();
+		for (DataStoreType type : DataStoreType.values()) {
+			returnList.add(type.toString());
+		}
+		return returnList;
+	}
+
+}
@@ -22,7 +22,10 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 
 public interface DataStore {
@@ -62,8 +65,9 @@ public interface DataStore {
 	 * Store record
 	 *
 	 * @param destination the destination object to be inserted in the datastore
+	 * @return true if the record was accepted, false if it was rejected or could not be written
 	 */
-	void insertRecord(final Destination destination);
+	boolean insertRecord(final Destination destination);
 
 
 	/**
@@ -83,6 +87,16 @@ public interface DataStore {
 	List<String> selectAllKeys();
 
 
+	/**
+	 * get destination keys beginning with a prefix, ignoring case
+	 *
+	 * @param prefix the prefix to match
+	 * @param limit the maximum number of keys to return
+	 * @return List of matching destination keys, ordered by key
+	 */
+	List<String> selectKeysByPrefix(final String prefix, final int limit);
+
+
 	/**
 	 * get all records
 	 *
@@ -91,6 +105,48 @@ public interface DataStore {
 	Collection<Destination> selectAllRecords();
 
 
+	/**
+	 * Visit every record in key order, one at a time, without collecting all records in memory
+	 *
+	 * @param action the action to perform on each record
+	 * @return count of records visited
+	 */
+	int forEachRecord(final Consumer<Destination> action);
+
+
+	/**
+	 * Get one page of records, ordered by key
+	 *
+	 * @param offset the number of matching records to skip
+	 * @param limit the maximum number of records to return
+	 * @param worldName only match records in the named world, or null to match all worlds
+	 * @param keyPrefix only match records with keys beginning with this prefix, ignoring case, or null to match all keys
+	 * @return the page of matching records, with the total count of matching records
+	 */
+	DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix);
+
+
+	/**
+	 * Get the current revision of the datastore, which is incremented by every write.
+	 * Only datastores shared between servers track revisions.
+	 *
+	 * @return the current revision, or zero if the datastore does not track revisions
+	 */
+	long selectRevision();
+
+
+	/**
+	 * Pass records inserted or deleted after a revision to the given actions
+	 *
+	 * @param revision the last revision seen by the caller
+	 * @param inserted the action to perform on each inserted or replaced record
+	 * @param deleted the action to perform on the lower case key of each deleted record
+	 * @return the revision the changes are current to, or -1 if the changes since the given
+	 * revision are no longer available and all records must be reloaded
+	 */
+	long selectChangesSince(final long revision, final Consumer<Destination> inserted, final Consumer<String> deleted);
+
+
 	/**
 	 * Delete record
 	 *
@@ -101,6 +157,36 @@ public interface DataStore {
 	Optional<Destination> deleteRecord(final String destinationName);
 
 
+	/**
+	 * Get the expiry time of a player's teleport cooldown
+	 *
+	 * @param playerUid the player uuid
+	 * @param now the current time in milliseconds since the epoch
+	 * @return the expiry time in milliseconds since the epoch, or zero if the player has no
+	 * cooldown later than now, or the datastore does not persist cooldowns
+	 */
+	long selectCooldown(final UUID playerUid, final long now);
+
+
+	/**
+	 * Insert or replace the teleport cooldowns of a collection of players
+	 *
+	 * @param cooldowns map of player uuids to cooldown expiry times in milliseconds since the epoch
+	 * @return count of cooldowns written
+	 */
+	int insertCooldowns(final Map<UUID, Long> cooldowns);
+
+
+	/**
+	 * Delete teleport cooldowns that have expired
+	 *
+	 * @param now the current time in milliseconds since the epoch
+	 * @return count of cooldowns deleted
+	 */
+	@SuppressWarnings("UnusedReturnValue")
+	int purgeCooldowns(final long now);
+
+
 	/**
 	 * Close storage
 	 */
@@ -120,6 +206,22 @@ public interface DataStore {
 	boolean delete();
 
 
+	/**
+	 * Get operation latencies and counters, if the datastore is instrumented
+	 *
+	 * @return optional snapshot of datastore statistics
+	 */
+	Optional<DataStoreStatistics> getStatistics();
+
+
+	/**
+	 * Get the backing datastore, without any cache or instrumentation wrapped around it
+	 *
+	 * @return the backing datastore
+	 */
+	DataStore unwrap();
+
+
 	/**
 	 * Create new data store of given type.<br>
 	 * No parameter version used when no current datastore exists
@@ -132,8 +234,8 @@ public interface DataStore {
 		// get data store type from config
 		DataStoreType dataStoreType = DataStoreType.match(plugin.getConfig().getString("storage-type"));
 
-		// get new data store of specified type
-		DataStore newDataStore = dataStoreType.connect(plugin);
+		// get new data store of specified type, wrapped in write-through cache if the type uses it
+		DataStore newDataStore = dataStoreType.connectCached(plugin);
 
 		// initialize new data store
 		try {
@@ -17,6 +17,13 @@
 
 package com.winterhavenmc.lodestar.storage;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
 
 abstract class DataStoreAbstract implements DataStore {
 
@@ -24,6 +31,9 @@ abstract class DataStoreAbstract implements DataStore {
 
 	DataStoreType type;
 
+	// operations that failed and were handled by the datastore
+	private final LongAdder failures = new LongAdder();
+
 
 	/**
 	 * Get datastore initialized field
@@ -55,6 +65,64 @@ abstract class DataStoreAbstract implements DataStore {
 	}
 
 
+	/**
+	 * Get datastore revision; datastores that are not shared do not track revisions
+	 *
+	 * @return zero
+	 */
+	@Override
+	public long selectRevision() {
+		return 0;
+	}
+
+
+	/**
+	 * Get changes since a revision; datastores that are not shared do not track revisions,
+	 * and no other server changes their records
+	 *
+	 * @return the given revision
+	 */
+	@Override
+	public long selectChangesSince(final long revision,
+	                               final Consumer<Destination> inserted,
+	                               final Consumer<String> deleted) {
+		return revision;
+	}
+
+
+	/**
+	 * Get a player's cooldown; datastores that do not persist cooldowns keep them in memory only
+	 *
+	 * @return zero
+	 */
+	@Override
+	public long selectCooldown(final UUID playerUid, final long now) {
+		return 0;
+	}
+
+
+	/**
+	 * Insert cooldowns; datastores that do not persist cooldowns discard them
+	 *
+	 * @return zero
+	 */
+	@Override
+	public int insertCooldowns(final Map<UUID, Long> cooldowns) {
+		return 0;
+	}
+
+
+	/**
+	 * Purge expired cooldowns; datastores that do not persist cooldowns have none to purge
+	 *
+	 * @return zero
+	 */
+	@Override
+	public int purgeCooldowns(final long now) {
+		return 0;
+	}
+
+
 	/**
 	 * Override toString method to return the datastore type name
 	 *
@@ -65,4 +133,36 @@ abstract class DataStoreAbstract implements DataStore {
 		return this.type.toString();
 	}
 
+
+	/**
+	 * Count an operation that failed, and whose error was logged and handled by the datastore
+	 * instead of being thrown to the caller
+	 */
+	void recordFailure() {
+		failures.increment();
+	}
+
+
+	/**
+	 * Get datastore statistics; latencies are recorded by the instrumentation wrapped around the datastore,
+	 * so only the count of failed operations is reported by the datastore itself
+	 *
+	 * @return statistics with the count of failed operations
+	 */
+	@Override
+	public Optional<DataStoreStatistics> getStatistics() {
+		return Optional.of(new DataStoreStatistics(toString(), List.of(), 0, 0, failures.sum(), 0, 0, null));
+	}
+
+
+	/**
+	 * Get the backing datastore; datastores that are not wrappers are their own backing datastore
+	 *
+	 * @return this datastore
+	 */
+	@Override
+	public DataStore unwrap() {
+		return this;
+	}
+
 }
@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+
+/**
+ * A write-through caching decorator for a {@link DataStore}. All destination records are
+ * loaded into memory when the datastore is initialized, so record lookups are served from
+ * memory and never touch the backing store. Inserts and deletes are passed through to the
+ * backing store and applied to the cache.
+ * <p>
+ * If the backing store is shared with other servers, an asynchronous task polls its revision
+ * and applies only the records changed by other servers since the last revision seen.
+ */
+final class DataStoreCache implements DataStore {
+
+	// reference to main class
+	private final JavaPlugin plugin;
+
+	// the backing datastore
+	private final DataStore dataStore;
+
+	// map of destination records, keyed by lower case destination key
+	private final ConcurrentSkipListMap<String, Destination> destinationMap = new ConcurrentSkipListMap<>();
+
+	// cache statistics counters
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	// last backing store revision applied to the cache; only accessed by initialize and the poll task
+	private volatile long revision;
+
+	// task polling a shared backing store for changes made by other servers
+	private BukkitTask pollTask;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 * @param dataStore the backing datastore
+	 */
+	DataStoreCache(final JavaPlugin plugin, final DataStore dataStore) {
+		this.plugin = Objects.requireNonNull(plugin);
+		this.dataStore = Objects.requireNonNull(dataStore);
+	}
+
+
+	@Override
+	public void initialize() throws Exception {
+
+		// initialize backing datastore if necessary
+		if (!dataStore.isInitialized()) {
+			dataStore.initialize();
+		}
+
+		// revision is read before the records, so changes made during the load are applied by the next poll
+		revision = dataStore.selectRevision();
+
+		// stream all records from backing datastore
+		destinationMap.clear();
+		dataStore.forEachRecord(destination -> destinationMap.put(cacheKey(destination.getKey()), destination));
+
+		plugin.getLogger().info(destinationMap.size() + " destination records loaded into cache.");
+
+		// poll shared backing datastore for changes made by other servers
+		if (dataStore.getType().isShared() && pollTask == null) {
+			long pollTicks = Math.max(1, plugin.getConfig().getLong("storage.sql.poll-interval", 5)) * 20L;
+			pollTask = plugin.getServer().getScheduler()
+					.runTaskTimerAsynchronously(plugin, this::pollChanges, pollTicks, pollTicks);
+		}
+	}
+
+
+	/**
+	 * Apply records changed in the backing datastore since the last revision seen.
+	 * If the changes are no longer available, all records are reloaded.
+	 */
+	private void pollChanges() {
+
+		long newRevision = dataStore.selectChangesSince(revision,
+				destination -> destinationMap.put(cacheKey(destination.getKey()), destination),
+				destinationMap::remove);
+
+		if (newRevision < 0) {
+			newRevision = dataStore.selectRevision();
+			reload();
+		}
+
+		if (newRevision != revision && plugin.getConfig().getBoolean("debug")) {
+			plugin.getLogger().info("Destination cache updated from revision " + revision + " to " + newRevision + ".");
+		}
+
+		revision = newRevision;
+	}
+
+
+	/**
+	 * Replace all cached records with the records in the backing datastore, without
+	 * emptying the cache while records are loaded
+	 */
+	private void reload() {
+
+		Map<String, Destination> loaded = new HashMap<>();
+		dataStore.forEachRecord(destination -> loaded.put(cacheKey(destination.getKey()), destination));
+
+		destinationMap.putAll(loaded);
+		destinationMap.keySet().retainAll(loaded.keySet());
+
+		plugin.getLogger().info(loaded.size() + " destination records reloaded into cache.");
+	}
+
+
+	@Override
+	public boolean isInitialized() {
+		return dataStore.isInitialized();
+	}
+
+
+	@Override
+	public DataStoreType getType() {
+		return dataStore.getType();
+	}
+
+
+	@Override
+	public Optional<Destination> selectRecord(final String destinationName) {
+
+		// if key is null return empty optional
+		if (destinationName == null) {
+			return Optional.empty();
+		}
+
+		Destination destination = destinationMap.get(cacheKey(Destination.deriveKey(destinationName)));
+
+		if (destination == null) {
+			missCount.incrementAndGet();
+			return Optional.empty();
+		}
+
+		hitCount.incrementAndGet();
+		return Optional.of(destination);
+	}
+
+
+	@Override
+	public boolean insertRecord(final Destination destination) {
+
+		// if destination is null do nothing and return
+		if (destination == null) {
+			return false;
+		}
+
+		// cache only records accepted by the datastore
+		boolean inserted = dataStore.insertRecord(destination);
+		if (inserted) {
+			destinationMap.put(cacheKey(destination.getKey()), destination);
+		}
+		return inserted;
+	}
+
+
+	@Override
+	public int insertRecords(final Collection<Destination> destinations) {
+
+		// if destinations is null return zero record count
+		if (destinations == null) {
+			return 0;
+		}
+
+		int count = dataStore.insertRecords(destinations);
+
+		for (Destination destination : destinations) {
+			if (isStorable(destination)) {
+				destinationMap.put(cacheKey(destination.getKey()), destination);
+			}
+		}
+
+		return count;
+	}
+
+
+	@Override
+	public List<String> selectAllKeys() {
+		List<String> returnList = new ArrayList<>(destinationMap.size());
+		for (Destination destination : destinationMap.values()) {
+			returnList.add(destination.getKey());
+		}
+		return returnList;
+	}
+
+
+	@Override
+	public List<String> selectKeysByPrefix(final String prefix, final int limit) {
+
+		// keys are lower case, so matching keys are a contiguous range starting at the lower case prefix
+		final String lowerPrefix = (prefix == null) ? "" : cacheKey(prefix);
+
+		List<String> returnList = new ArrayList<>();
+
+		for (Map.Entry<String, Destination> entry : destinationMap.tailMap(lowerPrefix, true).entrySet()) {
+			if (returnList.size() >= limit || !entry.getKey().startsWith(lowerPrefix)) {
+				break;
+			}
+			returnList.add(entry.getValue().getKey());
+		}
+
+		return returnList;
+	}
+
+
+	@Override
+	public Collection<Destination> selectAllRecords() {
+		return new ArrayList<>(destinationMap.values());
+	}
+
+
+	@Override
+	public int forEachRecord(final Consumer<Destination> action) {
+		int count = 0;
+		for (Destination destination : destinationMap.values()) {
+			action.accept(destination);
+			count++;
+		}
+		return count;
+	}
+
+
+	@Override
+	public DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix) {
+
+		// get range of map to scan; keys are lower case, so a lower case prefix bounds the range
+		final String prefix = (keyPrefix == null) ? null : cacheKey(keyPrefix);
+		final Collection<Destination> range = (prefix == null)
+				? destinationMap.values()
+				: destinationMap.tailMap(prefix, true).values();
+
+		List<Destination> pageRecords = new ArrayList<>(Math.max(0, Math.min(limit, destinationMap.size())));
+		int totalCount = 0;
+
+		for (Destination destination : range) {
+
+			// past end of prefix range
+			if (prefix != null && !cacheKey(destination.getKey()).startsWith(prefix)) {
+				break;
+			}
+
+			if (worldName != null && !worldName.equals(destination.getWorldName())) {
+				continue;
+			}
+
+			if (totalCount >= offset && pageRecords.size() < limit) {
+				pageRecords.add(destination);
+			}
+			totalCount++;
+		}
+
+		return new DestinationPage(pageRecords, offset, totalCount);
+	}
+
+
+	@Override
+	public long selectRevision() {
+		return revision;
+	}
+
+
+	@Override
+	public long selectChangesSince(final long revision,
+	                               final Consumer<Destination> inserted,
+	                               final Consumer<String> deleted) {
+		return dataStore.selectChangesSince(revision, inserted, deleted);
+	}
+
+
+	@Override
+	public Optional<Destination> deleteRecord(final String destinationName) {
+
+		// if key is null return empty optional
+		if (destinationName == null) {
+			return Optional.empty();
+		}
+
+		Destination removed = destinationMap.remove(cacheKey(Destination.deriveKey(destinationName)));
+
+		Optional<Destination> deleted = dataStore.deleteRecord(destinationName);
+
+		return (removed != null) ? Optional.of(removed) : deleted;
+	}
+
+
+	@Override
+	public long selectCooldown(final UUID playerUid, final long now) {
+		return dataStore.selectCooldown(playerUid, now);
+	}
+
+
+	@Override
+	public int insertCooldowns(final Map<UUID, Long> cooldowns) {
+		return dataStore.insertCooldowns(cooldowns);
+	}
+
+
+	@Override
+	public int purgeCooldowns(final long now) {
+		return dataStore.purgeCooldowns(now);
+	}
+
+
+	@Override
+	public void close() {
+
+		if (plugin.getConfig().getBoolean("debug")) {
+			plugin.getLogger().info("Destination cache hits: " + getHitCount() + ", misses: " + getMissCount());
+		}
+
+		// stop polling before backing datastore is closed
+		if (pollTask != null) {
+			pollTask.cancel();
+			pollTask = null;
+		}
+
+		dataStore.close();
+		destinationMap.clear();
+	}
+
+
+	@Override
+	public void sync() {
+		dataStore.sync();
+	}
+
+
+	@Override
+	public boolean delete() {
+		return dataStore.delete();
+	}
+
+
+	@Override
+	public Optional<DataStoreStatistics> getStatistics() {
+		return dataStore.getStatistics().map(statistics -> statistics.withCacheCounts(hitCount.get(), missCount.get()));
+	}
+
+
+	@Override
+	public DataStore unwrap() {
+		return dataStore.unwrap();
+	}
+
+
+	/**
+	 * Get count of record lookups answered from the cache
+	 *
+	 * @return the cache hit count
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+
+	/**
+	 * Get count of record lookups for keys that are not in the cache
+	 *
+	 * @return the cache miss count
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+
+	/**
+	 * Override toString method to return the backing datastore name
+	 *
+	 * @return the name of the backing datastore
+	 */
+	@Override
+	public String toString() {
+		return dataStore.toString();
+	}
+
+
+	/**
+	 * Check that a destination will be accepted by the backing datastore.
+	 * Destinations whose world is not loaded are rejected on insert.
+	 *
+	 * @param destination the destination to check
+	 * @return true if the destination world is valid, false if not
+	 */
+	private boolean isStorable(final Destination destination) {
+		return destination.getWorldUid() != null
+				&& Destination.getLoadedWorld(destination.getWorldUid()) != null;
+	}
+
+
+	/**
+	 * Normalize a destination key for case-insensitive matching
+	 *
+	 * @param key the destination key
+	 * @return the lower case key
+	 */
+	private static String cacheKey(final String key) {
+		return Destination.foldKey(key);
+	}
+
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+
+/**
+ * Bulk copy of all destination records from one datastore to another. Records are read through the
+ * source cursor on the calling thread and handed in batches to a writer thread through a bounded
+ * queue, so reading and writing overlap while memory use stays bounded. After the target is synced,
+ * every source record is looked up in the backing datastore of the target, bypassing any cache, and
+ * the source is only reported verified if every record is found with a matching checksum of its contents.
+ */
+final class DataStoreConverter {
+
+	// reference to main class
+	private final JavaPlugin plugin;
+
+	private final DataStore source;
+	private final DataStore target;
+
+	// number of records inserted into the target at a time
+	private final int batchSize;
+
+	// number of batches read ahead of the writer
+	private static final int QUEUE_CAPACITY = 4;
+
+	// time between progress log messages
+	private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	// marks the end of the batches in the queue
+	private static final List<Destination> END_OF_RECORDS = Collections.emptyList();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 * @param source the datastore to copy records from
+	 * @param target the datastore to copy records to
+	 */
+	DataStoreConverter(final JavaPlugin plugin, final DataStore source, final DataStore target) {
+		this.plugin = plugin;
+		this.source = source;
+		this.target = target;
+		this.batchSize = Math.max(1, plugin.getConfig().getInt("storage.convert.batch-size", 500));
+	}
+
+
+	/**
+	 * Copy all records from the source datastore to the target datastore, and verify the copy
+	 *
+	 * @return the result of the conversion
+	 */
+	Result run() {
+
+		final long startTime = System.nanoTime();
+
+		// total is only used for progress estimates
+		final int total = source.selectPage(0, 0, null, null).getTotalCount();
+
+		final BlockingQueue<List<Destination>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		final Writer writer = new Writer(queue);
+		final Thread writerThread = new Thread(writer, plugin.getName() + "-Converter");
+		writerThread.start();
+
+		final int[] count = { 0 };
+		final long[] lastProgress = { startTime };
+		final List<List<Destination>> pending = new ArrayList<>(1);
+		pending.add(new ArrayList<>(batchSize));
+
+		try {
+			source.forEachRecord(destination -> {
+				count[0]++;
+
+				List<Destination> batch = pending.get(0);
+				batch.add(destination);
+				if (batch.size() >= batchSize) {
+					put(queue, batch);
+					pending.set(0, new ArrayList<>(batchSize));
+				}
+
+				long now = System.nanoTime();
+				if (now - lastProgress[0] >= PROGRESS_INTERVAL_NANOS) {
+					logProgress(count[0], total, now - startTime);
+					lastProgress[0] = now;
+				}
+			});
+		}
+		finally {
+			// writer always gets the end marker, so it cannot wait forever
+			if (!pending.get(0).isEmpty()) {
+				put(queue, pending.get(0));
+			}
+			put(queue, END_OF_RECORDS);
+		}
+
+		try {
+			writerThread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// make sure written records are durable before they are read back
+		target.sync();
+
+		final long copyNanos = System.nanoTime() - startTime;
+		plugin.getLogger().info(count[0] + " records copied from " + source + " to " + target + " in "
+				+ TimeUnit.NANOSECONDS.toMillis(copyNanos) + " ms (" + rate(count[0], copyNanos) + " records/sec).");
+
+		if (writer.error != null) {
+			plugin.getLogger().warning("Writing to the " + target + " datastore failed: " + writer.error.getLocalizedMessage());
+		}
+
+		// verify even after a write failure, so the records that were not copied are logged
+		boolean verified = verify(count[0]) && writer.error == null;
+
+		return new Result(count[0], writer.written, verified);
+	}
+
+
+	/**
+	 * Look up every source record in the backing datastore of the target, and compare the checksum
+	 * of its contents with the source record. The cache is bypassed, because it holds records whether
+	 * or not the backing datastore accepted them. The keys of records that were not copied unchanged
+	 * are logged.
+	 *
+	 * @param sourceCount the count of records read from the source
+	 * @return true if the target holds every source record unchanged, false if not
+	 */
+	private boolean verify(final int sourceCount) {
+
+		final DataStore backingStore = target.unwrap();
+
+		final List<String> notCopied = new ArrayList<>();
+
+		int count = source.forEachRecord(destination -> {
+			Optional<Destination> copy = backingStore.selectRecord(destination.getKey());
+			if (copy.isEmpty() || checksum(copy.get()) != checksum(destination)) {
+				notCopied.add(destination.getKey());
+			}
+		});
+
+		if (!notCopied.isEmpty()) {
+			plugin.getLogger().warning("Conversion verification failed: " + notCopied.size() + " of "
+					+ count + " source records were not copied unchanged to the " + target + " datastore.");
+			plugin.getLogger().warning("Records not copied: " + String.join(", ", notCopied));
+			return false;
+		}
+
+		if (count != sourceCount) {
+			plugin.getLogger().warning("Conversion verification failed: the " + source + " datastore changed"
+					+ " during the conversion.");
+			return false;
+		}
+
+		return true;
+	}
+
+
+	private void logProgress(final int count, final int total, final long elapsedNanos) {
+
+		long rate = rate(count, elapsedNanos);
+
+		String message = "Converting: " + count + " of " + total + " records read (" + rate + " records/sec";
+		if (rate > 0 && total > count) {
+			message += ", about " + ((total - count) / rate) + " seconds remaining";
+		}
+		plugin.getLogger().info(message + ").");
+	}
+
+
+	private static long rate(final int count, final long elapsedNanos) {
+		return elapsedNanos > 0 ? count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : count;
+	}
+
+
+	/**
+	 * Hand a batch to the writer, waiting while the writer is behind
+	 *
+	 * @param queue the queue of batches
+	 * @param batch the batch of records
+	 */
+	private static void put(final BlockingQueue<List<Destination>> queue, final List<Destination> batch) {
+		try {
+			queue.put(batch);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while converting datastore.", e);
+		}
+	}
+
+
+	/**
+	 * Checksum of the stored contents of a destination. World names are not included,
+	 * because datastores store the current name of the world.
+	 *
+	 * @param destination the destination
+	 * @return the checksum
+	 */
+	private static long checksum(final Destination destination) {
+
+		CRC32 crc = new CRC32();
+		crc.update(destination.getKey().getBytes(StandardCharsets.UTF_8));
+		if (destination.getDisplayName() != null) {
+			crc.update(destination.getDisplayName().getBytes(StandardCharsets.UTF_8));
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(48);
+		if (destination.getWorldUid() != null) {
+			buffer.putLong(destination.getWorldUid().getMostSignificantBits());
+			buffer.putLong(destination.getWorldUid().getLeastSignificantBits());
+		}
+		buffer.putDouble(destination.getX());
+		buffer.putDouble(destination.getY());
+		buffer.putDouble(destination.getZ());
+		buffer.putFloat(destination.getYaw());
+		buffer.putFloat(destination.getPitch());
+		buffer.flip();
+		crc.update(buffer);
+
+		return crc.getValue();
+	}
+
+
+	/**
+	 * Convert the datastore in use by the plugin to a new datastore type. Must be run on the storage
+	 * thread, so that datastore operations queued during the conversion wait for it. The new datastore
+	 * is put in use on the main thread, while the storage thread waits, so operations queued during the
+	 * conversion are applied to the new datastore; the old datastore is then closed and deleted.
+	 * If the conversion fails, or the plugin is disabled before the new datastore is in use, the old
+	 * datastore is kept and the new datastore is deleted, so its copy is not converted back on the next start.
+	 *
+	 * @param plugin reference to main class
+	 * @param newType the datastore type to convert to
+	 * @return count of records converted
+	 * @throws IllegalStateException if the new datastore could not be initialized or the conversion could not be verified
+	 */
+	static int convertCurrent(final PluginMain plugin, final DataStoreType newType) {
+
+		final DataStore oldDataStore = plugin.dataStore;
+
+		final DataStore newDataStore = newType.connectCached(plugin);
+
+		try {
+			newDataStore.initialize();
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Could not initialize the " + newDataStore + " datastore: "
+					+ e.getLocalizedMessage(), e);
+		}
+
+		plugin.getLogger().info("Converting " + oldDataStore + " datastore to " + newDataStore + " datastore...");
+
+		Result result = new DataStoreConverter(plugin, oldDataStore, newDataStore).run();
+
+		if (!result.isVerified()) {
+			discard(newDataStore);
+			throw new IllegalStateException("Conversion to the " + newDataStore + " datastore could not be verified.");
+		}
+
+		// put new datastore in use on the main thread, then switch configured type and retire old datastore
+		final CompletableFuture<Void> swapped = new CompletableFuture<>();
+		try {
+			plugin.getServer().getScheduler().runTask(plugin, () -> {
+				synchronized (swapped) {
+					// conversion was abandoned while this task was waiting
+					if (swapped.isCancelled()) {
+						return;
+					}
+					plugin.dataStore = newDataStore;
+					swapped.complete(null);
+				}
+				plugin.getConfig().set("storage-type", newType.toString());
+				plugin.saveConfig();
+				oldDataStore.close();
+				oldDataStore.delete();
+			});
+		}
+		catch (RuntimeException e) {
+			discard(newDataStore);
+			throw new IllegalStateException("The plugin was disabled before the conversion completed.", e);
+		}
+
+		// operations queued behind this one must not run until the new datastore is in use
+		if (!awaitSwap(plugin, swapped)) {
+			discard(newDataStore);
+			throw new IllegalStateException("The plugin was disabled before the conversion completed.");
+		}
+
+		return result.getRecordCount();
+	}
+
+
+	/**
+	 * Close and delete a datastore that was not put in use
+	 *
+	 * @param dataStore the datastore to discard
+	 */
+	private static void discard(final DataStore dataStore) {
+		dataStore.close();
+		dataStore.delete();
+	}
+
+
+	/**
+	 * Wait for the main thread to put the new datastore in use. The main thread runs no tasks
+	 * once the plugin is disabled, so waiting ends if the plugin is disabled first.
+	 *
+	 * @param plugin reference to main class
+	 * @param swapped future completed on the main thread when the new datastore is in use
+	 * @return true if the new datastore is in use, false if the plugin was disabled first
+	 */
+	private static boolean awaitSwap(final PluginMain plugin, final CompletableFuture<Void> swapped) {
+		while (true) {
+			try {
+				swapped.get(1, TimeUnit.SECONDS);
+				return true;
+			}
+			catch (TimeoutException e) {
+				if (!plugin.isEnabled()) {
+					return abandonSwap(swapped);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return abandonSwap(swapped);
+			}
+			catch (ExecutionException e) {
+				return false;
+			}
+		}
+	}
+
+
+	/**
+	 * Stop the main thread from putting the new datastore in use, unless it already has
+	 *
+	 * @param swapped future completed on the main thread when the new datastore is in use
+	 * @return true if the new datastore is already in use, false if the swap was abandoned
+	 */
+	private static boolean abandonSwap(final CompletableFuture<Void> swapped) {
+		synchronized (swapped) {
+			return !swapped.cancel(false);
+		}
+	}
+
+
+	/**
+	 * Consumes batches from the queue and inserts them into the target datastore
+	 */
+	private final class Writer implements Runnable {
+
+		private final BlockingQueue<List<Destination>> queue;
+
+		// written by writer thread, read after join
+		private int written;
+		private RuntimeException error;
+
+		private Writer(final BlockingQueue<List<Destination>> queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			try {
+				List<Destination> batch;
+				while ((batch = queue.take()) != END_OF_RECORDS) {
+
+					// after a failure, keep taking batches so the reader is not blocked
+					if (error == null) {
+						try {
+							written += target.insertRecords(batch);
+						}
+						catch (RuntimeException e) {
+							error = e;
+						}
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	/**
+	 * Counts and verification status of a completed conversion
+	 */
+	static final class Result {
+
+		private final int recordCount;
+		private final int writtenCount;
+		private final boolean verified;
+
+		private Result(final int recordCount, final int writtenCount, final boolean verified) {
+			this.recordCount = recordCount;
+			this.writtenCount = writtenCount;
+			this.verified = verified;
+		}
+
+		/**
+		 * @return count of records read from the source datastore
+		 */
+		int getRecordCount() {
+			return recordCount;
+		}
+
+		/**
+		 * @return count of records accepted by the target datastore
+		 */
+		int getWrittenCount() {
+			return writtenCount;
+		}
+
+		/**
+		 * @return true if every source record was found unchanged in the target datastore
+		 */
+		boolean isVerified() {
+			return verified;
+		}
+	}
+
+}
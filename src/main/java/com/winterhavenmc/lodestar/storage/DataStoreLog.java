@@ -0,0 +1,771 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+
+/**
+ * Log-structured datastore. Every insert or delete is one sequential append to a log file, and
+ * each call is forced to disk once, however many records it writes. All live records are held in
+ * an in-memory index, rebuilt at startup by replaying the log. A record that is replaced or deleted
+ * leaves a dead entry in the log; when the proportion of dead entries passes the configured
+ * threshold, a background task rewrites the log with only live records.
+ *
+ * <p>Each log entry is framed as a payload length, a CRC32 of the payload, and the payload, which
+ * begins with an entry type byte. Replay skips corrupt entries by scanning for the next valid frame,
+ * and the log is truncated after the last good entry, so a torn write from a crash loses only that write.
+ */
+final class DataStoreLog extends DataStoreAbstract implements DataStore {
+
+	// entry types
+	private static final byte ENTRY_PUT = 1;
+	private static final byte ENTRY_DELETE = 2;
+
+	// entry frame header size: payload length and crc
+	private static final int FRAME_HEADER_SIZE = Integer.BYTES * 2;
+
+	// upper limit on payload length, to detect corrupt length fields
+	private static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+
+	// reference to main class
+	private final JavaPlugin plugin;
+
+	// path of log file
+	private final Path logFilePath;
+
+	// index of live records, keyed by lower case key
+	private final ConcurrentSkipListMap<String, Destination> index = new ConcurrentSkipListMap<>();
+
+	// channel for appending to log; guarded by this
+	private FileChannel channel;
+
+	// number of entries in the log file, live and dead; guarded by this
+	private long entryCount;
+
+	// executor for background compaction
+	private ExecutorService compactionExecutor;
+
+	// true while a compaction is queued or running; guarded by this
+	private boolean compactionPending;
+
+	// number of bytes of corrupt entries skipped by the last replay; guarded by this
+	private long corruptBytes;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 */
+	DataStoreLog(final JavaPlugin plugin) {
+
+		// reference to main class
+		this.plugin = plugin;
+
+		// set datastore type
+		this.type = DataStoreType.LOG;
+
+		// set file path for datastore file
+		this.logFilePath = new File(plugin.getDataFolder(), type.getStorageName()).toPath();
+	}
+
+
+	@Override
+	public synchronized void initialize() throws IOException {
+
+		// if data store is already initialized, do nothing and return
+		if (this.isInitialized()) {
+			plugin.getLogger().info(this + " datastore already initialized.");
+			return;
+		}
+
+		Files.createDirectories(logFilePath.getParent());
+
+		// remove compacted log left by a crash during compaction; the current log is still complete
+		Files.deleteIfExists(compactionPath());
+
+		// rebuild index from log, truncating any incomplete entry at the end
+		final long startTime = System.nanoTime();
+		final long validLength = replay();
+		warnInvalidWorlds();
+
+		channel = FileChannel.open(logFilePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (channel.size() > validLength) {
+			plugin.getLogger().warning("Discarding " + (channel.size() - validLength)
+					+ " bytes of incomplete or corrupt entries at end of " + this + " datastore log.");
+			channel.truncate(validLength);
+			channel.force(true);
+		}
+		channel.position(validLength);
+
+		if (corruptBytes > 0) {
+			plugin.getLogger().warning("Skipped " + corruptBytes + " bytes of corrupt entries in "
+					+ this + " datastore log; the log will be compacted.");
+		}
+
+		compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, plugin.getName() + "-Compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		if (plugin.getConfig().getBoolean("debug")) {
+			plugin.getLogger().info("Replayed " + entryCount + " log entries into " + index.size()
+					+ " destination records in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+		}
+
+		// set initialized true
+		setInitialized(true);
+		plugin.getLogger().info(this + " datastore initialized.");
+
+		// rewrite a log with corrupt entries, so they are not skipped again at every start
+		if (corruptBytes > 0) {
+			compactionPending = true;
+			compactionExecutor.execute(this::compact);
+		}
+		else {
+			compactIfNeeded();
+		}
+	}
+
+
+	@Override
+	public Optional<Destination> selectRecord(final String destinationName) {
+
+		// if key is null return empty optional
+		if (destinationName == null) {
+			return Optional.empty();
+		}
+
+		return Optional.ofNullable(index.get(lowerKey(Destination.deriveKey(destinationName))));
+	}
+
+
+	@Override
+	public boolean insertRecord(final Destination destination) {
+
+		// if destination is null do nothing and return
+		if (destination == null) {
+			return false;
+		}
+
+		return insertRecords(List.of(destination)) == 1;
+	}
+
+
+	@Override
+	public synchronized int insertRecords(final Collection<Destination> destinations) {
+
+		// if destinations is null return zero record count
+		if (destinations == null || destinations.isEmpty()) {
+			return 0;
+		}
+
+		final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+		final List<Destination> stored = new ArrayList<>(destinations.size());
+
+		for (Destination destination : destinations) {
+
+			// get world
+			World world = Destination.getLoadedWorld(destination.getWorldUid());
+
+			// test that world in destination location is valid
+			if (world == null) {
+				plugin.getLogger().warning("An error occurred while inserting"
+						+ " a destination in the " + this + " datastore. World invalid!");
+				continue;
+			}
+
+			// store destination with current name of world
+			Destination record = new Destination(destination.getKey(), destination.getDisplayName(),
+					world.getName(), destination.getWorldUid(), destination.getX(), destination.getY(),
+					destination.getZ(), destination.getYaw(), destination.getPitch());
+
+			writeEntry(batch, encodePut(record));
+			stored.add(record);
+		}
+
+		if (stored.isEmpty() || !append(batch.toByteArray(), stored.size())) {
+			return 0;
+		}
+
+		for (Destination record : stored) {
+			index.put(lowerKey(record.getKey()), record);
+		}
+
+		compactIfNeeded();
+
+		return stored.size();
+	}
+
+
+	@Override
+	public List<String> selectAllKeys() {
+		List<String> returnList = new ArrayList<>(index.size());
+		for (Destination destination : index.values()) {
+			returnList.add(destination.getKey());
+		}
+		return returnList;
+	}
+
+
+	@Override
+	public List<String> selectKeysByPrefix(final String prefix, final int limit) {
+
+		final String lowerPrefix = (prefix == null) ? "" : lowerKey(prefix);
+
+		List<String> returnList = new ArrayList<>();
+
+		for (Map.Entry<String, Destination> entry : index.tailMap(lowerPrefix, true).entrySet()) {
+			if (returnList.size() >= limit || !entry.getKey().startsWith(lowerPrefix)) {
+				break;
+			}
+			returnList.add(entry.getValue().getKey());
+		}
+
+		return returnList;
+	}
+
+
+	@Override
+	public Collection<Destination> selectAllRecords() {
+		return new ArrayList<>(index.values());
+	}
+
+
+	@Override
+	public int forEachRecord(final Consumer<Destination> action) {
+		int count = 0;
+		for (Destination destination : index.values()) {
+			action.accept(destination);
+			count++;
+		}
+		return count;
+	}
+
+
+	@Override
+	public DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix) {
+
+		final String lowerPrefix = (keyPrefix == null) ? "" : lowerKey(keyPrefix);
+
+		List<Destination> pageRecords = new ArrayList<>();
+		int totalCount = 0;
+
+		for (Map.Entry<String, Destination> entry : index.tailMap(lowerPrefix, true).entrySet()) {
+
+			// past end of prefix range
+			if (!entry.getKey().startsWith(lowerPrefix)) {
+				break;
+			}
+
+			if (worldName != null && !worldName.equals(entry.getValue().getWorldName())) {
+				continue;
+			}
+
+			if (totalCount >= offset && pageRecords.size() < limit) {
+				pageRecords.add(entry.getValue());
+			}
+			totalCount++;
+		}
+
+		return new DestinationPage(pageRecords, offset, totalCount);
+	}
+
+
+	@Override
+	public synchronized Optional<Destination> deleteRecord(final String destinationName) {
+
+		// if key is null return empty optional
+		if (destinationName == null) {
+			return Optional.empty();
+		}
+
+		final String key = Destination.deriveKey(destinationName);
+		final Destination existing = index.get(lowerKey(key));
+
+		if (existing == null) {
+			return Optional.empty();
+		}
+
+		final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+		writeEntry(batch, encodeDelete(existing.getKey()));
+
+		if (!append(batch.toByteArray(), 1)) {
+			return Optional.empty();
+		}
+
+		index.remove(lowerKey(key));
+
+		compactIfNeeded();
+
+		return Optional.of(existing);
+	}
+
+
+	@Override
+	public void close() {
+
+		// wait for any running compaction to finish
+		if (compactionExecutor != null) {
+			compactionExecutor.shutdown();
+			try {
+				compactionExecutor.awaitTermination(30, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		synchronized (this) {
+			try {
+				if (channel != null) {
+					channel.force(true);
+					channel.close();
+				}
+				plugin.getLogger().info(this + " datastore log closed.");
+			}
+			catch (IOException e) {
+				recordFailure();
+
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while closing the " + this + " datastore.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
+
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
+				}
+			}
+			index.clear();
+			setInitialized(false);
+		}
+	}
+
+
+	@Override
+	public synchronized void sync() {
+		try {
+			if (channel != null && channel.isOpen()) {
+				channel.force(true);
+			}
+		}
+		catch (IOException e) {
+			recordFailure();
+			plugin.getLogger().warning("Could not sync " + this + " datastore log to disk: " + e.getLocalizedMessage());
+		}
+	}
+
+
+	@Override
+	public boolean delete() {
+		try {
+			// remove a compacted log left by a crash, so it is not found beside a new log
+			Files.deleteIfExists(compactionPath());
+			return Files.deleteIfExists(logFilePath);
+		}
+		catch (IOException e) {
+			recordFailure();
+			plugin.getLogger().warning("Could not delete " + this + " datastore log: " + e.getLocalizedMessage());
+			return false;
+		}
+	}
+
+
+	/**
+	 * Append framed entries to the log and force them to disk. Caller must hold the lock.
+	 *
+	 * @param bytes the framed entries
+	 * @param entries the number of entries
+	 * @return true if the entries were written, false if an error occurred
+	 */
+	private boolean append(final byte[] bytes, final int entries) {
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+			entryCount += entries;
+			return true;
+		}
+		catch (IOException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while writing to the " + this + " datastore log.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Queue a background compaction if the proportion of dead entries exceeds the configured threshold.
+	 * Caller must hold the lock.
+	 */
+	private void compactIfNeeded() {
+
+		final double threshold = plugin.getConfig().getDouble("storage.log.compaction-threshold", 0.5);
+		final long minimumEntries = plugin.getConfig().getLong("storage.log.compaction-min-entries", 1000);
+
+		final long deadEntries = entryCount - index.size();
+
+		if (compactionPending || entryCount < minimumEntries || deadEntries <= entryCount * threshold) {
+			return;
+		}
+
+		compactionPending = true;
+		compactionExecutor.execute(this::compact);
+	}
+
+
+	/**
+	 * Rewrite the log with one entry per live record, then atomically replace the current log.
+	 * The live records are written without holding the lock, so writers are not blocked; entries
+	 * appended meanwhile are copied to the end of the new log when it replaces the current log.
+	 */
+	private void compact() {
+
+		final long startTime = System.nanoTime();
+		final Path tempPath = compactionPath();
+
+		final List<Destination> snapshot;
+		final long snapshotLength;
+		final long previousEntries;
+
+		// snapshot live records and log length
+		synchronized (this) {
+			compactionPending = false;
+
+			if (!isInitialized() || !channel.isOpen()) {
+				return;
+			}
+
+			snapshot = new ArrayList<>(index.values());
+			previousEntries = entryCount;
+			try {
+				snapshotLength = channel.position();
+			}
+			catch (IOException e) {
+				recordFailure();
+				plugin.getLogger().warning("An error occurred while compacting the " + this + " datastore log.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
+				return;
+			}
+		}
+
+		try {
+			try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+				for (Destination destination : snapshot) {
+					writeEntry(outputStream, encodePut(destination));
+				}
+			}
+
+			if (replaceLog(tempPath, snapshotLength, snapshot.size(), previousEntries)
+					&& plugin.getConfig().getBoolean("debug")) {
+				plugin.getLogger().info("Compacted " + this + " datastore log from " + previousEntries
+						+ " to " + snapshot.size() + " entries in "
+						+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+			}
+		}
+		catch (IOException | UncheckedIOException e) {
+			recordFailure();
+			plugin.getLogger().warning("An error occurred while compacting the " + this + " datastore log.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+		}
+	}
+
+
+	/**
+	 * Copy the entries appended since a compaction snapshot to the end of the compacted log,
+	 * then atomically replace the current log with it
+	 *
+	 * @param tempPath the path of the compacted log
+	 * @param snapshotLength the length of the current log when the snapshot was taken
+	 * @param snapshotEntries the number of entries written to the compacted log
+	 * @param previousEntries the number of entries in the current log when the snapshot was taken
+	 * @return true if the log was replaced, false if the datastore was closed during the compaction
+	 * @throws IOException if the compacted log could not be written or moved into place
+	 */
+	private synchronized boolean replaceLog(final Path tempPath,
+	                                        final long snapshotLength,
+	                                        final long snapshotEntries,
+	                                        final long previousEntries) throws IOException {
+
+		if (!isInitialized() || !channel.isOpen()) {
+			Files.deleteIfExists(tempPath);
+			return false;
+		}
+
+		try {
+			try (FileChannel tempChannel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+
+				// re-append entries written while the snapshot was being written
+				final long end = channel.position();
+				long position = snapshotLength;
+				while (position < end) {
+					position += channel.transferTo(position, end - position, tempChannel);
+				}
+
+				tempChannel.force(true);
+			}
+
+			channel.close();
+
+			try {
+				Files.move(tempPath, logFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempPath, logFilePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			entryCount = snapshotEntries + (entryCount - previousEntries);
+			return true;
+		}
+		finally {
+			// reopen log for appending, whether or not it was replaced
+			try {
+				if (!channel.isOpen()) {
+					channel = FileChannel.open(logFilePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+					channel.position(channel.size());
+				}
+			}
+			catch (IOException e) {
+				plugin.getLogger().severe("Could not reopen the " + this + " datastore log: " + e.getLocalizedMessage());
+			}
+		}
+	}
+
+
+	/**
+	 * Log the worlds of replayed destinations that are not loaded, once for each world
+	 */
+	private void warnInvalidWorlds() {
+		Set<UUID> checked = new HashSet<>();
+		for (Destination destination : index.values()) {
+			if (checked.add(destination.getWorldUid()) && Destination.getLoadedWorld(destination.getWorldUid()) == null) {
+				plugin.getLogger().warning("Stored destination has invalid world: " + destination.getWorldName());
+			}
+		}
+	}
+
+
+	private Path compactionPath() {
+		return logFilePath.resolveSibling(logFilePath.getFileName() + ".compact");
+	}
+
+
+	/**
+	 * Read all valid entries in the log into the index. A corrupt entry is skipped by scanning
+	 * forward for the next valid entry, so corruption in the middle of the log loses only the
+	 * corrupt entry.
+	 *
+	 * @return the length of the log up to the end of the last valid entry
+	 * @throws IOException if the log could not be read
+	 */
+	private long replay() throws IOException {
+
+		index.clear();
+		entryCount = 0;
+		corruptBytes = 0;
+
+		if (!Files.exists(logFilePath)) {
+			return 0;
+		}
+
+		final byte[] log = Files.readAllBytes(logFilePath);
+		final ByteBuffer buffer = ByteBuffer.wrap(log);
+		final CRC32 crc = new CRC32();
+
+		int position = 0;
+		int validLength = 0;
+
+		while (position + FRAME_HEADER_SIZE <= log.length) {
+
+			final int length = buffer.getInt(position);
+			final int checksum = buffer.getInt(position + Integer.BYTES);
+			final int payloadPosition = position + FRAME_HEADER_SIZE;
+
+			if (length > 0 && length <= MAX_PAYLOAD_SIZE && length <= log.length - payloadPosition) {
+
+				crc.reset();
+				crc.update(log, payloadPosition, length);
+
+				if ((int) crc.getValue() == checksum && applyEntry(Arrays.copyOfRange(log, payloadPosition, payloadPosition + length))) {
+					entryCount++;
+					corruptBytes += position - validLength;
+					position = payloadPosition + length;
+					validLength = position;
+					continue;
+				}
+			}
+
+			// not a valid entry; resynchronize on the next byte
+			position++;
+		}
+
+		return validLength;
+	}
+
+
+	/**
+	 * Apply a log entry to the index
+	 *
+	 * @param payload the entry payload
+	 * @return true if the entry was applied, false if the payload could not be decoded
+	 */
+	private boolean applyEntry(final byte[] payload) {
+
+		final String key;
+		final String displayName;
+		final String worldName;
+		final UUID worldUid;
+		final double x;
+		final double y;
+		final double z;
+		final float yaw;
+		final float pitch;
+
+		try {
+			final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+			final byte entryType = in.readByte();
+			key = in.readUTF();
+
+			if (entryType == ENTRY_DELETE) {
+				index.remove(lowerKey(key));
+				return true;
+			}
+
+			if (entryType != ENTRY_PUT) {
+				return false;
+			}
+
+			displayName = nullIfEmpty(in.readUTF());
+			worldName = nullIfEmpty(in.readUTF());
+			worldUid = new UUID(in.readLong(), in.readLong());
+			x = in.readDouble();
+			y = in.readDouble();
+			z = in.readDouble();
+			yaw = in.readFloat();
+			pitch = in.readFloat();
+		}
+		catch (IOException e) {
+			return false;
+		}
+
+		index.put(lowerKey(key), new Destination(key, displayName, worldName, worldUid, x, y, z, yaw, pitch));
+		return true;
+	}
+
+
+	private static byte[] encodePut(final Destination destination) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(ENTRY_PUT);
+			out.writeUTF(destination.getKey());
+			// null strings are written as empty strings, which are never valid names
+			out.writeUTF(Objects.requireNonNullElse(destination.getDisplayName(), ""));
+			out.writeUTF(Objects.requireNonNullElse(destination.getWorldName(), ""));
+			out.writeLong(destination.getWorldUid().getMostSignificantBits());
+			out.writeLong(destination.getWorldUid().getLeastSignificantBits());
+			out.writeDouble(destination.getX());
+			out.writeDouble(destination.getY());
+			out.writeDouble(destination.getZ());
+			out.writeFloat(destination.getYaw());
+			out.writeFloat(destination.getPitch());
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			// not thrown by in-memory streams
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	private static byte[] encodeDelete(final String key) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(ENTRY_DELETE);
+			out.writeUTF(key);
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			// not thrown by in-memory streams
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	/**
+	 * Write a payload to a stream, framed with its length and checksum
+	 *
+	 * @param outputStream the stream to write to
+	 * @param payload the entry payload
+	 */
+	private static void writeEntry(final OutputStream outputStream, final byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		try {
+			DataOutputStream out = new DataOutputStream(outputStream);
+			out.writeInt(payload.length);
+			out.writeInt((int) crc.getValue());
+			out.write(payload);
+			out.flush();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	private static String nullIfEmpty(final String value) {
+		return value.isEmpty() ? null : value;
+	}
+
+
+	private static String lowerKey(final String key) {
+		return Destination.foldKey(key);
+	}
+
+}
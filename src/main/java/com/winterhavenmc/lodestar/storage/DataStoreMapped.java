@@ -0,0 +1,765 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+
+/**
+ * Datastore backed by a memory-mapped file of fixed-width binary records. Lookups read directly
+ * from the mapped file through an on-disk open addressing hash index, so nothing is parsed at
+ * startup. Records are stored in key order, so ordered scans and prefix searches need no sorting.
+ * Every write rewrites the file to a temporary file, which then atomically replaces the original
+ * and is mapped in its place; this suits destinations, which are written rarely and read often.
+ * Bulk writes should use {@link #insertRecords}, which rewrites the file once for the whole batch.
+ * The old mapping is unmapped before the file is replaced, under a lock that readers also hold.
+ *
+ * <p>File layout: a header, the hash index of record numbers, the fixed-width records sorted by
+ * lower case key, and a region of UTF-8 strings referenced by offset and length from the records.
+ */
+final class DataStoreMapped extends DataStoreAbstract implements DataStore {
+
+	// file format identification
+	private static final int MAGIC = 0x4C534442;
+	private static final int FORMAT_VERSION = 1;
+
+	// header layout
+	private static final int HEADER_SIZE = 32;
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 4;
+	private static final int HEADER_RECORD_COUNT = 8;
+	private static final int HEADER_BUCKET_COUNT = 12;
+	private static final int HEADER_INDEX_OFFSET = 16;
+	private static final int HEADER_RECORD_OFFSET = 20;
+	private static final int HEADER_STRING_OFFSET = 24;
+
+	// record layout
+	private static final int RECORD_SIZE = 80;
+	private static final int UID_MSB = 0;
+	private static final int UID_LSB = 8;
+	private static final int X = 16;
+	private static final int Y = 24;
+	private static final int Z = 32;
+	private static final int YAW = 40;
+	private static final int PITCH = 44;
+	private static final int KEY_HASH = 48;
+	private static final int KEY_OFFSET = 52;
+	private static final int KEY_LENGTH = 56;
+	private static final int DISPLAY_NAME_OFFSET = 60;
+	private static final int DISPLAY_NAME_LENGTH = 64;
+	private static final int WORLD_NAME_OFFSET = 68;
+	private static final int WORLD_NAME_LENGTH = 72;
+
+	// hash index bucket value for no record
+	private static final int EMPTY_BUCKET = -1;
+
+	// reference to main class
+	private final JavaPlugin plugin;
+
+	// path of datastore file
+	private final Path dataFilePath;
+
+	// the current file mapping; replaced as a whole when the file is rewritten
+	private volatile Mapping mapping;
+
+	// held to read from the mapping, and exclusively to unmap it, so a mapping is never read after it is unmapped
+	private final ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 */
+	DataStoreMapped(final JavaPlugin plugin) {
+
+		// reference to main class
+		this.plugin = plugin;
+
+		// set datastore type
+		this.type = DataStoreType.MAPPED;
+
+		// set file path for datastore file
+		this.dataFilePath = new File(plugin.getDataFolder(), type.getStorageName()).toPath();
+	}
+
+
+	@Override
+	public void initialize() throws IOException {
+
+		// if data store is already initialized, do nothing and return
+		if (this.isInitialized()) {
+			plugin.getLogger().info(this + " datastore already initialized.");
+			return;
+		}
+
+		// create empty datastore file if necessary
+		if (!Files.exists(dataFilePath)) {
+			Files.createDirectories(dataFilePath.getParent());
+			replaceFile(writeTempFile(Collections.emptyList()));
+		}
+
+		mapping = map();
+
+		warnInvalidWorlds(mapping);
+
+		// set initialized true
+		setInitialized(true);
+		plugin.getLogger().info(this + " datastore initialized.");
+	}
+
+
+	@Override
+	public Optional<Destination> selectRecord(final String destinationName) {
+
+		// if key is null return empty optional
+		if (destinationName == null) {
+			return Optional.empty();
+		}
+
+		mappingLock.readLock().lock();
+		try {
+			final Mapping current = mapping;
+			int index = current.find(Destination.deriveKey(destinationName));
+
+			return (index == EMPTY_BUCKET) ? Optional.empty() : Optional.of(readDestination(current, index));
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+	}
+
+
+	@Override
+	public boolean insertRecord(final Destination destination) {
+
+		// if destination is null do nothing and return
+		if (destination == null) {
+			return false;
+		}
+
+		return insertRecords(List.of(destination)) == 1;
+	}
+
+
+	@Override
+	public synchronized int insertRecords(final Collection<Destination> destinations) {
+
+		// if destinations is null return zero record count
+		if (destinations == null || destinations.isEmpty()) {
+			return 0;
+		}
+
+		final SortedMap<String, Destination> records = readAll(mapping);
+		int count = 0;
+
+		for (Destination destination : destinations) {
+
+			// get world
+			World world = Destination.getLoadedWorld(destination.getWorldUid());
+
+			// test that world in destination location is valid
+			if (world == null) {
+				plugin.getLogger().warning("An error occurred while inserting"
+						+ " a destination in the " + this + " datastore. World invalid!");
+				continue;
+			}
+
+			// store destination with current name of world
+			records.put(lowerKey(destination.getKey()), new Destination(destination.getKey(),
+					destination.getDisplayName(), world.getName(), destination.getWorldUid(),
+					destination.getX(), destination.getY(), destination.getZ(),
+					destination.getYaw(), destination.getPitch()));
+			count++;
+		}
+
+		if (count > 0 && !rewrite(records.values())) {
+			return 0;
+		}
+
+		return count;
+	}
+
+
+	@Override
+	public List<String> selectAllKeys() {
+		mappingLock.readLock().lock();
+		try {
+			final Mapping current = mapping;
+			List<String> returnList = new ArrayList<>(current.recordCount);
+			for (int index = 0; index < current.recordCount; index++) {
+				returnList.add(current.readKey(index));
+			}
+			return returnList;
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+	}
+
+
+	@Override
+	public List<String> selectKeysByPrefix(final String prefix, final int limit) {
+
+		mappingLock.readLock().lock();
+		try {
+			final Mapping current = mapping;
+			final String lowerPrefix = (prefix == null) ? "" : lowerKey(prefix);
+
+			List<String> returnList = new ArrayList<>();
+
+			for (int index = current.lowerBound(lowerPrefix); index < current.recordCount && returnList.size() < limit; index++) {
+				String key = current.readKey(index);
+				if (!lowerKey(key).startsWith(lowerPrefix)) {
+					break;
+				}
+				returnList.add(key);
+			}
+
+			return returnList;
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+	}
+
+
+	@Override
+	public Collection<Destination> selectAllRecords() {
+		mappingLock.readLock().lock();
+		try {
+			final Mapping current = mapping;
+			List<Destination> returnList = new ArrayList<>(current.recordCount);
+			for (int index = 0; index < current.recordCount; index++) {
+				returnList.add(readDestination(current, index));
+			}
+			return returnList;
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+	}
+
+
+	@Override
+	public int forEachRecord(final Consumer<Destination> action) {
+		mappingLock.readLock().lock();
+		try {
+			final Mapping current = mapping;
+			for (int index = 0; index < current.recordCount; index++) {
+				action.accept(readDestination(current, index));
+			}
+			return current.recordCount;
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+	}
+
+
+	@Override
+	public DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix) {
+
+		mappingLock.readLock().lock();
+		try {
+			final Mapping current = mapping;
+			final String lowerPrefix = (keyPrefix == null) ? "" : lowerKey(keyPrefix);
+
+			List<Destination> pageRecords = new ArrayList<>();
+			int totalCount = 0;
+
+			for (int index = current.lowerBound(lowerPrefix); index < current.recordCount; index++) {
+
+				// past end of prefix range
+				if (!lowerKey(current.readKey(index)).startsWith(lowerPrefix)) {
+					break;
+				}
+
+				if (worldName != null && !worldName.equals(current.readString(index, WORLD_NAME_OFFSET, WORLD_NAME_LENGTH))) {
+					continue;
+				}
+
+				if (totalCount >= offset && pageRecords.size() < limit) {
+					pageRecords.add(readDestination(current, index));
+				}
+				totalCount++;
+			}
+
+			return new DestinationPage(pageRecords, offset, totalCount);
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+	}
+
+
+	@Override
+	public synchronized Optional<Destination> deleteRecord(final String destinationName) {
+
+		// if key is null return empty optional
+		if (destinationName == null) {
+			return Optional.empty();
+		}
+
+		final SortedMap<String, Destination> records = readAll(mapping);
+		final Destination removed = records.remove(lowerKey(Destination.deriveKey(destinationName)));
+
+		if (removed == null || !rewrite(records.values())) {
+			return Optional.empty();
+		}
+
+		return Optional.of(removed);
+	}
+
+
+	@Override
+	public synchronized void close() {
+		mappingLock.writeLock().lock();
+		try {
+			unmap();
+		}
+		finally {
+			mappingLock.writeLock().unlock();
+		}
+		setInitialized(false);
+		plugin.getLogger().info(this + " datastore closed.");
+	}
+
+
+	@Override
+	public void sync() {
+		// no action necessary; the file is forced to disk each time it is rewritten
+	}
+
+
+	@Override
+	public synchronized boolean delete() {
+		mappingLock.writeLock().lock();
+		try {
+			// a mapped file cannot be deleted on some platforms
+			unmap();
+			return Files.deleteIfExists(dataFilePath);
+		}
+		catch (IOException e) {
+			recordFailure();
+			plugin.getLogger().warning("Could not delete " + this + " datastore file: " + e.getLocalizedMessage());
+			return false;
+		}
+		finally {
+			mappingLock.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Write records to the datastore file and map the new file
+	 *
+	 * @param records the complete set of records, in key order
+	 * @return true if the file was written, false if an error occurred
+	 */
+	private boolean rewrite(final Collection<Destination> records) {
+		try {
+			final Path tempPath = writeTempFile(records);
+
+			// a mapped file cannot be replaced on some platforms, so unmap it first
+			mappingLock.writeLock().lock();
+			try {
+				unmap();
+				replaceFile(tempPath);
+			}
+			finally {
+				// map the new file, or the old file if it could not be replaced
+				try {
+					mapping = map();
+				}
+				finally {
+					mappingLock.writeLock().unlock();
+				}
+			}
+			return true;
+		}
+		catch (IOException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while writing the " + this + " datastore file.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Encode records in the file format and write them to a temporary file
+	 *
+	 * @param records the complete set of records, in key order
+	 * @return the path of the temporary file
+	 * @throws IOException if the file could not be written
+	 */
+	private Path writeTempFile(final Collection<Destination> records) throws IOException {
+
+		final int recordCount = records.size();
+		final int bucketCount = bucketCount(recordCount);
+
+		final int indexOffset = HEADER_SIZE;
+		final int recordOffset = indexOffset + bucketCount * Integer.BYTES;
+		final int stringOffset = recordOffset + recordCount * RECORD_SIZE;
+
+		final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+		final ByteBuffer recordBuffer = ByteBuffer.allocate(recordCount * RECORD_SIZE);
+		final int[] buckets = new int[bucketCount];
+		Arrays.fill(buckets, EMPTY_BUCKET);
+
+		int index = 0;
+		for (Destination destination : records) {
+
+			int base = index * RECORD_SIZE;
+			int keyHash = lowerKey(destination.getKey()).hashCode();
+
+			recordBuffer.putLong(base + UID_MSB, destination.getWorldUid().getMostSignificantBits());
+			recordBuffer.putLong(base + UID_LSB, destination.getWorldUid().getLeastSignificantBits());
+			recordBuffer.putDouble(base + X, destination.getX());
+			recordBuffer.putDouble(base + Y, destination.getY());
+			recordBuffer.putDouble(base + Z, destination.getZ());
+			recordBuffer.putFloat(base + YAW, destination.getYaw());
+			recordBuffer.putFloat(base + PITCH, destination.getPitch());
+			recordBuffer.putInt(base + KEY_HASH, keyHash);
+			putString(recordBuffer, base + KEY_OFFSET, strings, stringOffset, destination.getKey());
+			putString(recordBuffer, base + DISPLAY_NAME_OFFSET, strings, stringOffset, destination.getDisplayName());
+			putString(recordBuffer, base + WORLD_NAME_OFFSET, strings, stringOffset, destination.getWorldName());
+
+			// insert record number in hash index with linear probing
+			int bucket = keyHash & (bucketCount - 1);
+			while (buckets[bucket] != EMPTY_BUCKET) {
+				bucket = (bucket + 1) & (bucketCount - 1);
+			}
+			buckets[bucket] = index;
+
+			index++;
+		}
+
+		final ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_SIZE + bucketCount * Integer.BYTES);
+		headerBuffer.putInt(HEADER_MAGIC, MAGIC);
+		headerBuffer.putInt(HEADER_VERSION, FORMAT_VERSION);
+		headerBuffer.putInt(HEADER_RECORD_COUNT, recordCount);
+		headerBuffer.putInt(HEADER_BUCKET_COUNT, bucketCount);
+		headerBuffer.putInt(HEADER_INDEX_OFFSET, indexOffset);
+		headerBuffer.putInt(HEADER_RECORD_OFFSET, recordOffset);
+		headerBuffer.putInt(HEADER_STRING_OFFSET, stringOffset);
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			headerBuffer.putInt(indexOffset + bucket * Integer.BYTES, buckets[bucket]);
+		}
+
+		// write complete file to temporary file, then move into place
+		final Path tempPath = dataFilePath.resolveSibling(dataFilePath.getFileName() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer[] buffers = { headerBuffer, recordBuffer, ByteBuffer.wrap(strings.toByteArray()) };
+			while (buffers[buffers.length - 1].hasRemaining()) {
+				channel.write(buffers);
+			}
+			channel.force(true);
+		}
+
+		return tempPath;
+	}
+
+
+	/**
+	 * Atomically replace the datastore file with a temporary file. The datastore file must not be mapped.
+	 *
+	 * @param tempPath the path of the temporary file
+	 * @throws IOException if the file could not be replaced
+	 */
+	private void replaceFile(final Path tempPath) throws IOException {
+		try {
+			Files.move(tempPath, dataFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempPath, dataFilePath, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+
+	/**
+	 * Release the current mapping immediately, instead of when it is garbage collected.
+	 * Must be called holding the write lock of the mapping lock.
+	 */
+	private void unmap() {
+
+		final Mapping current = mapping;
+		mapping = null;
+
+		if (current == null || !(current.buffer instanceof MappedByteBuffer)) {
+			return;
+		}
+
+		try {
+			// there is no public api to unmap a buffer; the cleaner is invoked through sun.misc.Unsafe
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), current.buffer);
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			// the mapping is released when it is garbage collected
+			if (plugin.getConfig().getBoolean("debug")) {
+				plugin.getLogger().info("Could not unmap the " + this + " datastore file: " + e.getLocalizedMessage());
+			}
+		}
+	}
+
+
+	/**
+	 * Log the worlds of stored destinations that are not loaded, once for each world
+	 *
+	 * @param current the mapping to check
+	 */
+	private void warnInvalidWorlds(final Mapping current) {
+		Set<UUID> checked = new HashSet<>();
+		for (int index = 0; index < current.recordCount; index++) {
+			int base = current.recordOffset + index * RECORD_SIZE;
+			UUID worldUid = new UUID(current.buffer.getLong(base + UID_MSB), current.buffer.getLong(base + UID_LSB));
+			if (checked.add(worldUid) && Destination.getLoadedWorld(worldUid) == null) {
+				plugin.getLogger().warning("Stored destination has invalid world: "
+						+ current.readString(index, WORLD_NAME_OFFSET, WORLD_NAME_LENGTH));
+			}
+		}
+	}
+
+
+	/**
+	 * Map the datastore file and check its header
+	 *
+	 * @return the new mapping
+	 * @throws IOException if the file could not be mapped or is not a datastore file
+	 */
+	private Mapping map() throws IOException {
+
+		final MappedByteBuffer buffer;
+
+		// the mapping remains valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(dataFilePath, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(HEADER_MAGIC) != MAGIC) {
+			throw new IOException(dataFilePath.getFileName() + " is not a " + this + " datastore file.");
+		}
+
+		if (buffer.getInt(HEADER_VERSION) != FORMAT_VERSION) {
+			throw new IOException(dataFilePath.getFileName() + " has unsupported format version "
+					+ buffer.getInt(HEADER_VERSION) + ".");
+		}
+
+		return new Mapping(buffer);
+	}
+
+
+	/**
+	 * Read all records from a mapping into a map keyed by lower case key
+	 *
+	 * @param current the mapping to read
+	 * @return sorted map of records
+	 */
+	private SortedMap<String, Destination> readAll(final Mapping current) {
+		SortedMap<String, Destination> records = new TreeMap<>();
+		for (int index = 0; index < current.recordCount; index++) {
+			Destination destination = readDestination(current, index);
+			records.put(lowerKey(destination.getKey()), destination);
+		}
+		return records;
+	}
+
+
+	/**
+	 * Create a destination from a record in the mapped file
+	 *
+	 * @param current the mapping to read
+	 * @param index the record number
+	 * @return the destination
+	 */
+	private Destination readDestination(final Mapping current, final int index) {
+
+		final int base = current.recordOffset + index * RECORD_SIZE;
+		final ByteBuffer buffer = current.buffer;
+
+		UUID worldUid = new UUID(buffer.getLong(base + UID_MSB), buffer.getLong(base + UID_LSB));
+		String worldName = current.readString(index, WORLD_NAME_OFFSET, WORLD_NAME_LENGTH);
+
+		// invalid worlds are logged once when the datastore is initialized
+		return new Destination(current.readKey(index),
+				current.readString(index, DISPLAY_NAME_OFFSET, DISPLAY_NAME_LENGTH),
+				worldName,
+				worldUid,
+				buffer.getDouble(base + X),
+				buffer.getDouble(base + Y),
+				buffer.getDouble(base + Z),
+				buffer.getFloat(base + YAW),
+				buffer.getFloat(base + PITCH));
+	}
+
+
+	private static void putString(final ByteBuffer recordBuffer,
+	                              final int fieldPosition,
+	                              final ByteArrayOutputStream strings,
+	                              final int stringOffset,
+	                              final String value) {
+		byte[] bytes = (value == null) ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+		recordBuffer.putInt(fieldPosition, stringOffset + strings.size());
+		recordBuffer.putInt(fieldPosition + Integer.BYTES, bytes.length);
+		strings.writeBytes(bytes);
+	}
+
+
+	/**
+	 * Get number of hash index buckets for a record count; a power of two, at most half full
+	 *
+	 * @param recordCount the number of records
+	 * @return the bucket count
+	 */
+	private static int bucketCount(final int recordCount) {
+		int bucketCount = 8;
+		while (bucketCount < recordCount * 2) {
+			bucketCount <<= 1;
+		}
+		return bucketCount;
+	}
+
+
+	private static String lowerKey(final String key) {
+		return Destination.foldKey(key);
+	}
+
+
+	/**
+	 * An immutable view of one version of the mapped datastore file
+	 */
+	private static final class Mapping {
+
+		private final ByteBuffer buffer;
+		private final int recordCount;
+		private final int bucketCount;
+		private final int indexOffset;
+		private final int recordOffset;
+
+
+		private Mapping(final ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.recordCount = buffer.getInt(HEADER_RECORD_COUNT);
+			this.bucketCount = buffer.getInt(HEADER_BUCKET_COUNT);
+			this.indexOffset = buffer.getInt(HEADER_INDEX_OFFSET);
+			this.recordOffset = buffer.getInt(HEADER_RECORD_OFFSET);
+		}
+
+
+		/**
+		 * Find a record by key through the hash index, ignoring case
+		 *
+		 * @param key the key to find
+		 * @return the record number, or EMPTY_BUCKET if there is no matching record
+		 */
+		private int find(final String key) {
+
+			final String lowerKey = lowerKey(key);
+			final int keyHash = lowerKey.hashCode();
+
+			int bucket = keyHash & (bucketCount - 1);
+
+			for (int probe = 0; probe < bucketCount; probe++) {
+
+				int index = buffer.getInt(indexOffset + bucket * Integer.BYTES);
+
+				if (index == EMPTY_BUCKET) {
+					return EMPTY_BUCKET;
+				}
+
+				// compare hashes before decoding the stored key
+				if (buffer.getInt(recordOffset + index * RECORD_SIZE + KEY_HASH) == keyHash
+						&& lowerKey(readKey(index)).equals(lowerKey)) {
+					return index;
+				}
+
+				bucket = (bucket + 1) & (bucketCount - 1);
+			}
+
+			return EMPTY_BUCKET;
+		}
+
+
+		/**
+		 * Find the first record with a lower case key not less than a lower case prefix
+		 *
+		 * @param lowerPrefix the lower case prefix
+		 * @return the record number, or the record count if all keys are less than the prefix
+		 */
+		private int lowerBound(final String lowerPrefix) {
+			int low = 0;
+			int high = recordCount;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (lowerKey(readKey(middle)).compareTo(lowerPrefix) < 0) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+
+		private String readKey(final int index) {
+			return readString(index, KEY_OFFSET, KEY_LENGTH);
+		}
+
+
+		private String readString(final int index, final int offsetField, final int lengthField) {
+			int base = recordOffset + index * RECORD_SIZE;
+			byte[] bytes = new byte[buffer.getInt(base + lengthField)];
+			buffer.get(buffer.getInt(base + offsetField), bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+}
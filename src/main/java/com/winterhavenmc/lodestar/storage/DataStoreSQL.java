@@ -0,0 +1,926 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+
+/**
+ * Datastore backed by a shared MySQL, MariaDB or PostgreSQL server, so that several servers
+ * on a network can use the same destinations. Connections are borrowed from a pool for each
+ * operation, and the JDBC driver caches the prepared statements of each pooled connection.
+ * Records are keyed by the lower case destination key, so lookups are case-insensitive on
+ * every dialect regardless of the collation of the table.
+ * <p>
+ * Every write transaction increments a shared revision counter and stamps the rows it writes
+ * with the new revision. Deleted keys are kept in a deletion table with their revision, so other
+ * servers can fetch only the records changed since the last revision they saw.
+ */
+final class DataStoreSQL extends DataStoreAbstract implements DataStore {
+
+	// reference to main class
+	private final JavaPlugin plugin;
+
+	// pool of database connections
+	private HikariDataSource dataSource;
+
+	// dialect of the configured database server
+	private SqlDialect dialect;
+
+	// name of destination table, with configured prefix
+	private String tableName;
+
+	// number of records inserted per batch
+	private static final int BATCH_SIZE = 500;
+
+	// escape character for LIKE patterns in prefix queries
+	private static final char LIKE_ESCAPE = '!';
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 */
+	DataStoreSQL(final JavaPlugin plugin) {
+
+		// reference to main class
+		this.plugin = plugin;
+
+		// set datastore type
+		this.type = DataStoreType.SQL;
+	}
+
+
+	@Override
+	public void initialize() throws SQLException {
+
+		// if data store is already initialized, do nothing and return
+		if (this.isInitialized()) {
+			plugin.getLogger().info(this + " datastore already initialized.");
+			return;
+		}
+
+		ConfigurationSection config = plugin.getConfig().getConfigurationSection("storage.sql");
+		if (config == null) {
+			throw new SQLException("The storage.sql section is missing from the config file.");
+		}
+
+		dialect = SqlDialect.match(config.getString("dialect"));
+		tableName = config.getString("table-prefix", "lodestar_") + "destinations";
+
+		// table name is substituted into queries, so it is restricted to identifier characters
+		if (!tableName.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+			throw new SQLException("Invalid table prefix in storage.sql.table-prefix: " + config.getString("table-prefix"));
+		}
+
+		// configure connection pool
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setPoolName(plugin.getName() + "-SQL");
+		hikariConfig.setJdbcUrl(config.getString("url"));
+		hikariConfig.setUsername(config.getString("username"));
+		hikariConfig.setPassword(config.getString("password"));
+		hikariConfig.setMaximumPoolSize(Math.max(1, config.getInt("pool-size", 4)));
+		hikariConfig.setMinimumIdle(Math.max(0, config.getInt("minimum-idle", 1)));
+		hikariConfig.setConnectionTimeout(Math.max(250, config.getLong("connection-timeout", 5000)));
+		hikariConfig.setIdleTimeout(Math.max(0, config.getLong("idle-timeout", 600000)));
+		hikariConfig.setMaxLifetime(Math.max(30000, config.getLong("max-lifetime", 1800000)));
+		dialect.configureStatementCache(hikariConfig, Math.max(0, config.getInt("statement-cache-size", 64)));
+
+		// create pool; fails if a connection cannot be established
+		try {
+			dataSource = new HikariDataSource(hikariConfig);
+		}
+		catch (RuntimeException e) {
+			throw new SQLException("Could not connect to " + dialect + " database: " + e.getLocalizedMessage(), e);
+		}
+
+		// create tables if necessary
+		try (Connection connection = dataSource.getConnection();
+		     Statement statement = connection.createStatement()) {
+			statement.executeUpdate(getQuery("CreateDestinationTable"));
+
+			// dialects that cannot declare an index in the create table statement create it separately
+			if (Queries.getQuery(dialect.getQueryFileName(), "CreateRevisionIndex") != null) {
+				statement.executeUpdate(getQuery("CreateRevisionIndex"));
+			}
+
+			statement.executeUpdate(getQuery("CreateRevisionTable"));
+			statement.executeUpdate(getQuery("InsertRevision"));
+			statement.executeUpdate(getQuery("CreateDeletionTable"));
+			statement.executeUpdate(getQuery("CreateCooldownTable"));
+
+			// dialects that cannot declare an index in the create table statement create it separately
+			if (Queries.getQuery(dialect.getQueryFileName(), "CreateCooldownExpiryIndex") != null) {
+				statement.executeUpdate(getQuery("CreateCooldownExpiryIndex"));
+			}
+		}
+
+		// set initialized true
+		setInitialized(true);
+		plugin.getLogger().info(this + " datastore initialized using " + dialect + " table " + tableName + ".");
+	}
+
+
+	/**
+	 * Get a query for the configured dialect, with the table name substituted
+	 *
+	 * @param queryName the name of the query
+	 * @return the query
+	 * @throws SQLException if the query file could not be loaded
+	 */
+	private String getQuery(final String queryName) throws SQLException {
+		return Queries.getQuery(dialect.getQueryFileName(), queryName).replace("{table}", tableName);
+	}
+
+
+	@Override
+	public boolean insertRecord(final Destination destination) {
+
+		// if destination is null do nothing and return
+		if (destination == null) {
+			return false;
+		}
+
+		return insertRecords(Collections.singletonList(destination)) == 1;
+	}
+
+
+	@Override
+	public int insertRecords(final Collection<Destination> destinations) {
+
+		// if destinations is null return zero record count
+		if (destinations == null || destinations.isEmpty()) {
+			return 0;
+		}
+
+		int count = 0;
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			// all records are written in a single transaction, with a single revision
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("UpsertDestination"));
+			     PreparedStatement deletionStatement = connection.prepareStatement(getQuery("DeleteDeletion"))) {
+
+				final long revision = nextRevision(connection);
+
+				for (Destination destination : destinations) {
+
+					// get world
+					World world = Destination.getLoadedWorld(destination.getWorldUid());
+
+					// test that world in destination location is valid
+					if (world == null) {
+						plugin.getLogger().warning("An error occurred while inserting"
+								+ " a destination in the " + this + " datastore. World invalid!");
+						continue;
+					}
+
+					preparedStatement.setString(1, lookupKey(destination.getKey()));
+					preparedStatement.setString(2, destination.getKey());
+					preparedStatement.setString(3, destination.getDisplayName());
+					preparedStatement.setString(4, world.getName());
+					preparedStatement.setLong(5, destination.getWorldUid().getMostSignificantBits());
+					preparedStatement.setLong(6, destination.getWorldUid().getLeastSignificantBits());
+					preparedStatement.setDouble(7, destination.getX());
+					preparedStatement.setDouble(8, destination.getY());
+					preparedStatement.setDouble(9, destination.getZ());
+					preparedStatement.setFloat(10, destination.getYaw());
+					preparedStatement.setFloat(11, destination.getPitch());
+					preparedStatement.setLong(12, revision);
+					preparedStatement.addBatch();
+
+					// a key is never in both tables, so a reinserted key is no longer reported as deleted
+					deletionStatement.setString(1, lookupKey(destination.getKey()));
+					deletionStatement.addBatch();
+
+					if (++count % BATCH_SIZE == 0) {
+						preparedStatement.executeBatch();
+						deletionStatement.executeBatch();
+					}
+				}
+				preparedStatement.executeBatch();
+				deletionStatement.executeBatch();
+				connection.commit();
+			}
+			catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+			finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while inserting destinations into the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+			return 0;
+		}
+
+		return count;
+	}
+
+
+	@Override
+	public Optional<Destination> selectRecord(final String key) {
+
+		// if key is null return null record
+		if (key == null) {
+			return Optional.empty();
+		}
+
+		// derive key in case destination name was passed
+		String derivedKey = Destination.deriveKey(key);
+
+		try (Connection connection = dataSource.getConnection();
+		     PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectDestination"))) {
+
+			preparedStatement.setString(1, lookupKey(derivedKey));
+
+			// execute sql query; only zero or one record can match the unique key
+			try (ResultSet rs = preparedStatement.executeQuery()) {
+				if (rs.next()) {
+					return Optional.of(readDestination(rs));
+				}
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while fetching a destination from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return Optional.empty();
+	}
+
+
+	@Override
+	public Collection<Destination> selectAllRecords() {
+
+		Collection<Destination> returnList = new ArrayList<>();
+		forEachRecord(returnList::add);
+		return returnList;
+	}
+
+
+	/**
+	 * Stream all records through a forward-only cursor, fetching rows in batches of the configured
+	 * storage.sql.fetch-size. PostgreSQL only honors the fetch size inside a transaction, so the scan
+	 * runs with auto-commit disabled.
+	 */
+	@Override
+	public int forEachRecord(final Consumer<Destination> action) {
+
+		int count = 0;
+
+		final int fetchSize = Math.max(1, plugin.getConfig().getInt("storage.sql.fetch-size", 500));
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectAllRecords"),
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+				preparedStatement.setFetchSize(fetchSize);
+
+				// execute sql query
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						action.accept(readDestination(rs));
+						count++;
+					}
+				}
+				connection.commit();
+			}
+			finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while trying to "
+					+ "read all records from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return count;
+	}
+
+
+	@Override
+	public DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix) {
+
+		List<Destination> pageRecords = new ArrayList<>();
+		int totalCount = 0;
+
+		final String pattern = likePrefix(keyPrefix);
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			try (PreparedStatement countStatement = connection.prepareStatement(getQuery("CountDestinations"))) {
+				bindPageFilter(countStatement, worldName, pattern);
+
+				try (ResultSet rs = countStatement.executeQuery()) {
+					if (rs.next()) {
+						totalCount = rs.getInt(1);
+					}
+				}
+			}
+
+			if (totalCount > offset && limit > 0) {
+				try (PreparedStatement pageStatement = connection.prepareStatement(getQuery("SelectDestinationPage"))) {
+					bindPageFilter(pageStatement, worldName, pattern);
+					pageStatement.setInt(3, limit);
+					pageStatement.setInt(4, Math.max(0, offset));
+
+					try (ResultSet rs = pageStatement.executeQuery()) {
+						while (rs.next()) {
+							pageRecords.add(readDestination(rs));
+						}
+					}
+				}
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while trying to "
+					+ "fetch a page of records from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return new DestinationPage(pageRecords, offset, totalCount);
+	}
+
+
+	private static void bindPageFilter(final PreparedStatement preparedStatement,
+	                                   final String worldName,
+	                                   final String pattern) throws SQLException {
+		preparedStatement.setString(1, worldName);
+		preparedStatement.setString(2, pattern);
+	}
+
+
+	@Override
+	public List<String> selectAllKeys() {
+
+		List<String> returnList = new ArrayList<>();
+
+		try (Connection connection = dataSource.getConnection();
+		     PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectAllKeys"));
+		     ResultSet rs = preparedStatement.executeQuery()) {
+
+			while (rs.next()) {
+				returnList.add(rs.getString("dest_key"));
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while trying to "
+					+ "fetch all keys from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		// return results
+		return returnList;
+	}
+
+
+	@Override
+	public List<String> selectKeysByPrefix(final String prefix, final int limit) {
+
+		List<String> returnList = new ArrayList<>();
+
+		try (Connection connection = dataSource.getConnection();
+		     PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectKeysByPrefix"))) {
+
+			preparedStatement.setString(1, likePrefix(prefix));
+			preparedStatement.setInt(2, limit);
+
+			// execute sql query
+			try (ResultSet rs = preparedStatement.executeQuery()) {
+				while (rs.next()) {
+					returnList.add(rs.getString("dest_key"));
+				}
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while trying to "
+					+ "fetch matching keys from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		// return results
+		return returnList;
+	}
+
+
+	@Override
+	public Optional<Destination> deleteRecord(final String passedKey) {
+
+		// if key is null return null record
+		if (passedKey == null) {
+			return Optional.empty();
+		}
+
+		// derive key in case destination name was passed
+		String key = Destination.deriveKey(passedKey);
+
+		// get destination record to be deleted, for return
+		Optional<Destination> destination = this.selectRecord(key);
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			// delete and record the deletion in a single transaction
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("DeleteDestination"));
+			     PreparedStatement deletionStatement = connection.prepareStatement(getQuery("UpsertDeletion"))) {
+
+				preparedStatement.setString(1, lookupKey(key));
+
+				if (preparedStatement.executeUpdate() > 0) {
+					deletionStatement.setString(1, lookupKey(key));
+					deletionStatement.setLong(2, nextRevision(connection));
+					deletionStatement.setLong(3, System.currentTimeMillis());
+					deletionStatement.executeUpdate();
+					purgeDeletions(connection);
+				}
+				connection.commit();
+			}
+			catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+			finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while attempting to delete a record from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+			return Optional.empty();
+		}
+
+		return destination;
+	}
+
+
+	@Override
+	public long selectCooldown(final UUID playerUid, final long now) {
+
+		// if uuid is null return no cooldown
+		if (playerUid == null) {
+			return 0;
+		}
+
+		try (Connection connection = dataSource.getConnection();
+		     PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectCooldown"))) {
+
+			preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+			preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+			preparedStatement.setLong(3, now);
+
+			try (ResultSet rs = preparedStatement.executeQuery()) {
+				if (rs.next()) {
+					return rs.getLong("expiry");
+				}
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while fetching a player cooldown from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return 0;
+	}
+
+
+	/**
+	 * Insert or replace cooldowns in a single transaction. Cooldowns are not destination records,
+	 * so they do not advance the revision, and other servers do not poll for them; a player's
+	 * cooldown is read from the shared table when the player joins a server.
+	 */
+	@Override
+	public int insertCooldowns(final Map<UUID, Long> cooldowns) {
+
+		// if cooldowns is null or empty return zero record count
+		if (cooldowns == null || cooldowns.isEmpty()) {
+			return 0;
+		}
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("UpsertCooldown"))) {
+
+				int count = 0;
+
+				for (Map.Entry<UUID, Long> entry : cooldowns.entrySet()) {
+					preparedStatement.setLong(1, entry.getKey().getMostSignificantBits());
+					preparedStatement.setLong(2, entry.getKey().getLeastSignificantBits());
+					preparedStatement.setLong(3, entry.getValue());
+					preparedStatement.addBatch();
+
+					if (++count % BATCH_SIZE == 0) {
+						preparedStatement.executeBatch();
+					}
+				}
+				preparedStatement.executeBatch();
+				connection.commit();
+				return count;
+			}
+			catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+			finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while writing player cooldowns to the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return 0;
+	}
+
+
+	@Override
+	public int purgeCooldowns(final long now) {
+
+		try (Connection connection = dataSource.getConnection();
+		     PreparedStatement preparedStatement = connection.prepareStatement(getQuery("PurgeCooldowns"))) {
+
+			preparedStatement.setLong(1, now);
+			return preparedStatement.executeUpdate();
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while purging expired player cooldowns from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return 0;
+	}
+
+
+	@Override
+	public long selectRevision() {
+
+		try (Connection connection = dataSource.getConnection();
+		     PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectRevision"));
+		     ResultSet rs = preparedStatement.executeQuery()) {
+
+			if (rs.next()) {
+				return rs.getLong("revision");
+			}
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while fetching the revision of the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return 0;
+	}
+
+
+	/**
+	 * Pass records changed after a revision to the given actions. Only the revision counter is read
+	 * if nothing has changed. If deletions after the revision have already been purged, -1 is returned
+	 * so the caller reloads all records.
+	 */
+	@Override
+	public long selectChangesSince(final long revision,
+	                               final Consumer<Destination> inserted,
+	                               final Consumer<String> deleted) {
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			long currentRevision;
+			long purgedRevision;
+
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectRevision"));
+			     ResultSet rs = preparedStatement.executeQuery()) {
+
+				if (!rs.next()) {
+					return revision;
+				}
+				currentRevision = rs.getLong("revision");
+				purgedRevision = rs.getLong("purged_revision");
+			}
+
+			// deletions the caller has not seen are gone
+			if (revision < purgedRevision) {
+				return -1;
+			}
+
+			if (currentRevision == revision) {
+				return revision;
+			}
+
+			// rows are read before deletions, so a key deleted between the two queries is reported deleted
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectChangedDestinations"))) {
+				preparedStatement.setLong(1, revision);
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						inserted.accept(readDestination(rs));
+					}
+				}
+			}
+
+			try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectDeletedKeys"))) {
+				preparedStatement.setLong(1, revision);
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						deleted.accept(rs.getString("lookup_key"));
+					}
+				}
+			}
+
+			// changes committed after the revision was read are fetched again next time
+			return currentRevision;
+		}
+		catch (SQLException e) {
+			recordFailure();
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while fetching changed records from the " + this + " datastore.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+		}
+
+		return revision;
+	}
+
+
+	/**
+	 * Increment the shared revision counter and get the new revision. The counter row stays locked
+	 * until the transaction ends, so concurrent writers on all servers commit in revision order.
+	 *
+	 * @param connection a connection with a transaction in progress
+	 * @return the new revision
+	 * @throws SQLException if the revision could not be incremented
+	 */
+	private long nextRevision(final Connection connection) throws SQLException {
+
+		try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("IncrementRevision"))) {
+			preparedStatement.executeUpdate();
+		}
+
+		try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectRevision"));
+		     ResultSet rs = preparedStatement.executeQuery()) {
+			if (!rs.next()) {
+				throw new SQLException("The " + tableName + "_revision table has no revision row.");
+			}
+			return rs.getLong("revision");
+		}
+	}
+
+
+	/**
+	 * Remove deletion records older than the configured retention period, and record the
+	 * highest purged revision so that servers that have not seen those deletions reload
+	 *
+	 * @param connection a connection with a transaction in progress
+	 * @throws SQLException if the deletion records could not be purged
+	 */
+	private void purgeDeletions(final Connection connection) throws SQLException {
+
+		final long retentionMillis = TimeUnit.SECONDS.toMillis(
+				Math.max(0, plugin.getConfig().getLong("storage.sql.deletion-retention", 86400)));
+
+		long purgeRevision;
+
+		try (PreparedStatement preparedStatement = connection.prepareStatement(getQuery("SelectPurgeRevision"))) {
+			preparedStatement.setLong(1, System.currentTimeMillis() - retentionMillis);
+			try (ResultSet rs = preparedStatement.executeQuery()) {
+				purgeRevision = rs.next() ? rs.getLong(1) : 0;
+			}
+		}
+
+		// MAX of no rows is null, which reads as zero
+		if (purgeRevision == 0) {
+			return;
+		}
+
+		try (PreparedStatement updateStatement = connection.prepareStatement(getQuery("UpdatePurgedRevision"));
+		     PreparedStatement purgeStatement = connection.prepareStatement(getQuery("PurgeDeletions"))) {
+			updateStatement.setLong(1, purgeRevision);
+			updateStatement.setLong(2, purgeRevision);
+			updateStatement.executeUpdate();
+			purgeStatement.setLong(1, purgeRevision);
+			purgeStatement.executeUpdate();
+		}
+	}
+
+
+	/**
+	 * Create a destination from the current row of a result set
+	 *
+	 * @param rs the result set, positioned on a destination row
+	 * @return the destination
+	 * @throws SQLException if a column could not be read
+	 */
+	private Destination readDestination(final ResultSet rs) throws SQLException {
+
+		String key = rs.getString("dest_key");
+		String displayName = rs.getString("display_name");
+		String worldName = rs.getString("world_name");
+		double x = rs.getDouble("x");
+		double y = rs.getDouble("y");
+		double z = rs.getDouble("z");
+		float yaw = rs.getFloat("yaw");
+		float pitch = rs.getFloat("pitch");
+
+		if (displayName == null || displayName.isEmpty()) {
+			displayName = key;
+		}
+
+		// reconstitute world uid from components
+		UUID worldUid = new UUID(rs.getLong("world_uid_msb"), rs.getLong("world_uid_lsb"));
+
+		// world may not exist on this server of the network; if it does, use its name on this server
+		World world = Destination.getLoadedWorld(worldUid);
+		if (world != null) {
+			worldName = world.getName();
+		}
+
+		// create destination
+		return new Destination(key, displayName, worldName, worldUid, x, y, z, yaw, pitch);
+	}
+
+
+	/**
+	 * Get the case-insensitive lookup key for a destination key
+	 *
+	 * @param key the destination key
+	 * @return the key in lower case
+	 */
+	private static String lookupKey(final String key) {
+		return Destination.foldKey(key);
+	}
+
+
+	/**
+	 * Create a LIKE pattern matching all lookup keys that begin with a prefix
+	 *
+	 * @param prefix the key prefix, or null to match all keys
+	 * @return the escaped pattern
+	 */
+	private static String likePrefix(final String prefix) {
+
+		if (prefix == null) {
+			return "%";
+		}
+
+		StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+		for (char c : lookupKey(prefix).toCharArray()) {
+			if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+				pattern.append(LIKE_ESCAPE);
+			}
+			pattern.append(c);
+		}
+		return pattern.append('%').toString();
+	}
+
+
+	@Override
+	public void close() {
+
+		if (dataSource != null) {
+			dataSource.close();
+			plugin.getLogger().info(this + " datastore connection pool closed.");
+		}
+		setInitialized(false);
+	}
+
+
+	@Override
+	public void sync() {
+		// every write is committed before it returns; no action necessary
+	}
+
+
+	@Override
+	public boolean delete() {
+		// the shared table may be in use by other servers, so it is never dropped
+		return false;
+	}
+
+}
@@ -19,11 +19,12 @@ package com.winterhavenmc.lodestar.storage;
 
 import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 
 final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
@@ -31,14 +32,31 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 	// reference to main class
 	private final JavaPlugin plugin;
 
-	// database connection object
+	// database connection used for writes and schema changes
 	private Connection connection;
 
+	// database connection used for reads, separate from the write connection
+	private Connection readConnection;
+
+	// reusable prepared statements for reads, guarded by their own monitor
+	private StatementCatalog readStatements;
+
+	// single writer thread for inserts and deletes
+	private WriteQueue writeQueue;
+
 	// file path for datastore file
 	private final String dataFilePath;
 
-	// schema version
-	private int schemaVersion;
+	// sorts after any string with the same prefix, for prefix range scans
+	private static final String MAX_CODE_POINT_STRING = new String(Character.toChars(Character.MAX_CODE_POINT));
+
+	// files kept by SQLite next to the database file, for write-ahead logging and rollback
+	private static final String[] COMPANION_FILE_SUFFIXES = { "-wal", "-shm", "-journal" };
+
+	// allowed values for configurable pragmas
+	private static final Set<String> JOURNAL_MODES = Set.of("WAL", "DELETE", "TRUNCATE", "PERSIST", "MEMORY", "OFF");
+	private static final Set<String> SYNCHRONOUS_LEVELS = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+	private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
 
 	/**
 	 * Class constructor
@@ -72,11 +90,26 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 
 		Class.forName(jdbcDriverName);
 
+		// load queries from properties file
+		Queries.load();
+
 		// create database url
 		final String dbUrl = "jdbc:sqlite" + ":" + dataFilePath;
 
 		// create a database connection
 		connection = DriverManager.getConnection(dbUrl);
+		configureConnection(connection);
+
+		// open separate read connection, so reads never run inside a transaction of the writer thread;
+		// readers only proceed during writes in WAL mode, and wait up to the busy timeout otherwise
+		readConnection = DriverManager.getConnection(dbUrl);
+		configureConnection(readConnection);
+
+		// create catalog of reusable statements for reads
+		readStatements = new StatementCatalog(readConnection);
+
+		// start writer thread
+		writeQueue = new WriteQueue(plugin, connection);
 
 		// update schema if necessary
 		updateSchema();
@@ -87,122 +120,115 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 	}
 
 
-	private int getSchemaVersion() {
+	/**
+	 * Apply the pragmas configured in the storage.sqlite section of the config file to a connection
+	 *
+	 * @param connection the connection to configure
+	 * @return the journal mode in effect for the connection
+	 * @throws SQLException if a pragma could not be applied
+	 */
+	private String configureConnection(final Connection connection) throws SQLException {
 
-		int version = -1;
+		final String journalMode = configChoice("journal-mode", "WAL", JOURNAL_MODES);
+		final String synchronous = configChoice("synchronous", "NORMAL", SYNCHRONOUS_LEVELS);
+		final String tempStore = configChoice("temp-store", "MEMORY", TEMP_STORES);
+		final long mmapSize = Math.max(0, plugin.getConfig().getLong("storage.sqlite.mmap-size", 67108864));
+		final int cacheSize = plugin.getConfig().getInt("storage.sqlite.cache-size", -2000);
+		final int busyTimeout = Math.max(0, plugin.getConfig().getInt("storage.sqlite.busy-timeout", 5000));
 
-		try {
-			final Statement statement = connection.createStatement();
+		String effectiveJournalMode = journalMode;
 
-			ResultSet rs = statement.executeQuery(Queries.getQuery("GetUserVersion"));
+		try (final Statement statement = connection.createStatement()) {
 
-			while (rs.next()) {
-				version = rs.getInt(1);
+			// busy timeout is set first, so a locked database does not fail the journal mode change
+			statement.execute("PRAGMA busy_timeout = " + busyTimeout);
+
+			// journal mode pragma returns the mode actually in effect
+			try (ResultSet rs = statement.executeQuery("PRAGMA journal_mode = " + journalMode)) {
+				if (rs.next()) {
+					effectiveJournalMode = rs.getString(1);
+				}
 			}
+
+			statement.execute("PRAGMA synchronous = " + synchronous);
+			statement.execute("PRAGMA temp_store = " + tempStore);
+			statement.execute("PRAGMA mmap_size = " + mmapSize);
+			statement.execute("PRAGMA cache_size = " + cacheSize);
 		}
-		catch (SQLException e) {
-			plugin.getLogger().warning("Could not get schema version!");
+
+		if (!journalMode.equalsIgnoreCase(effectiveJournalMode)) {
+			plugin.getLogger().warning("SQLite journal mode " + journalMode
+					+ " could not be set; using " + effectiveJournalMode + ".");
 		}
-		return version;
+
+		return effectiveJournalMode;
 	}
 
 
-	private void updateSchema() throws SQLException {
+	/**
+	 * Get a pragma value from the storage.sqlite section of the config file, restricted to the allowed values
+	 *
+	 * @param name the name of the configuration key
+	 * @param defaultValue the value to use if the configured value is missing or not allowed
+	 * @param allowedValues the allowed values
+	 * @return the configured value in upper case, or the default value
+	 */
+	private String configChoice(final String name, final String defaultValue, final Set<String> allowedValues) {
 
-		schemaVersion = getSchemaVersion();
+		String value = plugin.getConfig().getString("storage.sqlite." + name, defaultValue).toUpperCase(Locale.ROOT);
 
-		final Statement statement = connection.createStatement();
+		if (!allowedValues.contains(value)) {
+			plugin.getLogger().warning("Invalid value for storage.sqlite." + name + ": " + value
+					+ "; using " + defaultValue + ".");
+			return defaultValue;
+		}
 
-		if (schemaVersion == 0) {
-			int count;
-			ResultSet rs = statement.executeQuery(Queries.getQuery("SelectDestinationTable"));
-			if (rs.next()) {
-				Collection<Destination> existingRecords = selectAllRecords();
-				statement.executeUpdate(Queries.getQuery("DropDestinationTable"));
-				statement.executeUpdate(Queries.getQuery("CreateDestinationTable"));
-				count = insertRecords(existingRecords);
-				plugin.getLogger().info(count + " destination records migrated to schema v1");
-			}
+		return value;
+	}
+
+
+	private void updateSchema() throws SQLException {
 
-			// update schema version in database
-			statement.executeUpdate("PRAGMA user_version = 1");
+		// apply any pending schema migrations
+		int schemaVersion = SchemaMigration.migrate(plugin, connection);
 
-			// update schema version field
-			schemaVersion = 1;
+		if (plugin.getConfig().getBoolean("debug")) {
+			plugin.getLogger().info("Datastore schema version is v" + schemaVersion + ".");
 		}
 
 		// execute table creation statement
-		statement.executeUpdate(Queries.getQuery("CreateDestinationTable"));
+		try (final Statement statement = connection.createStatement()) {
+			statement.executeUpdate(Queries.getQuery("CreateDestinationTable"));
+		}
 	}
 
 
 	@Override
-	public void insertRecord(final Destination destination) {
+	public boolean insertRecord(final Destination destination) {
 
 		// if destination is null do nothing and return
 		if (destination == null) {
-			return;
+			return false;
 		}
 
-		// get key
-		final String key = destination.getKey();
-
-		// get display name
-		final String displayName = destination.getDisplayName();
-
 		// get world
-		World world = plugin.getServer().getWorld(destination.getWorldUid());
+		World world = Destination.getLoadedWorld(destination.getWorldUid());
 
 		// test that world in destination location is valid
 		if (world == null) {
 			plugin.getLogger().warning("An error occurred while inserting"
 					+ " a destination in the " + this + " datastore. World invalid!");
-			return;
+			return false;
 		}
 
-		// get current name of world
-		final String worldName = world.getName();
-
-		new BukkitRunnable() {
-			@Override
-			public void run() {
-				try {
-					// create prepared statement
-					PreparedStatement preparedStatement = connection.prepareStatement(Queries.getQuery("InsertDestination"));
-
-					preparedStatement.setString(1, key);
-					preparedStatement.setString(2, displayName);
-					preparedStatement.setString(3, worldName);
-					preparedStatement.setLong(4, destination.getWorldUid().getMostSignificantBits());
-					preparedStatement.setLong(5, destination.getWorldUid().getLeastSignificantBits());
-					preparedStatement.setDouble(6, destination.getX());
-					preparedStatement.setDouble(7, destination.getY());
-					preparedStatement.setDouble(8, destination.getZ());
-					preparedStatement.setFloat(9, destination.getYaw());
-					preparedStatement.setFloat(10, destination.getPitch());
-
-					// execute prepared statement
-					preparedStatement.executeUpdate();
-				}
-				catch (SQLException e) {
-
-					// output simple error message
-					plugin.getLogger().warning("An error occurred while inserting a destination "
-							+ "into the " + this + " datastore.");
-					plugin.getLogger().warning(e.getLocalizedMessage());
-
-					// if debugging is enabled, output stack trace
-					if (plugin.getConfig().getBoolean("debug")) {
-						e.getStackTrace();
-					}
-				}
-			}
-		}.runTaskAsynchronously(plugin);
+		// queue record for writer thread, with current name of world; write errors are counted by the queue
+		writeQueue.insert(destination, world.getName());
+		return true;
 	}
 
 
 	@Override
-	synchronized public int insertRecords(final Collection<Destination> destinations) {
+	public int insertRecords(final Collection<Destination> destinations) {
 
 		// if destination is null return zero record count
 		if (destinations == null) {
@@ -213,14 +239,8 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 
 		for (Destination destination : destinations) {
 
-			// get key
-			final String key = destination.getKey();
-
-			// get display name
-			final String displayName = destination.getDisplayName();
-
 			// get world
-			World world = plugin.getServer().getWorld(destination.getWorldUid());
+			World world = Destination.getLoadedWorld(destination.getWorldUid());
 
 			// test that world in destination location is valid
 			if (world == null) {
@@ -229,43 +249,8 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 				continue;
 			}
 
-			final String worldName = world.getName();
-
-			new BukkitRunnable() {
-				@Override
-				public void run() {
-					try {
-						// create prepared statement
-						PreparedStatement preparedStatement = connection.prepareStatement(Queries.getQuery("InsertDestination"));
-
-						preparedStatement.setString(1, key);
-						preparedStatement.setString(2, displayName);
-						preparedStatement.setString(3, worldName);
-						preparedStatement.setLong(4, destination.getWorldUid().getMostSignificantBits());
-						preparedStatement.setLong(5, destination.getWorldUid().getLeastSignificantBits());
-						preparedStatement.setDouble(6, destination.getX());
-						preparedStatement.setDouble(7, destination.getY());
-						preparedStatement.setDouble(8, destination.getZ());
-						preparedStatement.setFloat(9, destination.getYaw());
-						preparedStatement.setFloat(10, destination.getPitch());
-
-						// execute prepared statement
-						preparedStatement.executeUpdate();
-					}
-					catch (Exception e) {
-
-						// output simple error message
-						plugin.getLogger().warning("An error occurred while inserting a destination "
-								+ "into the " + this + " datastore.");
-						plugin.getLogger().warning(e.getLocalizedMessage());
-
-						// if debugging is enabled, output stack trace
-						if (plugin.getConfig().getBoolean("debug")) {
-							e.getStackTrace();
-						}
-					}
-				}
-			}.runTaskAsynchronously(plugin);
+			// queue record for writer thread, with current name of world
+			writeQueue.insert(destination, world.getName());
 			count++;
 		}
 		return count;
@@ -285,194 +270,287 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 
 		Destination destination = null;
 
-		try {
-			PreparedStatement preparedStatement = connection.prepareStatement(Queries.getQuery("SelectDestination"));
+		synchronized (readStatements) {
+			try {
+				PreparedStatement preparedStatement = readStatements.get("SelectDestination");
 
-			preparedStatement.setString(1, derivedKey);
+				preparedStatement.setString(1, derivedKey);
 
-			// execute sql query
-			ResultSet rs = preparedStatement.executeQuery();
+				// execute sql query; only zero or one record can match the unique key
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					if (rs.next()) {
+						destination = readDestination(rs, derivedKey);
+					}
+				}
+			}
+			catch (SQLException e) {
+				recordFailure();
 
-			// only zero or one record can match the unique key
-			if (rs.next()) {
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while fetching a destination from the SQLite database.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
 
-				// get stored displayName
-				String displayName = rs.getString("displayname");
-				if (displayName == null || displayName.isEmpty()) {
-					displayName = derivedKey;
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
 				}
+				return Optional.empty();
+			}
+		}
 
-				// get stored world and coordinates
-				String worldName = rs.getString("worldname");
-				long worldUidMsb = rs.getLong("worldUidMsb");
-				long worldUidLsb = rs.getLong("worldUidLsb");
-				double x = rs.getDouble("x");
-				double y = rs.getDouble("y");
-				double z = rs.getDouble("z");
-				float yaw = rs.getFloat("yaw");
-				float pitch = rs.getFloat("pitch");
+		return Optional.ofNullable(destination);
+	}
 
-				// reconstitute world uid from components
-				UUID worldUid = new UUID(worldUidMsb, worldUidLsb);
 
-				// get world
-				World world = plugin.getServer().getWorld(worldUid);
+	@Override
+	public Collection<Destination> selectAllRecords() {
+
+		Collection<Destination> returnList = new ArrayList<>();
 
-				boolean worldValid = true;
+		synchronized (readStatements) {
+			try {
+				PreparedStatement preparedStatement = readStatements.get("SelectAllRecords");
 
-				// if world is null, set worldValid false and log warning
-				if (world == null) {
-					worldValid = false;
-					plugin.getLogger().warning("Stored destination has invalid world: " + worldName);
+				// execute sql query
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						returnList.add(readDestination(rs, null));
+					}
 				}
+			}
+			catch (final SQLException e) {
+				recordFailure();
+
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while trying to "
+						+ "fetch all records from the SQLite datastore.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
 
-				// create destination
-				destination = new Destination(key, displayName, worldValid, worldName, worldUid, x, y, z, yaw, pitch);
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		// return results
+		return returnList;
+	}
+
+
+	/**
+	 * Stream all records through a forward-only cursor. A dedicated connection is used, so the
+	 * shared read connection is not held for the duration of the scan. Rows are fetched in
+	 * batches of the configured storage.sqlite.fetch-size.
+	 */
+	@Override
+	public int forEachRecord(final Consumer<Destination> action) {
+
+		int count = 0;
+
+		final int fetchSize = Math.max(1, plugin.getConfig().getInt("storage.sqlite.fetch-size", 500));
+
+		try (Connection cursorConnection = DriverManager.getConnection("jdbc:sqlite" + ":" + dataFilePath)) {
+
+			configureConnection(cursorConnection);
+
+			try (PreparedStatement preparedStatement = cursorConnection.prepareStatement(Queries.getQuery("SelectAllRecords"),
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+				preparedStatement.setFetchSize(fetchSize);
+
+				// execute sql query
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						action.accept(readDestination(rs, null));
+						count++;
+					}
+				}
 			}
 		}
 		catch (SQLException e) {
+			recordFailure();
 
 			// output simple error message
-			plugin.getLogger().warning("An error occurred while fetching a destination from the SQLite database.");
+			plugin.getLogger().warning("An error occurred while trying to "
+					+ "read all records from the SQLite datastore.");
 			plugin.getLogger().warning(e.getLocalizedMessage());
 
 			// if debugging is enabled, output stack trace
 			if (plugin.getConfig().getBoolean("debug")) {
-				e.getStackTrace();
+				e.printStackTrace();
 			}
-			return Optional.empty();
 		}
 
-		return Optional.ofNullable(destination);
+		return count;
 	}
 
 
 	@Override
-	public Collection<Destination> selectAllRecords() {
-
-		Collection<Destination> returnList = new ArrayList<>();
-
-		try {
-			PreparedStatement preparedStatement = connection.prepareStatement(Queries.getQuery("SelectAllRecords"));
-
-			// execute sql query
-			ResultSet rs = preparedStatement.executeQuery();
+	public DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix) {
 
-			while (rs.next()) {
+		List<Destination> pageRecords = new ArrayList<>();
+		int totalCount = 0;
 
-				if (schemaVersion == 0) {
-					String key = rs.getString("key");
-					String displayName = rs.getString("displayname");
-					String worldName = rs.getString("worldname");
-					double x = rs.getDouble("x");
-					double y = rs.getDouble("y");
-					double z = rs.getDouble("z");
-					float yaw = rs.getFloat("yaw");
-					float pitch = rs.getFloat("pitch");
+		// prefix match is a range scan on the case-insensitive key index; no prefix scans the whole range
+		final String lowerBound = (keyPrefix == null) ? "" : keyPrefix;
+		final String upperBound = lowerBound + MAX_CODE_POINT_STRING;
 
-					// get world by name
-					World world = plugin.getServer().getWorld(worldName);
+		synchronized (readStatements) {
+			try {
+				PreparedStatement countStatement = readStatements.get("CountDestinations");
+				bindPageFilter(countStatement, worldName, lowerBound, upperBound);
 
-					boolean worldValid = true;
+				try (ResultSet rs = countStatement.executeQuery()) {
+					if (rs.next()) {
+						totalCount = rs.getInt(1);
+					}
+				}
 
-					UUID worldUid = null;
+				if (totalCount > offset && limit > 0) {
+					PreparedStatement pageStatement = readStatements.get("SelectDestinationPage");
+					bindPageFilter(pageStatement, worldName, lowerBound, upperBound);
+					pageStatement.setInt(5, limit);
+					pageStatement.setInt(6, Math.max(0, offset));
 
-					// if world is null, set worldValid false and log warning
-					if (world == null) {
-						worldValid = false;
-						plugin.getLogger().warning("Stored destination has invalid world: " + worldName);
-					}
-					else {
-						// get world Uid
-						worldUid = world.getUID();
+					try (ResultSet rs = pageStatement.executeQuery()) {
+						while (rs.next()) {
+							pageRecords.add(readDestination(rs, null));
+						}
 					}
+				}
+			}
+			catch (SQLException e) {
+				recordFailure();
 
-					// create destination from record
-					Destination destination = new Destination(key, displayName, worldValid, worldName, worldUid, x, y, z, yaw, pitch);
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while trying to "
+						+ "fetch a page of records from the SQLite datastore.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
 
-					// add destination to return list
-					returnList.add(destination);
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
 				}
+			}
+		}
 
-				else if (schemaVersion == 1) {
+		return new DestinationPage(pageRecords, offset, totalCount);
+	}
 
-					String key = rs.getString("key");
-					String displayName = rs.getString("displayname");
-					String worldName = rs.getString("worldname");
-					long worldUidMsb = rs.getLong("worldUidMsb");
-					long worldUidLsb = rs.getLong("worldUidLsb");
-					double x = rs.getDouble("x");
-					double y = rs.getDouble("y");
-					double z = rs.getDouble("z");
-					float yaw = rs.getFloat("yaw");
-					float pitch = rs.getFloat("pitch");
 
-					// reconstitute world uid from components
-					UUID worldUid = new UUID(worldUidMsb, worldUidLsb);
+	private static void bindPageFilter(final PreparedStatement preparedStatement,
+	                                   final String worldName,
+	                                   final String lowerBound,
+	                                   final String upperBound) throws SQLException {
+		preparedStatement.setString(1, worldName);
+		preparedStatement.setString(2, worldName);
+		preparedStatement.setString(3, lowerBound);
+		preparedStatement.setString(4, upperBound);
+	}
 
-					// get world
-					World world = plugin.getServer().getWorld(worldUid);
 
-					boolean worldValid = true;
+	@Override
+	public List<String> selectAllKeys() {
 
-					// if world is null, set worldValid false and log warning
-					if (world == null) {
-						worldValid = false;
-						plugin.getLogger().warning("Stored destination has invalid world: " + worldName);
-					}
+		List<String> returnList = new ArrayList<>();
 
-					// create destination
-					Destination destination = new Destination(key, displayName, worldValid, worldName, worldUid, x, y, z, yaw, pitch);
+		synchronized (readStatements) {
+			try {
+				PreparedStatement preparedStatement = readStatements.get("SelectAllKeys");
 
-					// add destination to return list
-					returnList.add(destination);
+				// execute sql query
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						returnList.add(rs.getString("key"));
+					}
 				}
 			}
-		}
-		catch (final SQLException e) {
+			catch (SQLException e) {
+				recordFailure();
 
-			// output simple error message
-			plugin.getLogger().warning("An error occurred while trying to "
-					+ "fetch all records from the SQLite datastore.");
-			plugin.getLogger().warning(e.getLocalizedMessage());
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while trying to "
+						+ "fetch all records from the SQLite datastore.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
 
-			// if debugging is enabled, output stack trace
-			if (plugin.getConfig().getBoolean("debug")) {
-				e.getStackTrace();
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
+				}
 			}
 		}
 
 		// return results
 		return returnList;
+	}
+
+
+	/**
+	 * Create a destination from the current row of a result set
+	 *
+	 * @param rs the result set, positioned on a destination row
+	 * @param fallbackDisplayName display name to use if the stored display name is empty, or null to use the stored value
+	 * @return the destination
+	 * @throws SQLException if a column could not be read
+	 */
+	private Destination readDestination(final ResultSet rs, final String fallbackDisplayName) throws SQLException {
+
+		String key = rs.getString("key");
+		String displayName = rs.getString("displayname");
+		String worldName = rs.getString("worldname");
+		double x = rs.getDouble("x");
+		double y = rs.getDouble("y");
+		double z = rs.getDouble("z");
+		float yaw = rs.getFloat("yaw");
+		float pitch = rs.getFloat("pitch");
+
+		if (fallbackDisplayName != null && (displayName == null || displayName.isEmpty())) {
+			displayName = fallbackDisplayName;
+		}
 
+		// reconstitute world uid from components
+		UUID worldUid = new UUID(rs.getLong("worldUidMsb"), rs.getLong("worldUidLsb"));
+
+		// create destination; the world is checked against the loaded worlds when the destination is used
+		return new Destination(key, displayName, worldName, worldUid, x, y, z, yaw, pitch);
 	}
 
 
 	@Override
-	public List<String> selectAllKeys() {
+	public List<String> selectKeysByPrefix(final String prefix, final int limit) {
 
 		List<String> returnList = new ArrayList<>();
 
-		try {
-			PreparedStatement preparedStatement = connection.prepareStatement(Queries.getQuery("SelectAllKeys"));
+		// prefix match is a range scan on the case-insensitive key index
+		final String lowerBound = (prefix == null) ? "" : prefix;
 
-			// execute sql query
-			ResultSet rs = preparedStatement.executeQuery();
+		synchronized (readStatements) {
+			try {
+				PreparedStatement preparedStatement = readStatements.get("SelectKeysByPrefix");
+				preparedStatement.setString(1, lowerBound);
+				preparedStatement.setString(2, lowerBound + MAX_CODE_POINT_STRING);
+				preparedStatement.setInt(3, limit);
 
-			while (rs.next()) {
-				returnList.add(rs.getString("key"));
+				// execute sql query
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						returnList.add(rs.getString("key"));
+					}
+				}
 			}
-		}
-		catch (Exception e) {
+			catch (SQLException e) {
+				recordFailure();
 
-			// output simple error message
-			plugin.getLogger().warning("An error occurred while trying to "
-					+ "fetch all records from the SQLite datastore.");
-			plugin.getLogger().warning(e.getLocalizedMessage());
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while trying to "
+						+ "fetch matching keys from the SQLite datastore.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
 
-			// if debugging is enabled, output stack trace
-			if (plugin.getConfig().getBoolean("debug")) {
-				e.getStackTrace();
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
+				}
 			}
 		}
 
@@ -495,44 +573,122 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 		// get destination record to be deleted, for return
 		Optional<Destination> destination = this.selectRecord(key);
 
-		try {
-			// create prepared statement
-			PreparedStatement preparedStatement = connection.prepareStatement(Queries.getQuery("DeleteDestination"));
+		// queue delete for writer thread
+		writeQueue.delete(key);
 
-			preparedStatement.setString(1, key);
+		return destination;
+	}
 
-			// execute prepared statement
-			int rowsAffected = preparedStatement.executeUpdate();
 
-			// output debugging information
-			if (plugin.getConfig().getBoolean("debug")) {
-				plugin.getLogger().info(rowsAffected + " rows deleted.");
-			}
+	@Override
+	public long selectCooldown(final UUID playerUid, final long now) {
+
+		// if uuid is null return no cooldown
+		if (playerUid == null) {
+			return 0;
 		}
-		catch (Exception e) {
 
-			// output simple error message
-			plugin.getLogger().warning("An error occurred while attempting to "
-					+ "delete a destination from the SQLite datastore.");
-			plugin.getLogger().warning(e.getLocalizedMessage());
+		synchronized (readStatements) {
+			try {
+				PreparedStatement preparedStatement = readStatements.get("SelectCooldown");
 
-			// if debugging is enabled, output stack trace
-			if (plugin.getConfig().getBoolean("debug")) {
-				e.getStackTrace();
+				preparedStatement.setLong(1, playerUid.getMostSignificantBits());
+				preparedStatement.setLong(2, playerUid.getLeastSignificantBits());
+				preparedStatement.setLong(3, now);
+
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					if (rs.next()) {
+						return rs.getLong("expiry");
+					}
+				}
+			}
+			catch (SQLException e) {
+				recordFailure();
+
+				// output simple error message
+				plugin.getLogger().warning("An error occurred while fetching a player cooldown from the SQLite database.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
+
+				// if debugging is enabled, output stack trace
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
+				}
 			}
 		}
-		return destination;
+
+		return 0;
+	}
+
+
+	@Override
+	public int insertCooldowns(final Map<UUID, Long> cooldowns) {
+
+		// if cooldowns is null or empty return zero record count
+		if (cooldowns == null || cooldowns.isEmpty()) {
+			return 0;
+		}
+
+		// copy cooldowns, since the writer thread binds them later
+		final Map<UUID, Long> pending = new HashMap<>(cooldowns);
+
+		// queue all cooldowns as one unit of work for the writer thread
+		writeQueue.submit(statements -> {
+			PreparedStatement preparedStatement = statements.get("UpsertCooldown");
+			for (Map.Entry<UUID, Long> entry : pending.entrySet()) {
+				preparedStatement.setLong(1, entry.getKey().getMostSignificantBits());
+				preparedStatement.setLong(2, entry.getKey().getLeastSignificantBits());
+				preparedStatement.setLong(3, entry.getValue());
+				preparedStatement.addBatch();
+			}
+			preparedStatement.executeBatch();
+		});
+
+		return pending.size();
+	}
+
+
+	@Override
+	public int purgeCooldowns(final long now) {
+
+		final AtomicInteger count = new AtomicInteger();
+
+		writeQueue.submit(statements -> {
+			PreparedStatement preparedStatement = statements.get("PurgeCooldowns");
+			preparedStatement.setLong(1, now);
+			count.set(preparedStatement.executeUpdate());
+		});
+
+		// wait for the writer thread, to return the count of purged cooldowns
+		writeQueue.flush();
+
+		return count.get();
 	}
 
 
 	@Override
 	public void close() {
 
+		// commit any queued writes before closing connection
+		if (writeQueue != null) {
+			writeQueue.close();
+		}
+
+		// release prepared statements
+		if (readStatements != null) {
+			synchronized (readStatements) {
+				readStatements.close();
+			}
+		}
+
 		try {
+			if (readConnection != null) {
+				readConnection.close();
+			}
 			connection.close();
 			plugin.getLogger().info("SQLite datastore connection closed.");
 		}
 		catch (Exception e) {
+			recordFailure();
 
 			// output simple error message
 			plugin.getLogger().warning("An error occurred while closing the SQLite datastore.");
@@ -540,7 +696,7 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 
 			// if debugging is enabled, output stack trace
 			if (plugin.getConfig().getBoolean("debug")) {
-				e.getStackTrace();
+				e.printStackTrace();
 			}
 		}
 		setInitialized(false);
@@ -549,7 +705,10 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 
 	@Override
 	public void sync() {
-		// no action necessary for this storage type
+		// wait for queued writes to be committed
+		if (writeQueue != null) {
+			writeQueue.flush();
+		}
 	}
 
 
@@ -561,7 +720,37 @@ final class DataStoreSQLite extends DataStoreAbstract implements DataStore {
 		if (dataStoreFile.exists()) {
 			result = dataStoreFile.delete();
 		}
+
+		// a write-ahead log left behind would be applied to a new database with the same name
+		for (String suffix : COMPANION_FILE_SUFFIXES) {
+			File companionFile = new File(dataFilePath + suffix);
+			if (companionFile.exists() && !companionFile.delete()) {
+				plugin.getLogger().warning("Could not delete " + companionFile.getName() + ".");
+			}
+		}
 		return result;
 	}
 
+
+	/**
+	 * Get datastore statistics; latencies are recorded by the instrumentation wrapped around the datastore,
+	 * so only the count of failed operations and the counters of the writer thread are reported by the
+	 * datastore itself
+	 *
+	 * @return statistics with the count of failed operations and the counters of the writer thread
+	 */
+	@Override
+	public Optional<DataStoreStatistics> getStatistics() {
+
+		// capture reference, since the queue is replaced when the datastore is reinitialized
+		WriteQueue queue = writeQueue;
+		if (queue == null) {
+			return super.getStatistics();
+		}
+
+		return super.getStatistics().map(statistics -> statistics.withWriteQueue(
+				new DataStoreStatistics.WriteQueueStatistics(queue.getQueueDepth(), queue.getPeakQueueDepth(),
+						queue.getOperationsWritten(), queue.getBatchesCommitted(), queue.getWriteErrors())));
+	}
+
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * Snapshot of the operation latencies and counters of a datastore
+ */
+public final class DataStoreStatistics {
+
+	private final String storageType;
+	private final List<OperationLatency> operations;
+	private final long rowsRead;
+	private final long rowsWritten;
+	private final long errors;
+	private final long cacheHits;
+	private final long cacheMisses;
+	private final WriteQueueStatistics writeQueue;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param storageType the name of the datastore type
+	 * @param operations the latencies of each operation
+	 * @param rowsRead the number of records read
+	 * @param rowsWritten the number of records inserted or deleted
+	 * @param errors the number of operations that failed, whether thrown or handled by the datastore
+	 * @param cacheHits the number of record lookups served by the destination cache
+	 * @param cacheMisses the number of record lookups not found in the destination cache
+	 * @param writeQueue the counters of the background writer of the datastore, or null if it has none
+	 */
+	DataStoreStatistics(final String storageType,
+	                    final List<OperationLatency> operations,
+	                    final long rowsRead,
+	                    final long rowsWritten,
+	                    final long errors,
+	                    final long cacheHits,
+	                    final long cacheMisses,
+	                    final WriteQueueStatistics writeQueue) {
+		this.storageType = storageType;
+		this.operations = Collections.unmodifiableList(operations);
+		this.rowsRead = rowsRead;
+		this.rowsWritten = rowsWritten;
+		this.errors = errors;
+		this.cacheHits = cacheHits;
+		this.cacheMisses = cacheMisses;
+		this.writeQueue = writeQueue;
+	}
+
+
+	/**
+	 * Copy these statistics with the counts of a destination cache in front of the datastore
+	 *
+	 * @param hits the number of lookups served by the cache
+	 * @param misses the number of lookups not found in the cache
+	 * @return the new statistics
+	 */
+	DataStoreStatistics withCacheCounts(final long hits, final long misses) {
+		return new DataStoreStatistics(storageType, operations, rowsRead, rowsWritten, errors, hits, misses, writeQueue);
+	}
+
+
+	/**
+	 * Copy these statistics with the counters of the background writer of the datastore
+	 *
+	 * @param writeQueue the counters of the background writer
+	 * @return the new statistics
+	 */
+	DataStoreStatistics withWriteQueue(final WriteQueueStatistics writeQueue) {
+		return new DataStoreStatistics(storageType, operations, rowsRead, rowsWritten, errors, cacheHits, cacheMisses, writeQueue);
+	}
+
+
+	public String getStorageType() {
+		return storageType;
+	}
+
+
+	/**
+	 * Get the latencies of the operations that have been performed at least once
+	 *
+	 * @return unmodifiable list of operation latencies
+	 */
+	public List<OperationLatency> getOperations() {
+		return operations;
+	}
+
+
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+
+	public long getRowsWritten() {
+		return rowsWritten;
+	}
+
+
+	public long getErrors() {
+		return errors;
+	}
+
+
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+
+
+	/**
+	 * Get the counters of the background writer of the datastore
+	 *
+	 * @return the writer counters, or empty if the datastore writes on the calling thread
+	 */
+	public Optional<WriteQueueStatistics> getWriteQueue() {
+		return Optional.ofNullable(writeQueue);
+	}
+
+
+	/**
+	 * Latency percentiles of one datastore operation, in microseconds
+	 */
+	public static final class OperationLatency {
+
+		private final String operation;
+		private final long count;
+		private final long p50;
+		private final long p95;
+		private final long p99;
+		private final long max;
+
+		OperationLatency(final String operation, final long count,
+		                 final long p50, final long p95, final long p99, final long max) {
+			this.operation = operation;
+			this.count = count;
+			this.p50 = p50;
+			this.p95 = p95;
+			this.p99 = p99;
+			this.max = max;
+		}
+
+		public String getOperation() {
+			return operation;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getP50Micros() {
+			return p50;
+		}
+
+		public long getP95Micros() {
+			return p95;
+		}
+
+		public long getP99Micros() {
+			return p99;
+		}
+
+		public long getMaxMicros() {
+			return max;
+		}
+	}
+
+
+	/**
+	 * Counters of the background writer of a datastore
+	 */
+	public static final class WriteQueueStatistics {
+
+		private final int depth;
+		private final int peakDepth;
+		private final long operationsWritten;
+		private final long batchesCommitted;
+		private final long writeErrors;
+
+		WriteQueueStatistics(final int depth, final int peakDepth,
+		                     final long operationsWritten, final long batchesCommitted, final long writeErrors) {
+			this.depth = depth;
+			this.peakDepth = peakDepth;
+			this.operationsWritten = operationsWritten;
+			this.batchesCommitted = batchesCommitted;
+			this.writeErrors = writeErrors;
+		}
+
+		public int getDepth() {
+			return depth;
+		}
+
+		public int getPeakDepth() {
+			return peakDepth;
+		}
+
+		public long getOperationsWritten() {
+			return operationsWritten;
+		}
+
+		public long getBatchesCommitted() {
+			return batchesCommitted;
+		}
+
+		public long getWriteErrors() {
+			return writeErrors;
+		}
+	}
+
+}
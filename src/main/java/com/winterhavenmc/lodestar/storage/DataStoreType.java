@@ -20,9 +20,9 @@ package com.winterhavenmc.lodestar.storage;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
 
 
 enum DataStoreType {
@@ -42,6 +42,101 @@ enum DataStoreType {
 			File dataStoreFile = new File(plugin.getDataFolder() + File.separator + this.getStorageName());
 			return dataStoreFile.exists();
 		}
+
+		@Override
+		String retire(final JavaPlugin plugin) {
+			String retiredName = retiredName(plugin);
+
+			// the write-ahead log and shared memory files must keep the name of their database file
+			if (renameStorageFile(plugin, "-wal", retiredName) && renameStorageFile(plugin, "-shm", retiredName)
+					&& renameStorageFile(plugin, "", retiredName)) {
+				return retiredName;
+			}
+			return null;
+		}
+	},
+
+	MAPPED("Mapped", "destinations.bin") {
+
+		@Override
+		public DataStore connect(final JavaPlugin plugin) {
+
+			// return new memory-mapped datastore object
+			return new DataStoreMapped(plugin);
+		}
+
+		@Override
+		boolean storageObjectExists(final JavaPlugin plugin) {
+			// get path name to data store file
+			File dataStoreFile = new File(plugin.getDataFolder() + File.separator + this.getStorageName());
+			return dataStoreFile.exists();
+		}
+
+		@Override
+		boolean isCached() {
+			// lookups are served directly from the mapped file
+			return false;
+		}
+
+		@Override
+		boolean storesCooldowns() {
+			return false;
+		}
+	},
+
+	LOG("Log", "destinations.log") {
+
+		@Override
+		public DataStore connect(final JavaPlugin plugin) {
+
+			// return new log-structured datastore object
+			return new DataStoreLog(plugin);
+		}
+
+		@Override
+		boolean storageObjectExists(final JavaPlugin plugin) {
+			// get path name to data store file
+			File dataStoreFile = new File(plugin.getDataFolder() + File.separator + this.getStorageName());
+			return dataStoreFile.exists();
+		}
+
+		@Override
+		boolean isCached() {
+			// all records are already held in the log index
+			return false;
+		}
+
+		@Override
+		boolean storesCooldowns() {
+			return false;
+		}
+	},
+
+	SQL("SQL", "lodestar_destinations") {
+
+		@Override
+		public DataStore connect(final JavaPlugin plugin) {
+
+			// return new networked sql datastore object
+			return new DataStoreSQL(plugin);
+		}
+
+		@Override
+		boolean storageObjectExists(final JavaPlugin plugin) {
+			// the shared table is never converted away from, since other servers may still use it
+			return false;
+		}
+
+		@Override
+		String retire(final JavaPlugin plugin) {
+			// the shared table is never converted, so never retired
+			return null;
+		}
+
+		@Override
+		boolean isShared() {
+			return true;
+		}
 	};
 
 	// DataStore display name
@@ -53,6 +148,9 @@ enum DataStoreType {
 	// default datastore type
 	private final static DataStoreType defaultType = DataStoreType.SQLITE;
 
+	// appended to the name of a datastore file whose conversion could not be verified
+	private final static String RETIRED_SUFFIX = ".unconverted";
+
 
 	/**
 	 * Class constructor
@@ -97,6 +195,104 @@ enum DataStoreType {
 	abstract boolean storageObjectExists(final JavaPlugin plugin);
 
 
+	/**
+	 * Rename the backing object of a datastore whose conversion could not be verified. The records are
+	 * kept for recovery, but the datastore is no longer found by {@link #storageObjectExists}, so the
+	 * copy is not repeated on every start, replacing records that were changed or deleted since.
+	 *
+	 * @param plugin reference to plugin main class
+	 * @return the new name of the backing object, or null if it could not be renamed
+	 */
+	String retire(final JavaPlugin plugin) {
+		String retiredName = retiredName(plugin);
+		return renameStorageFile(plugin, "", retiredName) ? retiredName : null;
+	}
+
+
+	/**
+	 * Get an unused name for a retired datastore file
+	 *
+	 * @param plugin reference to plugin main class
+	 * @return the storage name with the retired suffix, and a timestamp if an earlier retired file exists
+	 */
+	String retiredName(final JavaPlugin plugin) {
+		String retiredName = storageName + RETIRED_SUFFIX;
+		if (new File(plugin.getDataFolder(), retiredName).exists()) {
+			retiredName += "-" + System.currentTimeMillis();
+		}
+		return retiredName;
+	}
+
+
+	/**
+	 * Rename a datastore file, or one of its companion files, to its retired name
+	 *
+	 * @param plugin reference to plugin main class
+	 * @param suffix the suffix of the companion file, or an empty string for the datastore file
+	 * @param retiredName the retired name of the datastore file
+	 * @return true if the file was renamed or does not exist, false if it could not be renamed
+	 */
+	boolean renameStorageFile(final JavaPlugin plugin, final String suffix, final String retiredName) {
+		File file = new File(plugin.getDataFolder(), storageName + suffix);
+		if (!file.exists()) {
+			return true;
+		}
+		try {
+			Files.move(file.toPath(), new File(plugin.getDataFolder(), retiredName + suffix).toPath());
+			return true;
+		}
+		catch (IOException e) {
+			plugin.getLogger().warning("Could not rename " + file.getName() + ": " + e.getLocalizedMessage());
+			return false;
+		}
+	}
+
+
+	/**
+	 * Create datastore with latency instrumentation, wrapped in the in-memory destination cache
+	 * if the type uses it
+	 *
+	 * @param plugin reference to plugin main class
+	 * @return DataStore object
+	 */
+	DataStore connectCached(final JavaPlugin plugin) {
+		DataStore dataStore = new InstrumentedDataStore(connect(plugin));
+		return isCached()
+				? new DataStoreCache(plugin, dataStore)
+				: dataStore;
+	}
+
+
+	/**
+	 * Test if datastore should be wrapped in the in-memory destination cache
+	 *
+	 * @return true if datastore is cached, false if it serves lookups directly
+	 */
+	boolean isCached() {
+		return true;
+	}
+
+
+	/**
+	 * Test if datastore may be written by other servers, so cached records must be refreshed
+	 *
+	 * @return true if datastore is shared, false if only this server writes to it
+	 */
+	boolean isShared() {
+		return false;
+	}
+
+
+	/**
+	 * Test if datastore persists player teleport cooldowns
+	 *
+	 * @return true if cooldowns are stored, false if they are discarded
+	 */
+	boolean storesCooldowns() {
+		return true;
+	}
+
+
 	/**
 	 * attempt get a datastore type by matching the name to a string; returns default type if no match
 	 *
@@ -146,20 +342,31 @@ enum DataStoreType {
 				}
 			}
 
-			// get count of records inserted in new datastore from old datastore
-			int count = newDataStore.insertRecords(oldDataStore.selectAllRecords());
+			// copy records to new datastore and verify the copy
+			DataStoreConverter.Result result = new DataStoreConverter(plugin, oldDataStore, newDataStore).run();
 
 			// log record count message
-			plugin.getLogger().info(count + " records converted to " + newDataStore + " datastore.");
-
-			// flush new datastore to disk if applicable
-			newDataStore.sync();
+			plugin.getLogger().info(result.getWrittenCount() + " records converted to " + newDataStore + " datastore.");
 
 			// close old datastore
 			oldDataStore.close();
 
-			// delete old datastore
-			oldDataStore.delete();
+			// delete old datastore only if every record is known to be in the new datastore;
+			// otherwise keep it under another name, so the copy is not repeated on the next start
+			if (result.isVerified()) {
+				oldDataStore.delete();
+			}
+			else {
+				String retiredName = oldDataStore.getType().retire(plugin);
+				if (retiredName != null) {
+					plugin.getLogger().warning("The " + oldDataStore + " datastore could not be fully converted,"
+							+ " and was renamed to " + retiredName + " so it is not converted again.");
+				}
+				else {
+					plugin.getLogger().warning("The " + oldDataStore + " datastore could not be fully converted,"
+							+ " and could not be renamed; it will be converted again on the next start.");
+				}
+			}
 		}
 	}
 
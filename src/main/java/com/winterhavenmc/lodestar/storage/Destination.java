@@ -24,9 +24,13 @@ import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public final class Destination {
@@ -34,9 +38,14 @@ public final class Destination {
 	// static reference to plugin main class instance, necessary for static methods
 	private static final PluginMain plugin = JavaPlugin.getPlugin(PluginMain.class);
 
+	// incremented when a world is loaded or unloaded, invalidating all resolved locations
+	private static final AtomicInteger worldGeneration = new AtomicInteger();
+
+	// loaded worlds by uid, replaced on the main thread, so worlds can be looked up from the storage thread
+	private static volatile Map<UUID, World> loadedWorlds = Map.of();
+
 	private final String key;
 	private final String displayName;
-	private final boolean worldValid;
 	private final String worldName;
 	private final UUID worldUid;
 	private final double x;
@@ -45,6 +54,9 @@ public final class Destination {
 	private final float yaw;
 	private final float pitch;
 
+	// location resolved against the loaded worlds, replaced when the world generation changes
+	private volatile ResolvedLocation resolvedLocation;
+
 
 	/**
 	 * Class constructor
@@ -64,12 +76,10 @@ public final class Destination {
 		if (location.getWorld() != null) {
 			this.worldUid = location.getWorld().getUID();
 			this.worldName = location.getWorld().getName();
-			this.worldValid = true;
 		}
 		else {
 			this.worldUid = null;
 			this.worldName = "???";
-			this.worldValid = false;
 		}
 
 		this.x = location.getX();
@@ -85,7 +95,6 @@ public final class Destination {
 	 *
 	 * @param key         the destination key
 	 * @param displayName the destination display name
-	 * @param worldValid  destination world valid
 	 * @param worldName   destination world name
 	 * @param worldUid    destination world uid
 	 * @param x           destination x coordinate
@@ -96,7 +105,6 @@ public final class Destination {
 	 */
 	public Destination(final String key,
 	                   final String displayName,
-	                   final boolean worldValid,
 	                   final String worldName,
 	                   final UUID worldUid,
 	                   final double x,
@@ -107,7 +115,6 @@ public final class Destination {
 
 		this.key = key;
 		this.displayName = displayName;
-		this.worldValid = worldValid;
 		this.worldName = worldName;
 		this.worldUid = worldUid;
 		this.x = x;
@@ -179,27 +186,48 @@ public final class Destination {
 
 
 	/**
-	 * Getter for destination location
+	 * Getter for destination location. The world is looked up once and the location cached until
+	 * a world is loaded or unloaded; each call returns a copy of the cached location, which the caller
+	 * may modify. Callers that need the location more than once should keep the copy.
 	 *
-	 * @return {@link Optional} Location
+	 * @return {@link Optional} Location, empty if the destination world is not loaded
 	 */
 	public Optional<Location> getLocation() {
 
-		// if world uid is null, return null
-		if (worldUid == null) {
+		Location location = resolveLocation();
+
+		// if world is not loaded, return empty optional
+		if (location == null) {
 			return Optional.empty();
 		}
 
-		// get world by uid
-		World world = plugin.getServer().getWorld(worldUid);
+		// return copy of cached location
+		return Optional.of(location.clone());
+	}
 
-		// if world is null, return null
-		if (world == null) {
-			return Optional.empty();
+
+	/**
+	 * Get the cached location, resolving it again if worlds have been loaded or unloaded since it was cached
+	 *
+	 * @return the cached location, or null if the destination world is not loaded
+	 */
+	private Location resolveLocation() {
+
+		final int generation = worldGeneration.get();
+
+		ResolvedLocation resolved = resolvedLocation;
+
+		if (resolved == null || resolved.generation != generation) {
+
+			// get world by uid; world uid is null if the world was not loaded when the destination was created
+			World world = (worldUid == null) ? null : getLoadedWorld(worldUid);
+
+			resolved = new ResolvedLocation(generation,
+					(world == null) ? null : new Location(world, x, y, z, yaw, pitch));
+			resolvedLocation = resolved;
 		}
 
-		// return new location object for destination
-		return Optional.of(new Location(world, x, y, z, yaw, pitch));
+		return resolved.location;
 	}
 
 
@@ -213,8 +241,13 @@ public final class Destination {
 	}
 
 
+	/**
+	 * Test if the destination world is currently loaded
+	 *
+	 * @return true if the world is loaded, false if not
+	 */
 	public boolean isWorldValid() {
-		return worldValid;
+		return resolveLocation() != null;
 	}
 
 
@@ -245,6 +278,85 @@ public final class Destination {
 
 	/* STATIC METHODS */
 
+	/**
+	 * Invalidate the cached locations of all destinations, so that their worlds are looked up again.
+	 * Called when a world is loaded or unloaded.
+	 */
+	public static void invalidateWorlds() {
+		Map<UUID, World> worlds = new HashMap<>();
+		for (World world : plugin.getServer().getWorlds()) {
+			worlds.put(world.getUID(), world);
+		}
+		loadedWorlds = Collections.unmodifiableMap(worlds);
+		worldGeneration.incrementAndGet();
+	}
+
+
+	/**
+	 * Get a loaded world by uid. Safe to call from any thread; the worlds are read from a snapshot
+	 * taken on the main thread, which is refreshed if the world is missing and this is the main thread.
+	 *
+	 * @param worldUid the world uid
+	 * @return the world, or null if no world with the uid is loaded
+	 */
+	static World getLoadedWorld(final UUID worldUid) {
+		World world = loadedWorlds.get(worldUid);
+		if (world == null && plugin.getServer().isPrimaryThread()) {
+			world = plugin.getServer().getWorld(worldUid);
+			if (world != null) {
+				invalidateWorlds();
+			}
+		}
+		return world;
+	}
+
+
+	/**
+	 * Get a loaded world by name. Safe to call from any thread, like {@link #getLoadedWorld(UUID)}.
+	 *
+	 * @param worldName the world name
+	 * @return the world, or null if no world with the name is loaded
+	 */
+	static World getLoadedWorld(final String worldName) {
+		for (World world : loadedWorlds.values()) {
+			if (world.getName().equals(worldName)) {
+				return world;
+			}
+		}
+		if (plugin.getServer().isPrimaryThread()) {
+			World world = plugin.getServer().getWorld(worldName);
+			if (world != null) {
+				invalidateWorlds();
+			}
+			return world;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Fold a destination key for case-insensitive matching. Only ASCII letters are folded,
+	 * the same as the SQLite NOCASE collation, so the cache and every datastore agree on
+	 * which keys are equal.
+	 *
+	 * @param key the destination key
+	 * @return the key with ASCII upper case letters in lower case
+	 */
+	static String foldKey(final String key) {
+		char[] chars = null;
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				if (chars == null) {
+					chars = key.toCharArray();
+				}
+				chars[i] = (char) (c + ('a' - 'A'));
+			}
+		}
+		return chars == null ? key : new String(chars);
+	}
+
+
 	/**
 	 * Derive key from destination display name<br>
 	 * strips color codes and replaces spaces with underscores<br>
@@ -369,4 +481,21 @@ public final class Destination {
 		return plugin.dataStore.selectRecord(Destination.deriveKey(key)).map(Destination::getDisplayName).orElse(null);
 	}
 
+
+	/**
+	 * A location resolved against the worlds loaded in one world generation
+	 */
+	private static final class ResolvedLocation {
+
+		private final int generation;
+
+		// null if the destination world was not loaded
+		private final Location location;
+
+		private ResolvedLocation(final int generation, final Location location) {
+			this.generation = generation;
+			this.location = location;
+		}
+	}
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * One page of destination records, ordered by key, with the total number of
+ * records that matched the query across all pages.
+ */
+public final class DestinationPage {
+
+	private final List<Destination> destinations;
+	private final int offset;
+	private final int totalCount;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param destinations the destination records on this page
+	 * @param offset the index of the first record on this page among all matching records
+	 * @param totalCount the total number of matching records
+	 */
+	public DestinationPage(final List<Destination> destinations, final int offset, final int totalCount) {
+		this.destinations = Collections.unmodifiableList(destinations);
+		this.offset = offset;
+		this.totalCount = totalCount;
+	}
+
+
+	/**
+	 * Get the destination records on this page
+	 *
+	 * @return unmodifiable list of destination records
+	 */
+	public List<Destination> getDestinations() {
+		return destinations;
+	}
+
+
+	/**
+	 * Get the index of the first record on this page among all matching records
+	 *
+	 * @return the zero-based offset of this page
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+
+	/**
+	 * Get the total number of records that matched the query
+	 *
+	 * @return the total count of matching records
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+
+	/**
+	 * Check if this page contains no records
+	 *
+	 * @return true if the page is empty, false if not
+	 */
+	public boolean isEmpty() {
+		return destinations.isEmpty();
+	}
+
+}
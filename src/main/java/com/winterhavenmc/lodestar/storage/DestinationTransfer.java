@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+
+/**
+ * Bulk export and import of destination records. Files are kept in the transfer folder inside the
+ * plugin data folder. Files with a .csv extension are written and read as comma separated values,
+ * for editing in a spreadsheet; all other files use a compact binary format with a checksum.
+ * <p>
+ * Records are streamed from the datastore cursor on export, and inserted in batches on import,
+ * so neither direction holds all records in memory.
+ */
+final class DestinationTransfer {
+
+	// name of folder inside the plugin data folder that holds transfer files
+	static final String FOLDER_NAME = "transfer";
+
+	// binary file header
+	private static final int MAGIC = 0x4C534458;
+	private static final int VERSION = 1;
+
+	// binary record markers
+	private static final byte RECORD = 1;
+	private static final byte END = 0;
+
+	// number of records inserted at a time on import
+	private static final int BATCH_SIZE = 500;
+
+	private static final String CSV_HEADER = "key,display_name,world_name,world_uid,x,y,z,yaw,pitch";
+
+	// transfer file names may not contain path separators
+	private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+	private final JavaPlugin plugin;
+	private final DataStore dataStore;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 * @param dataStore the datastore to export from or import into
+	 */
+	DestinationTransfer(final JavaPlugin plugin, final DataStore dataStore) {
+		this.plugin = plugin;
+		this.dataStore = dataStore;
+	}
+
+
+	/**
+	 * Write all destination records to a transfer file
+	 *
+	 * @param fileName the name of the file in the transfer folder
+	 * @return the result of the export
+	 * @throws IOException if the file could not be written
+	 */
+	TransferResult exportTo(final String fileName) throws IOException {
+
+		final long startTime = System.nanoTime();
+
+		final File file = resolve(plugin, fileName);
+		final File folder = file.getParentFile();
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			throw new IOException("Could not create folder " + folder);
+		}
+
+		// write to temporary file, so a failed export does not replace an existing file
+		final File tempFile = new File(folder, file.getName() + ".tmp");
+
+		int count;
+
+		try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+			count = isCsv(fileName) ? writeCsv(outputStream) : writeBinary(outputStream);
+		}
+		catch (IOException | UncheckedIOException e) {
+			Files.deleteIfExists(tempFile.toPath());
+			throw (e instanceof UncheckedIOException) ? ((UncheckedIOException) e).getCause() : (IOException) e;
+		}
+
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		return logResult("Exported", "to", fileName, count, 0, startTime);
+	}
+
+
+	/**
+	 * Insert all destination records in a transfer file into the datastore, replacing records with the
+	 * same key. Records whose world is not loaded, and records with reserved names, are skipped.
+	 *
+	 * @param fileName the name of the file in the transfer folder
+	 * @return the result of the import
+	 * @throws IOException if the file could not be read, or is not a valid transfer file
+	 */
+	TransferResult importFrom(final String fileName) throws IOException {
+
+		final long startTime = System.nanoTime();
+
+		final File file = resolve(plugin, fileName);
+		if (!file.isFile()) {
+			throw new FileNotFoundException("Transfer file " + fileName + " does not exist.");
+		}
+
+		final Importer importer = new Importer();
+
+		if (isCsv(fileName)) {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+				readCsv(reader, importer);
+			}
+		}
+		else {
+			// checksum is verified before any record is imported, so a damaged file imports nothing
+			try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+				readBinary(inputStream, null);
+			}
+			try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+				readBinary(inputStream, importer);
+			}
+		}
+
+		importer.flush();
+
+		// make imported records durable before reporting them
+		dataStore.sync();
+
+		return logResult("Imported", "from", fileName, importer.count, importer.skipped, startTime);
+	}
+
+
+	private int writeBinary(final OutputStream outputStream) throws IOException {
+
+		final CheckedOutputStream checkedStream = new CheckedOutputStream(outputStream, new CRC32());
+		final DataOutputStream out = new DataOutputStream(checkedStream);
+
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+
+		int count = dataStore.forEachRecord(destination -> {
+			try {
+				out.writeByte(RECORD);
+				out.writeUTF(destination.getKey());
+				out.writeUTF(Objects.requireNonNullElse(destination.getDisplayName(), ""));
+				out.writeUTF(Objects.requireNonNullElse(destination.getWorldName(), ""));
+				out.writeLong(destination.getWorldUid().getMostSignificantBits());
+				out.writeLong(destination.getWorldUid().getLeastSignificantBits());
+				out.writeDouble(destination.getX());
+				out.writeDouble(destination.getY());
+				out.writeDouble(destination.getZ());
+				out.writeFloat(destination.getYaw());
+				out.writeFloat(destination.getPitch());
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		out.writeByte(END);
+
+		// trailer is not part of the checksum
+		final long checksum = checkedStream.getChecksum().getValue();
+		out.writeInt(count);
+		out.writeLong(checksum);
+		out.flush();
+
+		return count;
+	}
+
+
+	/**
+	 * Read a binary transfer file
+	 *
+	 * @param inputStream the file contents
+	 * @param importer the importer to pass records to, or null to only verify the file
+	 * @throws IOException if the file could not be read, or is not a valid transfer file
+	 */
+	private void readBinary(final InputStream inputStream, final Importer importer) throws IOException {
+
+		final CheckedInputStream checkedStream = new CheckedInputStream(inputStream, new CRC32());
+		final DataInputStream in = new DataInputStream(checkedStream);
+
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a destination transfer file.");
+		}
+		int version = in.readUnsignedShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported transfer file version " + version + ".");
+		}
+
+		int count = 0;
+		byte marker;
+
+		while ((marker = in.readByte()) == RECORD) {
+
+			String key = in.readUTF();
+			String displayName = in.readUTF();
+			String worldName = in.readUTF();
+			UUID worldUid = new UUID(in.readLong(), in.readLong());
+			double x = in.readDouble();
+			double y = in.readDouble();
+			double z = in.readDouble();
+			float yaw = in.readFloat();
+			float pitch = in.readFloat();
+
+			if (importer != null) {
+				importer.accept(key, displayName, worldName, worldUid, x, y, z, yaw, pitch);
+			}
+			count++;
+		}
+
+		if (marker != END) {
+			throw new IOException("Transfer file is damaged: unexpected record marker " + marker + ".");
+		}
+
+		final long checksum = checkedStream.getChecksum().getValue();
+
+		if (in.readInt() != count || in.readLong() != checksum) {
+			throw new IOException("Transfer file is damaged: checksum does not match.");
+		}
+	}
+
+
+	private int writeCsv(final OutputStream outputStream) throws IOException {
+
+		final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+
+		writer.write(CSV_HEADER);
+		writer.write('\n');
+
+		final StringBuilder line = new StringBuilder();
+
+		int count = dataStore.forEachRecord(destination -> {
+			line.setLength(0);
+			appendCsvField(line, destination.getKey()).append(',');
+			appendCsvField(line, destination.getDisplayName()).append(',');
+			appendCsvField(line, destination.getWorldName()).append(',');
+			line.append(destination.getWorldUid()).append(',');
+			line.append(destination.getX()).append(',');
+			line.append(destination.getY()).append(',');
+			line.append(destination.getZ()).append(',');
+			line.append(destination.getYaw()).append(',');
+			line.append(destination.getPitch()).append('\n');
+			try {
+				writer.write(line.toString());
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		writer.flush();
+
+		return count;
+	}
+
+
+	/**
+	 * Read a CSV transfer file. The world uid column may be left empty in edited files,
+	 * in which case the world is found by name. Quoted fields may contain line breaks.
+	 *
+	 * @param reader the file contents
+	 * @param importer the importer to pass records to
+	 * @throws IOException if the file could not be read
+	 */
+	private void readCsv(final BufferedReader reader, final Importer importer) throws IOException {
+
+		String line;
+		int lineNumber = 0;
+
+		while ((line = reader.readLine()) != null) {
+
+			lineNumber++;
+			final int firstLineNumber = lineNumber;
+
+			// a quoted field containing a line break continues on the next line
+			String nextLine;
+			while (hasOpenQuote(line) && (nextLine = reader.readLine()) != null) {
+				lineNumber++;
+				line = line + '\n' + nextLine;
+			}
+
+			// skip header and blank lines
+			if (line.isBlank() || (firstLineNumber == 1 && line.startsWith("key,"))) {
+				continue;
+			}
+
+			List<String> fields = parseCsvLine(line);
+
+			try {
+				if (fields.size() != 9) {
+					throw new IllegalArgumentException("expected 9 fields, found " + fields.size());
+				}
+
+				UUID worldUid = fields.get(3).isBlank() ? null : UUID.fromString(fields.get(3).trim());
+
+				importer.accept(fields.get(0).trim(),
+						fields.get(1),
+						fields.get(2).trim(),
+						worldUid,
+						Double.parseDouble(fields.get(4).trim()),
+						Double.parseDouble(fields.get(5).trim()),
+						Double.parseDouble(fields.get(6).trim()),
+						Float.parseFloat(fields.get(7).trim()),
+						Float.parseFloat(fields.get(8).trim()));
+			}
+			catch (IllegalArgumentException e) {
+				plugin.getLogger().warning("Skipping line " + firstLineNumber + " of transfer file: " + e.getLocalizedMessage());
+				importer.skipped++;
+			}
+		}
+	}
+
+
+	private static StringBuilder appendCsvField(final StringBuilder builder, final String value) {
+
+		if (value == null) {
+			return builder;
+		}
+
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return builder.append(value);
+		}
+
+		return builder.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+
+
+	/**
+	 * Test if a CSV line ends inside a quoted field; doubled quotes inside a quoted field do not change the count
+	 *
+	 * @param line the line to test
+	 * @return true if the line has an odd number of quotes, false if not
+	 */
+	static boolean hasOpenQuote(final String line) {
+		int quotes = 0;
+		for (int i = 0; i < line.length(); i++) {
+			if (line.charAt(i) == '"') {
+				quotes++;
+			}
+		}
+		return quotes % 2 != 0;
+	}
+
+
+	/**
+	 * Split a CSV line into fields; fields may be quoted, with quotes inside quoted fields doubled
+	 *
+	 * @param line the line to split
+	 * @return the list of fields
+	 */
+	static List<String> parseCsvLine(final String line) {
+
+		List<String> fields = new ArrayList<>(9);
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					}
+					else {
+						quoted = false;
+					}
+				}
+				else {
+					field.append(c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+
+		return fields;
+	}
+
+
+	private TransferResult logResult(final String action, final String preposition, final String fileName,
+	                                 final int count, final int skipped, final long startTime) {
+
+		final long elapsedNanos = System.nanoTime() - startTime;
+		final long rate = elapsedNanos > 0 ? count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : count;
+
+		plugin.getLogger().info(action + " " + count + " destinations " + preposition + " " + fileName + " in "
+				+ TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms (" + rate + " records/sec)"
+				+ (skipped > 0 ? "; " + skipped + " skipped." : "."));
+
+		return new TransferResult(fileName, count, skipped, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+	}
+
+
+	/**
+	 * Check that a transfer file name names a file directly inside the transfer folder
+	 *
+	 * @param fileName the file name to check
+	 * @return true if the file name is valid, false if not
+	 */
+	static boolean isValidFileName(final String fileName) {
+		return fileName != null && FILE_NAME_PATTERN.matcher(fileName).matches();
+	}
+
+
+	/**
+	 * Get the names of the files in the transfer folder
+	 *
+	 * @param plugin reference to main class
+	 * @return sorted list of file names
+	 */
+	static List<String> listFileNames(final JavaPlugin plugin) {
+
+		String[] names = new File(plugin.getDataFolder(), FOLDER_NAME).list((dir, name) -> isValidFileName(name)
+				&& !name.endsWith(".tmp"));
+
+		if (names == null) {
+			return Collections.emptyList();
+		}
+
+		List<String> returnList = new ArrayList<>(Arrays.asList(names));
+		Collections.sort(returnList);
+		return returnList;
+	}
+
+
+	private static File resolve(final JavaPlugin plugin, final String fileName) throws IOException {
+		if (!isValidFileName(fileName)) {
+			throw new IOException("Invalid transfer file name: " + fileName);
+		}
+		return new File(new File(plugin.getDataFolder(), FOLDER_NAME), fileName);
+	}
+
+
+	private static boolean isCsv(final String fileName) {
+		return fileName.toLowerCase(Locale.ROOT).endsWith(".csv");
+	}
+
+
+	/**
+	 * Resolves worlds for imported records and inserts them into the datastore in batches
+	 */
+	private final class Importer {
+
+		private final List<Destination> batch = new ArrayList<>(BATCH_SIZE);
+		private int count;
+		private int skipped;
+
+		void accept(final String fileKey, final String fileDisplayName, final String worldName, final UUID worldUid,
+		            final double x, final double y, final double z, final float yaw, final float pitch) {
+
+			// edited files may leave out either the key or the display name; keys are always derived,
+			// since an edited key may not be in the form the plugin stores
+			String displayName = fileDisplayName.isBlank() ? fileKey : fileDisplayName;
+			String key = Destination.deriveKey(fileKey.isBlank() ? displayName : fileKey);
+
+			if (key.isBlank() || Destination.isReserved(key)) {
+				skipped++;
+				return;
+			}
+
+			// find world by uid, falling back to world name for files from other servers
+			World world = (worldUid == null) ? null : Destination.getLoadedWorld(worldUid);
+			if (world == null && !worldName.isEmpty()) {
+				world = Destination.getLoadedWorld(worldName);
+			}
+
+			if (world == null) {
+				if (plugin.getConfig().getBoolean("debug")) {
+					plugin.getLogger().info("Skipping destination " + key + ": world " + worldName + " is not loaded.");
+				}
+				skipped++;
+				return;
+			}
+
+			batch.add(new Destination(key, displayName, world.getName(), world.getUID(), x, y, z, yaw, pitch));
+
+			if (batch.size() >= BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (!batch.isEmpty()) {
+				count += dataStore.insertRecords(batch);
+				batch.clear();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Decorator that records the latency of every operation of a datastore, with counts of records
+ * read and written and of operations that failed with an exception. Failures that the datastore
+ * handles itself are counted by the datastore, and added to the reported errors. It wraps the datastore itself, beneath the destination
+ * cache, so the latencies are those of the storage and not of cache lookups.
+ */
+final class InstrumentedDataStore implements DataStore {
+
+	private final DataStore dataStore;
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+
+	private final LongAdder rowsRead = new LongAdder();
+	private final LongAdder rowsWritten = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+
+
+	/**
+	 * Instrumented datastore operations
+	 */
+	private enum Operation {
+		INITIALIZE("initialize"),
+		SELECT_RECORD("selectRecord"),
+		INSERT_RECORD("insertRecord"),
+		INSERT_RECORDS("insertRecords"),
+		SELECT_ALL_KEYS("selectAllKeys"),
+		SELECT_KEYS_BY_PREFIX("selectKeysByPrefix"),
+		SELECT_ALL_RECORDS("selectAllRecords"),
+		FOR_EACH_RECORD("forEachRecord"),
+		SELECT_PAGE("selectPage"),
+		SELECT_REVISION("selectRevision"),
+		SELECT_CHANGES_SINCE("selectChangesSince"),
+		DELETE_RECORD("deleteRecord"),
+		SELECT_COOLDOWN("selectCooldown"),
+		INSERT_COOLDOWNS("insertCooldowns"),
+		PURGE_COOLDOWNS("purgeCooldowns"),
+		SYNC("sync"),
+		CLOSE("close");
+
+		private final String displayName;
+
+		Operation(final String displayName) {
+			this.displayName = displayName;
+		}
+
+		@Override
+		public String toString() {
+			return displayName;
+		}
+	}
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param dataStore the datastore to instrument
+	 */
+	InstrumentedDataStore(final DataStore dataStore) {
+		this.dataStore = dataStore;
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+
+	@Override
+	public void initialize() throws Exception {
+		final long start = System.nanoTime();
+		try {
+			dataStore.initialize();
+		}
+		catch (Exception e) {
+			errors.increment();
+			throw e;
+		}
+		finally {
+			histograms[Operation.INITIALIZE.ordinal()].record(System.nanoTime() - start);
+		}
+	}
+
+
+	@Override
+	public boolean isInitialized() {
+		return dataStore.isInitialized();
+	}
+
+
+	@Override
+	public DataStoreType getType() {
+		return dataStore.getType();
+	}
+
+
+	@Override
+	public Optional<Destination> selectRecord(final String destinationName) {
+		Optional<Destination> result = time(Operation.SELECT_RECORD, () -> dataStore.selectRecord(destinationName));
+		if (result.isPresent()) {
+			rowsRead.increment();
+		}
+		return result;
+	}
+
+
+	@Override
+	public boolean insertRecord(final Destination destination) {
+		boolean inserted = time(Operation.INSERT_RECORD, () -> dataStore.insertRecord(destination));
+		if (inserted) {
+			rowsWritten.increment();
+		}
+		return inserted;
+	}
+
+
+	@Override
+	public int insertRecords(final Collection<Destination> destinations) {
+		int count = time(Operation.INSERT_RECORDS, () -> dataStore.insertRecords(destinations));
+		rowsWritten.add(count);
+		return count;
+	}
+
+
+	@Override
+	public List<String> selectAllKeys() {
+		List<String> keys = time(Operation.SELECT_ALL_KEYS, dataStore::selectAllKeys);
+		rowsRead.add(keys.size());
+		return keys;
+	}
+
+
+	@Override
+	public List<String> selectKeysByPrefix(final String prefix, final int limit) {
+		List<String> keys = time(Operation.SELECT_KEYS_BY_PREFIX, () -> dataStore.selectKeysByPrefix(prefix, limit));
+		rowsRead.add(keys.size());
+		return keys;
+	}
+
+
+	@Override
+	public Collection<Destination> selectAllRecords() {
+		Collection<Destination> records = time(Operation.SELECT_ALL_RECORDS, dataStore::selectAllRecords);
+		rowsRead.add(records.size());
+		return records;
+	}
+
+
+	@Override
+	public int forEachRecord(final Consumer<Destination> action) {
+		int count = time(Operation.FOR_EACH_RECORD, () -> dataStore.forEachRecord(action));
+		rowsRead.add(count);
+		return count;
+	}
+
+
+	@Override
+	public DestinationPage selectPage(final int offset, final int limit, final String worldName, final String keyPrefix) {
+		DestinationPage page = time(Operation.SELECT_PAGE,
+				() -> dataStore.selectPage(offset, limit, worldName, keyPrefix));
+		rowsRead.add(page.getDestinations().size());
+		return page;
+	}
+
+
+	@Override
+	public long selectRevision() {
+		return time(Operation.SELECT_REVISION, dataStore::selectRevision);
+	}
+
+
+	@Override
+	public long selectChangesSince(final long revision, final Consumer<Destination> inserted, final Consumer<String> deleted) {
+		return time(Operation.SELECT_CHANGES_SINCE, () -> dataStore.selectChangesSince(revision,
+				destination -> {
+					rowsRead.increment();
+					inserted.accept(destination);
+				},
+				key -> {
+					rowsRead.increment();
+					deleted.accept(key);
+				}));
+	}
+
+
+	@Override
+	public Optional<Destination> deleteRecord(final String destinationName) {
+		Optional<Destination> result = time(Operation.DELETE_RECORD, () -> dataStore.deleteRecord(destinationName));
+		if (result.isPresent()) {
+			rowsWritten.increment();
+		}
+		return result;
+	}
+
+
+	@Override
+	public long selectCooldown(final UUID playerUid, final long now) {
+		long expiry = time(Operation.SELECT_COOLDOWN, () -> dataStore.selectCooldown(playerUid, now));
+		if (expiry != 0) {
+			rowsRead.increment();
+		}
+		return expiry;
+	}
+
+
+	@Override
+	public int insertCooldowns(final Map<UUID, Long> cooldowns) {
+		int count = time(Operation.INSERT_COOLDOWNS, () -> dataStore.insertCooldowns(cooldowns));
+		rowsWritten.add(count);
+		return count;
+	}
+
+
+	@Override
+	public int purgeCooldowns(final long now) {
+		int count = time(Operation.PURGE_COOLDOWNS, () -> dataStore.purgeCooldowns(now));
+		rowsWritten.add(count);
+		return count;
+	}
+
+
+	@Override
+	public void close() {
+		time(Operation.CLOSE, () -> {
+			dataStore.close();
+			return null;
+		});
+	}
+
+
+	@Override
+	public void sync() {
+		time(Operation.SYNC, () -> {
+			dataStore.sync();
+			return null;
+		});
+	}
+
+
+	@Override
+	public boolean delete() {
+		return dataStore.delete();
+	}
+
+
+	@Override
+	public DataStore unwrap() {
+		return dataStore.unwrap();
+	}
+
+
+	@Override
+	public Optional<DataStoreStatistics> getStatistics() {
+
+		List<DataStoreStatistics.OperationLatency> operations = new ArrayList<>();
+
+		for (Operation operation : Operation.values()) {
+			LatencyHistogram histogram = histograms[operation.ordinal()];
+			long count = histogram.getCount();
+			if (count > 0) {
+				operations.add(new DataStoreStatistics.OperationLatency(operation.toString(),
+						count,
+						micros(histogram.getPercentile(50)),
+						micros(histogram.getPercentile(95)),
+						micros(histogram.getPercentile(99)),
+						micros(histogram.getMax())));
+			}
+		}
+
+		// handled failures and counters of a background writer are kept by the datastore itself
+		Optional<DataStoreStatistics> storeStatistics = dataStore.getStatistics();
+		long storeErrors = storeStatistics.map(DataStoreStatistics::getErrors).orElse(0L);
+		DataStoreStatistics.WriteQueueStatistics writeQueue = storeStatistics
+				.flatMap(DataStoreStatistics::getWriteQueue)
+				.orElse(null);
+
+		return Optional.of(new DataStoreStatistics(dataStore.toString(), operations,
+				rowsRead.sum(), rowsWritten.sum(), errors.sum() + storeErrors, 0, 0, writeQueue));
+	}
+
+
+	/**
+	 * Override toString method to return the instrumented datastore name
+	 *
+	 * @return the name of the instrumented datastore
+	 */
+	@Override
+	public String toString() {
+		return dataStore.toString();
+	}
+
+
+	/**
+	 * Run an operation, recording its latency, and counting it as an error if it throws
+	 *
+	 * @param operation the instrumented operation
+	 * @param action the call to the datastore
+	 * @param <T> the result type of the operation
+	 * @return the result of the operation
+	 */
+	private <T> T time(final Operation operation, final Supplier<T> action) {
+		final long start = System.nanoTime();
+		try {
+			return action.get();
+		}
+		catch (RuntimeException e) {
+			errors.increment();
+			throw e;
+		}
+		finally {
+			histograms[operation.ordinal()].record(System.nanoTime() - start);
+		}
+	}
+
+
+	private static long micros(final long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram. Each power of two
+ * is split into 32 linear sub-buckets, so a recorded value is reported within about 3% of its true value,
+ * at a fixed cost of one array increment per recording.
+ */
+final class LatencyHistogram {
+
+	// number of linear sub-buckets per power of two, as a power of two
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	// values are clamped to about 68 seconds
+	private static final int MAX_EXPONENT = 36;
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(bucketIndex(MAX_VALUE) + 1);
+	private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+
+	/**
+	 * Record a latency
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	void record(final long nanos) {
+		long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+		counts.incrementAndGet(bucketIndex(value));
+		max.accumulate(value);
+	}
+
+
+	/**
+	 * Get the number of recorded latencies
+	 *
+	 * @return the count of recordings
+	 */
+	long getCount() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+
+	/**
+	 * Get the largest recorded latency
+	 *
+	 * @return the maximum latency in nanoseconds
+	 */
+	long getMax() {
+		return max.get();
+	}
+
+
+	/**
+	 * Get the latency at or below which a percentage of recorded latencies fall. The upper bound
+	 * of the bucket holding the percentile is returned, so the result never understates a latency.
+	 *
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the latency in nanoseconds, or zero if nothing has been recorded
+	 */
+	long getPercentile(final double percentile) {
+
+		// copy counts, so the total and the walk below see the same values
+		final long[] snapshot = new long[counts.length()];
+		long total = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		final long target = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100.0) / 100.0));
+
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return Math.min(bucketUpperBound(i), getMax());
+			}
+		}
+
+		return getMax();
+	}
+
+
+	private static int bucketIndex(final long value) {
+
+		// small values each have their own bucket
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+
+	private static long bucketUpperBound(final int index) {
+
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+
+		int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		int subBucket = index % SUB_BUCKET_COUNT;
+		int shift = exponent - SUB_BUCKET_BITS;
+
+		return (((long) (SUB_BUCKET_COUNT + subBucket) + 1) << shift) - 1;
+	}
+
+}
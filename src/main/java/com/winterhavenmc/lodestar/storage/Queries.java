@@ -20,6 +20,8 @@ package com.winterhavenmc.lodestar.storage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 
@@ -30,7 +32,8 @@ final class Queries {
 
 	private static final String propFileName = "queries.properties";
 
-	private static Properties properties;
+	// loaded query files, keyed by file name
+	private static final Map<String, Properties> queryFiles = new HashMap<>();
 
 
 	/**
@@ -40,31 +43,54 @@ final class Queries {
 		throw new AssertionError();
 	}
 
-	private static Properties getQueries() throws SQLException {
+	private static synchronized Properties getQueries(final String fileName) throws SQLException {
+
+		// one instance per file
+		Properties properties = queryFiles.get(fileName);
 
-		// singleton
 		if (properties == null) {
 			properties = new Properties();
-			try {
-
-				InputStream inputStream = Queries.class
-						.getResourceAsStream("/" + propFileName);
+			try (InputStream inputStream = Queries.class.getResourceAsStream("/" + fileName)) {
 
 				if (inputStream == null) {
-					throw new SQLException("Unable to load property file: " + propFileName);
+					throw new SQLException("Unable to load property file: " + fileName);
 				}
 				properties.load(inputStream);
 			}
 			catch (IOException e) {
-				throw new SQLException("Unable to load property file: " + propFileName);
+				throw new SQLException("Unable to load property file: " + fileName);
 			}
+			queryFiles.put(fileName, properties);
 		}
 
 		return properties;
 	}
 
+	/**
+	 * Load queries from properties file, if not already loaded
+	 *
+	 * @throws SQLException if the properties file could not be loaded
+	 */
+	static void load() throws SQLException {
+		getQueries(propFileName);
+	}
+
+
 	static String getQuery(final String query) throws SQLException {
-		return getQueries().getProperty(query);
+		return getQueries(propFileName).getProperty(query);
+	}
+
+
+	/**
+	 * Get a query from a named query file
+	 *
+	 * @param fileName the name of the query properties file resource
+	 * @param query the name of the query
+	 * @return the query, or null if the file has no query with that name
+	 * @throws SQLException if the query file could not be loaded
+	 */
+	static String getQuery(final String fileName, final String query) throws SQLException {
+		return getQueries(fileName).getProperty(query);
 	}
 
 }
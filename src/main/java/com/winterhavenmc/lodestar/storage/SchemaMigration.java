@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Ordered, versioned schema migrations for the SQLite datastore. Each constant upgrades the
+ * schema from the previous version to its own version, which is its ordinal plus one. Steps
+ * run synchronously, each in a single transaction that also records the new version in the
+ * database user_version, so an interrupted upgrade leaves the database at the last completed
+ * step and resumes from there on the next start.
+ */
+enum SchemaMigration {
+
+	V1("store world uid with each destination") {
+		@Override
+		int apply(final JavaPlugin plugin, final Connection connection) throws SQLException {
+
+			if (!destinationTableExists(connection)) {
+				return 0;
+			}
+
+			int count = 0;
+			int unknown = 0;
+
+			try (Statement statement = connection.createStatement()) {
+
+				statement.executeUpdate(Queries.getQuery("DropMigrationTable"));
+				statement.executeUpdate(Queries.getQuery("CreateMigrationTableV1"));
+
+				try (ResultSet rs = statement.executeQuery(Queries.getQuery("SelectAllRecords"));
+				     PreparedStatement insertStatement = connection.prepareStatement(Queries.getQuery("InsertMigrationRecord"))) {
+
+					while (rs.next()) {
+
+						String worldName = rs.getString("worldname");
+
+						// v0 records store only the world name; records are kept even if the world uid is unknown,
+						// with a nil uid, so that no destination is lost
+						UUID worldUid = worldUid(plugin, worldName);
+						if (worldUid == null) {
+							plugin.getLogger().warning("Stored destination has unknown world: " + worldName);
+							worldUid = NIL_UID;
+							unknown++;
+						}
+
+						insertStatement.setString(1, rs.getString("key"));
+						insertStatement.setString(2, rs.getString("displayname"));
+						insertStatement.setString(3, worldName);
+						insertStatement.setLong(4, worldUid.getMostSignificantBits());
+						insertStatement.setLong(5, worldUid.getLeastSignificantBits());
+						insertStatement.setDouble(6, rs.getDouble("x"));
+						insertStatement.setDouble(7, rs.getDouble("y"));
+						insertStatement.setDouble(8, rs.getDouble("z"));
+						insertStatement.setFloat(9, rs.getFloat("yaw"));
+						insertStatement.setFloat(10, rs.getFloat("pitch"));
+						insertStatement.addBatch();
+
+						if (++count % BATCH_SIZE == 0) {
+							insertStatement.executeBatch();
+						}
+					}
+					insertStatement.executeBatch();
+				}
+
+				statement.executeUpdate(Queries.getQuery("DropDestinationTable"));
+				statement.executeUpdate(Queries.getQuery("RenameMigrationTable"));
+			}
+
+			if (unknown > 0) {
+				plugin.getLogger().warning(unknown + " destination records were migrated without a world uid,"
+						+ " because their world could not be found.");
+			}
+
+			return count;
+		}
+	},
+
+	V2("case-insensitive destination key index") {
+		@Override
+		int apply(final JavaPlugin plugin, final Connection connection) throws SQLException {
+
+			if (!destinationTableExists(connection)) {
+				return 0;
+			}
+
+			int count;
+
+			// of records whose keys differ only by case, only the most recently written is copied
+			int dropped = logCaseDuplicates(plugin, connection);
+
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate(Queries.getQuery("DropMigrationTable"));
+				statement.executeUpdate(Queries.getQuery("CreateMigrationTableV2"));
+				count = statement.executeUpdate(Queries.getQuery("CopyToMigrationTable"));
+				statement.executeUpdate(Queries.getQuery("DropDestinationTable"));
+				statement.executeUpdate(Queries.getQuery("RenameMigrationTable"));
+			}
+
+			if (dropped > 0) {
+				plugin.getLogger().warning(dropped + " destination records were dropped, because their keys"
+						+ " differ only by case from a more recently written record.");
+			}
+
+			return count;
+		}
+	},
+
+	V3("player cooldown table") {
+		@Override
+		int apply(final JavaPlugin plugin, final Connection connection) throws SQLException {
+			createCooldownTable(connection);
+			return 0;
+		}
+	};
+
+	// number of inserts sent to the database at a time
+	private static final int BATCH_SIZE = 500;
+
+	// world uid stored for migrated records whose world could not be found
+	private static final UUID NIL_UID = new UUID(0, 0);
+
+	// description of the schema change, for log messages
+	private final String description;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param description description of the schema change
+	 */
+	SchemaMigration(final String description) {
+		this.description = description;
+	}
+
+
+	/**
+	 * Apply this migration step. Called inside a transaction, which is committed by the caller.
+	 *
+	 * @param plugin reference to main class
+	 * @param connection the database connection
+	 * @return count of records migrated
+	 * @throws SQLException if the step fails; the transaction is then rolled back
+	 */
+	abstract int apply(final JavaPlugin plugin, final Connection connection) throws SQLException;
+
+
+	/**
+	 * Get the schema version this step upgrades to
+	 *
+	 * @return the schema version
+	 */
+	int getVersion() {
+		return ordinal() + 1;
+	}
+
+
+	/**
+	 * Get the current schema version
+	 *
+	 * @return the highest schema version
+	 */
+	static int latestVersion() {
+		return values().length;
+	}
+
+
+	/**
+	 * Bring the database schema up to the current version, applying each pending step in order
+	 *
+	 * @param plugin reference to main class
+	 * @param connection the database connection
+	 * @return the schema version of the database after migration
+	 * @throws SQLException if a migration step failed
+	 */
+	static int migrate(final JavaPlugin plugin, final Connection connection) throws SQLException {
+
+		int version = getUserVersion(connection);
+
+		if (version > latestVersion()) {
+			plugin.getLogger().warning("Datastore schema v" + version
+					+ " is newer than this plugin version supports (v" + latestVersion() + ").");
+			return version;
+		}
+
+		// new database needs no migration; the current table is created at the current version
+		if (version == 0 && !destinationTableExists(connection)) {
+			runInTransaction(connection, latestVersion(), () -> {
+				try (Statement statement = connection.createStatement()) {
+					statement.executeUpdate(Queries.getQuery("CreateDestinationTable"));
+				}
+				createCooldownTable(connection);
+				return 0;
+			});
+			return latestVersion();
+		}
+
+		for (SchemaMigration step : values()) {
+
+			if (step.getVersion() <= version) {
+				continue;
+			}
+
+			final long startTime = System.nanoTime();
+
+			int count = runInTransaction(connection, step.getVersion(), () -> step.apply(plugin, connection));
+
+			plugin.getLogger().info("Datastore schema migrated to v" + step.getVersion()
+					+ " (" + step.description + "): " + count + " destination records in "
+					+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+
+			version = step.getVersion();
+		}
+
+		return version;
+	}
+
+
+	/**
+	 * Run a unit of work and set the schema version in a single transaction
+	 *
+	 * @param connection the database connection
+	 * @param version the schema version to record if the work succeeds
+	 * @param work the work to run
+	 * @return the record count returned by the work
+	 * @throws SQLException if the work failed and was rolled back
+	 */
+	private static int runInTransaction(final Connection connection, final int version, final Work work) throws SQLException {
+
+		connection.setAutoCommit(false);
+		try {
+			int count = work.run();
+
+			// update schema version in database, in same transaction as the work
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("PRAGMA user_version = " + version);
+			}
+
+			connection.commit();
+			return count;
+		}
+		catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		}
+		finally {
+			connection.setAutoCommit(true);
+		}
+	}
+
+
+	private static int getUserVersion(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+		     ResultSet rs = statement.executeQuery(Queries.getQuery("GetUserVersion"))) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+
+	/**
+	 * Log each destination record that the v2 migration drops, because its key differs only by case
+	 * from a more recently written record
+	 *
+	 * @param plugin reference to main class
+	 * @param connection the database connection
+	 * @return count of records that will be dropped
+	 * @throws SQLException if the records could not be read
+	 */
+	private static int logCaseDuplicates(final JavaPlugin plugin, final Connection connection) throws SQLException {
+
+		int dropped = 0;
+
+		try (Statement statement = connection.createStatement();
+		     ResultSet duplicates = statement.executeQuery(Queries.getQuery("SelectCaseDuplicateKeys"));
+		     PreparedStatement variantStatement = connection.prepareStatement(Queries.getQuery("SelectCaseVariants"))) {
+
+			while (duplicates.next()) {
+
+				List<String> variants = new ArrayList<>();
+				variantStatement.setString(1, duplicates.getString("key"));
+				try (ResultSet rs = variantStatement.executeQuery()) {
+					while (rs.next()) {
+						variants.add(rs.getString("key"));
+					}
+				}
+
+				// variants are in write order; the last is kept
+				String kept = variants.get(variants.size() - 1);
+				for (String key : variants.subList(0, variants.size() - 1)) {
+					plugin.getLogger().warning("Destination " + key + " was dropped, because its key differs"
+							+ " only by case from " + kept + ".");
+					dropped++;
+				}
+			}
+		}
+
+		return dropped;
+	}
+
+
+	private static boolean destinationTableExists(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+		     ResultSet rs = statement.executeQuery(Queries.getQuery("SelectDestinationTable"))) {
+			return rs.next();
+		}
+	}
+
+
+	private static void createCooldownTable(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate(Queries.getQuery("CreateCooldownTable"));
+			statement.executeUpdate(Queries.getQuery("CreateCooldownExpiryIndex"));
+		}
+	}
+
+
+	/**
+	 * Get the uid of a world by name, from the loaded world, or from the uid.dat file
+	 * in the world folder if the world is not loaded
+	 *
+	 * @param plugin reference to main class
+	 * @param worldName the world name
+	 * @return the world uid, or null if the world could not be found
+	 */
+	private static UUID worldUid(final JavaPlugin plugin, final String worldName) {
+
+		if (worldName == null) {
+			return null;
+		}
+
+		World world = Destination.getLoadedWorld(worldName);
+		if (world != null) {
+			return world.getUID();
+		}
+
+		try {
+			File uidFile = new File(new File(plugin.getServer().getWorldContainer(), worldName), "uid.dat");
+			try (DataInputStream in = new DataInputStream(new FileInputStream(uidFile))) {
+				return new UUID(in.readLong(), in.readLong());
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			// world folder could not be read; the record is kept with an unknown world uid
+			return null;
+		}
+	}
+
+
+	@FunctionalInterface
+	private interface Work {
+		int run() throws SQLException;
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+
+
+/**
+ * SQL dialects supported by the networked SQL datastore. Each dialect names the query file
+ * used for its SQL, and sets the driver properties that enable client side prepared statement caching.
+ */
+enum SqlDialect {
+
+	MYSQL("MySQL", "queries-mysql.properties") {
+		@Override
+		void configureStatementCache(final HikariConfig config, final int cacheSize) {
+			config.addDataSourceProperty("cachePrepStmts", "true");
+			config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(cacheSize));
+			config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+			config.addDataSourceProperty("useServerPrepStmts", "true");
+		}
+	},
+
+	MARIADB("MariaDB", "queries-mysql.properties") {
+		@Override
+		void configureStatementCache(final HikariConfig config, final int cacheSize) {
+			config.addDataSourceProperty("cachePrepStmts", "true");
+			config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(cacheSize));
+			config.addDataSourceProperty("useServerPrepStmts", "true");
+		}
+	},
+
+	POSTGRESQL("PostgreSQL", "queries-postgresql.properties") {
+		@Override
+		void configureStatementCache(final HikariConfig config, final int cacheSize) {
+			config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(cacheSize));
+			config.addDataSourceProperty("prepareThreshold", "1");
+		}
+	};
+
+	// dialect display name
+	private final String displayName;
+
+	// name of query properties file
+	private final String queryFileName;
+
+	// default dialect
+	private static final SqlDialect defaultDialect = SqlDialect.MYSQL;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param displayName the formatted display name of the dialect
+	 * @param queryFileName the name of the query properties file for the dialect
+	 */
+	SqlDialect(final String displayName, final String queryFileName) {
+		this.displayName = displayName;
+		this.queryFileName = queryFileName;
+	}
+
+
+	/**
+	 * Set driver properties that enable prepared statement caching
+	 *
+	 * @param config the pool configuration
+	 * @param cacheSize the number of statements to cache per connection
+	 */
+	abstract void configureStatementCache(final HikariConfig config, final int cacheSize);
+
+
+	/**
+	 * Get name of query properties file for this dialect
+	 *
+	 * @return the query file name
+	 */
+	String getQueryFileName() {
+		return queryFileName;
+	}
+
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+
+
+	/**
+	 * Match a dialect by name; returns default dialect if no match
+	 *
+	 * @param displayName the string to match
+	 * @return the matched dialect, or the default dialect if no match
+	 */
+	static SqlDialect match(final String displayName) {
+		for (SqlDialect dialect : SqlDialect.values()) {
+			if (dialect.toString().equalsIgnoreCase(displayName)) {
+				return dialect;
+			}
+		}
+		// no match; return default dialect
+		return defaultDialect;
+	}
+
+}
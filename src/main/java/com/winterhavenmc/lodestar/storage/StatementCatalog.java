@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Catalog of reusable prepared statements for a single database connection. Each named query
+ * is prepared on first use and the statement is reused for every later call, until the catalog
+ * is closed. A catalog is not thread safe; callers must confine it to one thread or synchronize
+ * on it.
+ */
+final class StatementCatalog implements AutoCloseable {
+
+	// the connection statements are prepared on
+	private final Connection connection;
+
+	// map of prepared statements, keyed by query name
+	private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param connection the connection statements are prepared on
+	 */
+	StatementCatalog(final Connection connection) {
+		this.connection = connection;
+	}
+
+
+	/**
+	 * Get the prepared statement for a named query, preparing it if necessary
+	 *
+	 * @param queryName the name of the query in the queries properties file
+	 * @return the prepared statement, with any previous parameters cleared
+	 * @throws SQLException if the query does not exist or could not be prepared
+	 */
+	PreparedStatement get(final String queryName) throws SQLException {
+
+		PreparedStatement preparedStatement = statements.get(queryName);
+
+		if (preparedStatement == null || preparedStatement.isClosed()) {
+			String query = Queries.getQuery(queryName);
+			if (query == null) {
+				throw new SQLException("No query named " + queryName + " is defined.");
+			}
+			preparedStatement = connection.prepareStatement(query);
+			statements.put(queryName, preparedStatement);
+		}
+		else {
+			preparedStatement.clearParameters();
+		}
+
+		return preparedStatement;
+	}
+
+
+	/**
+	 * Get number of statements currently prepared
+	 *
+	 * @return the count of prepared statements
+	 */
+	int size() {
+		return statements.size();
+	}
+
+
+	/**
+	 * Close all prepared statements in the catalog
+	 */
+	@Override
+	public void close() {
+		for (PreparedStatement preparedStatement : statements.values()) {
+			try {
+				preparedStatement.close();
+			}
+			catch (SQLException e) {
+				// statement is discarded either way
+			}
+		}
+		statements.clear();
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+
+/**
+ * Counts of a completed destination import or export
+ */
+public final class TransferResult {
+
+	private final String fileName;
+	private final int count;
+	private final int skipped;
+	private final int conflicts;
+	private final long elapsedMillis;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param fileName the name of the file transferred
+	 * @param count the number of destinations transferred
+	 * @param skipped the number of destinations skipped
+	 * @param elapsedMillis the duration of the transfer in milliseconds
+	 */
+	TransferResult(final String fileName, final int count, final int skipped, final long elapsedMillis) {
+		this(fileName, count, skipped, 0, elapsedMillis);
+	}
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param fileName the name of the file transferred
+	 * @param count the number of destinations transferred
+	 * @param skipped the number of destinations skipped
+	 * @param conflicts the number of destinations not transferred because their name is already in use
+	 * @param elapsedMillis the duration of the transfer in milliseconds
+	 */
+	TransferResult(final String fileName, final int count, final int skipped, final int conflicts,
+	               final long elapsedMillis) {
+		this.fileName = fileName;
+		this.count = count;
+		this.skipped = skipped;
+		this.conflicts = conflicts;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+
+	/**
+	 * Get the name of the file transferred
+	 *
+	 * @return the file name
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+
+	/**
+	 * Get the number of destinations transferred
+	 *
+	 * @return the count of destinations
+	 */
+	public int getCount() {
+		return count;
+	}
+
+
+	/**
+	 * Get the number of destinations skipped, because their world is not loaded
+	 * or their record could not be read
+	 *
+	 * @return the count of skipped destinations
+	 */
+	public int getSkipped() {
+		return skipped;
+	}
+
+
+	/**
+	 * Get the number of destinations not transferred because a destination with the same key
+	 * already exists, or appears earlier in the same transfer
+	 *
+	 * @return the count of conflicting destinations
+	 */
+	public int getConflicts() {
+		return conflicts;
+	}
+
+
+	/**
+	 * Get the duration of the transfer
+	 *
+	 * @return the elapsed time in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import com.winterhavenmc.lodestar.PluginMain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Export and import of destination records, and import of the warps of other plugins.
+ * Transfers run on the storage thread of the {@link AsyncDataStore}, against the datastore in use,
+ * and the returned futures are completed on the main server thread.
+ */
+public final class TransferService {
+
+	// reference to main class
+	private final PluginMain plugin;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 */
+	public TransferService(final PluginMain plugin) {
+		this.plugin = plugin;
+	}
+
+
+	/**
+	 * Write all destination records to a file in the transfer folder. Files named with a .csv
+	 * extension are written as comma separated values, all others in binary format.
+	 *
+	 * @param fileName the name of the file in the transfer folder
+	 * @return future completed on the main thread with the result of the export,
+	 * or completed exceptionally if the file could not be written
+	 */
+	public CompletableFuture<TransferResult> exportDestinations(final String fileName) {
+		return plugin.asyncDataStore.submit(() -> {
+			try {
+				return new DestinationTransfer(plugin, plugin.dataStore).exportTo(fileName);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+
+	/**
+	 * Insert all destination records in a file in the transfer folder into the datastore.
+	 * Records whose world is not loaded are skipped.
+	 *
+	 * @param fileName the name of the file in the transfer folder
+	 * @return future completed on the main thread with the result of the import,
+	 * or completed exceptionally if the file could not be read
+	 */
+	public CompletableFuture<TransferResult> importDestinations(final String fileName) {
+		return plugin.asyncDataStore.submit(() -> {
+			try {
+				return new DestinationTransfer(plugin, plugin.dataStore).importFrom(fileName);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+
+	/**
+	 * Import the warps of another plugin as destinations. Warps whose name is already in use
+	 * are counted as conflicts, and do not replace existing destinations.
+	 *
+	 * @param formatName the name of the warp file format
+	 * @param path the warp file, or folder of warp files, relative to the server plugins folder
+	 * @param dryRun if true, count the warps that would be imported and their conflicts without writing
+	 * @return future completed on the main thread with the result of the import,
+	 * or completed exceptionally if the warp files could not be read
+	 */
+	public CompletableFuture<TransferResult> importWarps(final String formatName, final String path, final boolean dryRun) {
+		return plugin.asyncDataStore.submit(() -> {
+			try {
+				return new WarpImporter(plugin, plugin.dataStore, WarpFormat.match(formatName), dryRun).importFrom(path);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+
+	/**
+	 * Get the names of the supported warp file formats
+	 *
+	 * @return list of warp format names
+	 */
+	public List<String> getWarpFormatNames() {
+		List<String> returnList = new ArrayList<>();
+		for (WarpFormat format : WarpFormat.values()) {
+			returnList.add(format.toString());
+		}
+		return returnList;
+	}
+
+
+	/**
+	 * Get the usual location of the warp files of a format
+	 *
+	 * @param formatName the name of the warp file format
+	 * @return path relative to the server plugins folder, or null if the format is not supported
+	 */
+	public String getDefaultWarpPath(final String formatName) {
+		WarpFormat format = WarpFormat.match(formatName);
+		return (format == null) ? null : format.getDefaultPath();
+	}
+
+
+	/**
+	 * Check that a file name is valid for export and import; names may not contain path separators
+	 *
+	 * @param fileName the file name to check
+	 * @return true if the file name is valid, false if not
+	 */
+	public boolean isValidTransferFileName(final String fileName) {
+		return DestinationTransfer.isValidFileName(fileName);
+	}
+
+
+	/**
+	 * Get the names of the files in the transfer folder
+	 *
+	 * @return sorted list of file names
+	 */
+	public List<String> getTransferFileNames() {
+		return DestinationTransfer.listFileNames(plugin);
+	}
+
+}
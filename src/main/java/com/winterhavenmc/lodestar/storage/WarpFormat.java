@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Adapters for the warp files of other plugins. The importer streams each file and offers every
+ * YAML mapping to the adapter once the mapping is complete; the adapter returns a warp if the
+ * mapping describes one, or null if it does not.
+ */
+enum WarpFormat {
+
+	ESSENTIALS("Essentials", "Essentials/warps") {
+		@Override
+		WarpImporter.Warp read(final String mappingKey, final Map<String, String> values, final String fileBaseName) {
+
+			// each warp is the top level mapping of its own file
+			if (mappingKey != null) {
+				return null;
+			}
+
+			// world is stored as a uid in current versions, and as a name in old versions
+			String world = values.get("world");
+			UUID worldUid = parseUid(world);
+			String worldName = (worldUid == null) ? world : values.get("world-name");
+
+			return readLocation(values.getOrDefault("name", fileBaseName), worldName, worldUid, values);
+		}
+	},
+
+	YAML("Yaml", "warps.yml") {
+		@Override
+		WarpImporter.Warp read(final String mappingKey, final Map<String, String> values, final String fileBaseName) {
+
+			// warp is named by its name field, or by the key of its mapping
+			String name = values.getOrDefault("name", mappingKey);
+			String world = values.get("world");
+			UUID worldUid = parseUid(world);
+
+			return readLocation(name, (worldUid == null) ? world : null, worldUid, values);
+		}
+	};
+
+
+	private final String displayName;
+	private final String defaultPath;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param displayName the display name of the format
+	 * @param defaultPath the usual location of the warp files, relative to the server plugins folder
+	 */
+	WarpFormat(final String displayName, final String defaultPath) {
+		this.displayName = displayName;
+		this.defaultPath = defaultPath;
+	}
+
+
+	/**
+	 * Read a warp from a completed YAML mapping
+	 *
+	 * @param mappingKey the key of the mapping in its parent mapping, or null for a top level mapping
+	 * @param values the scalar values of the mapping
+	 * @param fileBaseName the name of the file being read, without extension
+	 * @return the warp, or null if the mapping does not describe a warp
+	 * @throws IllegalArgumentException if the mapping describes a warp with invalid coordinates
+	 */
+	abstract WarpImporter.Warp read(final String mappingKey, final Map<String, String> values, final String fileBaseName);
+
+
+	/**
+	 * Get the usual location of the warp files of this format
+	 *
+	 * @return path relative to the server plugins folder
+	 */
+	String getDefaultPath() {
+		return defaultPath;
+	}
+
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+
+
+	/**
+	 * Match a warp format by name, ignoring case
+	 *
+	 * @param name the name of the format
+	 * @return the warp format, or null if no format has the name
+	 */
+	static WarpFormat match(final String name) {
+		for (WarpFormat format : WarpFormat.values()) {
+			if (format.toString().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Read the location fields shared by the supported formats
+	 *
+	 * @return the warp, or null if the mapping has no name, world or coordinates
+	 */
+	private static WarpImporter.Warp readLocation(final String name, final String worldName, final UUID worldUid,
+	                                              final Map<String, String> values) {
+
+		if (name == null || (worldName == null && worldUid == null)
+				|| !values.containsKey("x") || !values.containsKey("y") || !values.containsKey("z")) {
+			return null;
+		}
+
+		return new WarpImporter.Warp(name,
+				worldName,
+				worldUid,
+				Double.parseDouble(values.get("x")),
+				Double.parseDouble(values.get("y")),
+				Double.parseDouble(values.get("z")),
+				Float.parseFloat(values.getOrDefault("yaw", "0")),
+				Float.parseFloat(values.getOrDefault("pitch", "0")));
+	}
+
+
+	private static UUID parseUid(final String value) {
+		if (value == null || value.length() != 36) {
+			return null;
+		}
+		try {
+			return UUID.fromString(value);
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Imports the warps of other plugins as destinations. Warp files are read as a stream of YAML
+ * events, so only the mapping being read is held in memory, and each completed mapping is offered
+ * to the {@link WarpFormat} adapter. Warps are inserted in batches; warps whose name is already in use
+ * are reported as conflicts and never replace an existing destination. In a dry run, warps are
+ * checked in the same way, but nothing is written.
+ */
+final class WarpImporter {
+
+	// number of records inserted at a time
+	private static final int BATCH_SIZE = 500;
+
+	private final JavaPlugin plugin;
+	private final DataStore dataStore;
+	private final WarpFormat format;
+	private final boolean dryRun;
+
+	private final List<Destination> batch = new ArrayList<>(BATCH_SIZE);
+
+	// keys read so far, to find warps repeated in the source
+	private final Set<String> seenKeys = new HashSet<>();
+
+	private int count;
+	private int skipped;
+	private int conflicts;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to main class
+	 * @param dataStore the datastore to import into
+	 * @param format the format of the warp files
+	 * @param dryRun if true, report what would be imported without writing
+	 */
+	WarpImporter(final JavaPlugin plugin, final DataStore dataStore, final WarpFormat format, final boolean dryRun) {
+		this.plugin = plugin;
+		this.dataStore = dataStore;
+		this.format = format;
+		this.dryRun = dryRun;
+	}
+
+
+	/**
+	 * Import the warps in a file, or in all YAML files in a folder
+	 *
+	 * @param path the file or folder, relative to the server plugins folder
+	 * @return the result of the import; in a dry run, the count of warps that would be imported
+	 * @throws IOException if the path is outside the plugins folder or could not be read
+	 */
+	TransferResult importFrom(final String path) throws IOException {
+
+		final long startTime = System.nanoTime();
+
+		final File source = resolve(plugin, path);
+
+		final List<File> files = new ArrayList<>();
+		if (source.isDirectory()) {
+			File[] listing = source.listFiles((dir, name) -> name.toLowerCase(Locale.ROOT).endsWith(".yml"));
+			if (listing != null) {
+				files.addAll(Arrays.asList(listing));
+				files.sort(Comparator.comparing(File::getName));
+			}
+		}
+		else if (source.isFile()) {
+			files.add(source);
+		}
+		else {
+			throw new FileNotFoundException("Warp file " + path + " does not exist.");
+		}
+
+		for (File file : files) {
+			try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+				parse(reader, baseName(file));
+			}
+			catch (YAMLException e) {
+				plugin.getLogger().warning("Skipping remainder of warp file " + file.getName() + ": " + e.getLocalizedMessage());
+				skipped++;
+			}
+		}
+
+		flush();
+
+		final long elapsedNanos = System.nanoTime() - startTime;
+		final long rate = elapsedNanos > 0 ? count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : count;
+
+		plugin.getLogger().info((dryRun ? "Dry run: " + count + " warps would be imported" : "Imported " + count + " warps")
+				+ " from " + format + " warp file " + path + " in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+				+ " ms (" + rate + " records/sec); " + conflicts + " conflicts, " + skipped + " skipped.");
+
+		return new TransferResult(path, count, skipped, conflicts, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+	}
+
+
+	/**
+	 * Walk the events of a YAML stream, offering each completed mapping to the format adapter.
+	 * Sequences are not used by any supported format, and are passed over with their contents.
+	 *
+	 * @param reader the file contents
+	 * @param fileBaseName the name of the file, without extension
+	 */
+	private void parse(final Reader reader, final String fileBaseName) {
+
+		final Deque<Mapping> stack = new ArrayDeque<>();
+		int sequenceDepth = 0;
+
+		for (Event event : new Yaml().parse(reader)) {
+
+			if (sequenceDepth > 0) {
+				if (event instanceof SequenceStartEvent) {
+					sequenceDepth++;
+				}
+				else if (event instanceof SequenceEndEvent) {
+					sequenceDepth--;
+				}
+				continue;
+			}
+
+			if (event instanceof MappingStartEvent) {
+				Mapping parent = stack.peek();
+				stack.push(new Mapping(parent == null ? null : parent.takeKey()));
+			}
+			else if (event instanceof MappingEndEvent) {
+				Mapping mapping = stack.pop();
+				offer(mapping, fileBaseName);
+			}
+			else if (event instanceof SequenceStartEvent) {
+				Mapping parent = stack.peek();
+				if (parent != null) {
+					parent.takeKey();
+				}
+				sequenceDepth = 1;
+			}
+			else if (event instanceof ScalarEvent) {
+				Mapping mapping = stack.peek();
+				if (mapping != null) {
+					mapping.scalar(((ScalarEvent) event).getValue());
+				}
+			}
+		}
+	}
+
+
+	private void offer(final Mapping mapping, final String fileBaseName) {
+
+		final Warp warp;
+
+		try {
+			warp = format.read(mapping.key, mapping.values, fileBaseName);
+		}
+		catch (IllegalArgumentException e) {
+			plugin.getLogger().warning("Skipping warp " + Objects.requireNonNullElse(mapping.key, fileBaseName)
+					+ ": " + e.getLocalizedMessage());
+			skipped++;
+			return;
+		}
+
+		if (warp != null) {
+			accept(warp);
+		}
+	}
+
+
+	private void accept(final Warp warp) {
+
+		// same key derivation as destinations set in game
+		String key = Destination.deriveKey(warp.name);
+
+		if (key.isBlank() || Destination.isReserved(key)) {
+			plugin.getLogger().warning("Skipping warp " + warp.name + ": name is reserved or blank.");
+			skipped++;
+			return;
+		}
+
+		// find world by uid, falling back to world name
+		World world = (warp.worldUid == null) ? null : Destination.getLoadedWorld(warp.worldUid);
+		if (world == null && warp.worldName != null) {
+			world = Destination.getLoadedWorld(warp.worldName);
+		}
+
+		if (world == null) {
+			plugin.getLogger().warning("Skipping warp " + warp.name + ": world "
+					+ Objects.requireNonNullElse(warp.worldName, warp.worldUid) + " is not loaded.");
+			skipped++;
+			return;
+		}
+
+		if (!seenKeys.add(Destination.foldKey(key)) || dataStore.selectRecord(key).isPresent()) {
+			plugin.getLogger().info("Warp " + warp.name + " conflicts with an existing destination"
+					+ (dryRun ? " and would not be imported." : " and was not imported."));
+			conflicts++;
+			return;
+		}
+
+		if (dryRun) {
+			count++;
+			return;
+		}
+
+		batch.add(new Destination(key, warp.name, world.getName(), world.getUID(),
+				warp.x, warp.y, warp.z, warp.yaw, warp.pitch));
+
+		if (batch.size() >= BATCH_SIZE) {
+			flush();
+		}
+	}
+
+
+	private void flush() {
+		if (!batch.isEmpty()) {
+			count += dataStore.insertRecords(batch);
+			batch.clear();
+		}
+	}
+
+
+	/**
+	 * Resolve a path relative to the server plugins folder, refusing paths that leave it
+	 *
+	 * @param plugin reference to main class
+	 * @param path the path to resolve
+	 * @return the file
+	 * @throws IOException if the path leaves the plugins folder
+	 */
+	private static File resolve(final JavaPlugin plugin, final String path) throws IOException {
+
+		final File pluginsFolder = plugin.getDataFolder().getParentFile().getCanonicalFile();
+		final File file = new File(pluginsFolder, path).getCanonicalFile();
+
+		if (!file.toPath().startsWith(pluginsFolder.toPath())) {
+			throw new IOException("Warp file " + path + " is outside the plugins folder.");
+		}
+
+		return file;
+	}
+
+
+	private static String baseName(final File file) {
+		String name = file.getName();
+		int index = name.lastIndexOf('.');
+		return (index > 0) ? name.substring(0, index) : name;
+	}
+
+
+	/**
+	 * A YAML mapping being read: its key in the parent mapping, and its scalar values
+	 */
+	private static final class Mapping {
+
+		private final String key;
+		private final Map<String, String> values = new HashMap<>();
+
+		// key of the value expected next, or null if a key is expected next
+		private String pendingKey;
+
+		private Mapping(final String key) {
+			this.key = key;
+		}
+
+		private void scalar(final String value) {
+			if (pendingKey == null) {
+				pendingKey = value;
+			}
+			else {
+				values.put(pendingKey, value);
+				pendingKey = null;
+			}
+		}
+
+		private String takeKey() {
+			String key = pendingKey;
+			pendingKey = null;
+			return key;
+		}
+	}
+
+
+	/**
+	 * A warp read by a format adapter, before its world is resolved
+	 */
+	static final class Warp {
+
+		private final String name;
+		private final String worldName;
+		private final UUID worldUid;
+		private final double x;
+		private final double y;
+		private final double z;
+		private final float yaw;
+		private final float pitch;
+
+		Warp(final String name, final String worldName, final UUID worldUid,
+		     final double x, final double y, final double z, final float yaw, final float pitch) {
+			this.name = name;
+			this.worldName = worldName;
+			this.worldUid = worldUid;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.yaw = yaw;
+			this.pitch = pitch;
+		}
+	}
+
+}
@@ -0,0 +1,541 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.storage;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Single writer thread for the SQLite datastore. Insert and delete operations are queued
+ * in order of submission and drained by one thread into batched statements, each batch
+ * committed in a single transaction. Because all writes pass through one FIFO queue, writes
+ * for the same key are applied in the order they were submitted. If a batch fails, its writes
+ * are retried one at a time, and only the writes that fail again are discarded.
+ */
+final class WriteQueue {
+
+	// maximum number of operations committed in one transaction
+	private static final int MAX_BATCH_SIZE = 1000;
+
+	// maximum time to wait for a flush to complete
+	private static final long FLUSH_TIMEOUT_SECONDS = 30;
+
+	private enum OperationType { INSERT, DELETE, TASK, BARRIER }
+
+	// reference to main class
+	private final JavaPlugin plugin;
+
+	// database connection used for all writes
+	private final Connection connection;
+
+	// queue of pending write operations
+	private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+
+	// the writer thread
+	private final Thread writerThread;
+
+	// cleared when the queue is closed; the writer thread exits once the queue is drained
+	private volatile boolean running = true;
+
+	// queue metrics
+	private final AtomicInteger peakQueueDepth = new AtomicInteger();
+	private final AtomicLong operationsWritten = new AtomicLong();
+	private final AtomicLong batchesCommitted = new AtomicLong();
+	private final AtomicLong writeErrors = new AtomicLong();
+
+	// writes discarded since the last barrier was released; confined to the writer thread
+	private int failuresSinceBarrier;
+
+
+	/**
+	 * Class constructor. Starts the writer thread.
+	 *
+	 * @param plugin reference to main class
+	 * @param connection the database connection used for writes
+	 */
+	WriteQueue(final JavaPlugin plugin, final Connection connection) {
+		this.plugin = plugin;
+		this.connection = connection;
+		this.writerThread = new Thread(this::drain, plugin.getName() + "-Writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+
+	/**
+	 * Queue a destination record to be inserted or replaced
+	 *
+	 * @param destination the destination to insert
+	 * @param worldName the current name of the destination world
+	 */
+	void insert(final Destination destination, final String worldName) {
+		enqueue(new Operation(OperationType.INSERT, destination.getKey(), destination, worldName, null, null));
+	}
+
+
+	/**
+	 * Queue a destination record to be deleted
+	 *
+	 * @param key the key of the destination to delete
+	 */
+	void delete(final String key) {
+		enqueue(new Operation(OperationType.DELETE, key, null, null, null, null));
+	}
+
+
+	/**
+	 * Queue a unit of work to be run on the writer thread, inside the transaction of its batch
+	 * and in submission order with queued inserts and deletes
+	 *
+	 * @param task the work to run
+	 */
+	void submit(final Task task) {
+		enqueue(new Operation(OperationType.TASK, null, null, null, null, task));
+	}
+
+
+	/**
+	 * Block until all operations queued before this call have been written
+	 *
+	 * @return true if every operation queued since the previous flush was committed, false if any was discarded
+	 */
+	boolean flush() {
+
+		// if writer thread is not running, there is nothing to wait for
+		if (!writerThread.isAlive() || Thread.currentThread() == writerThread) {
+			return true;
+		}
+
+		CompletableFuture<Void> barrier = new CompletableFuture<>();
+		enqueue(new Operation(OperationType.BARRIER, null, null, null, barrier, null));
+
+		try {
+			barrier.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			plugin.getLogger().warning("Pending datastore writes failed: " + e.getCause().getLocalizedMessage());
+		}
+		catch (TimeoutException e) {
+			plugin.getLogger().warning("Timed out waiting for pending datastore writes to complete.");
+		}
+		return false;
+	}
+
+
+	/**
+	 * Stop accepting writes, and wait for the writer thread to commit all queued operations
+	 */
+	void close() {
+		running = false;
+		try {
+			writerThread.join(TimeUnit.SECONDS.toMillis(FLUSH_TIMEOUT_SECONDS));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (plugin.getConfig().getBoolean("debug")) {
+			plugin.getLogger().info("Write queue closed: " + operationsWritten.get() + " writes in "
+					+ batchesCommitted.get() + " batches, peak queue depth " + peakQueueDepth.get()
+					+ ", " + writeErrors.get() + " errors.");
+		}
+	}
+
+
+	/**
+	 * Get number of operations waiting to be written
+	 *
+	 * @return the current queue depth
+	 */
+	int getQueueDepth() {
+		return queue.size();
+	}
+
+
+	/**
+	 * Get highest queue depth observed since the queue was created
+	 *
+	 * @return the peak queue depth
+	 */
+	int getPeakQueueDepth() {
+		return peakQueueDepth.get();
+	}
+
+
+	/**
+	 * Get number of insert and delete operations committed
+	 *
+	 * @return the count of committed operations
+	 */
+	long getOperationsWritten() {
+		return operationsWritten.get();
+	}
+
+
+	/**
+	 * Get number of batches committed
+	 *
+	 * @return the count of committed batches
+	 */
+	long getBatchesCommitted() {
+		return batchesCommitted.get();
+	}
+
+
+	/**
+	 * Get number of batches that failed and were rolled back
+	 *
+	 * @return the count of failed batches
+	 */
+	long getWriteErrors() {
+		return writeErrors.get();
+	}
+
+
+	private void enqueue(final Operation operation) {
+		if (!running && operation.type != OperationType.BARRIER) {
+			plugin.getLogger().warning("A write was submitted after the datastore was closed and will be discarded.");
+			return;
+		}
+		queue.add(operation);
+		peakQueueDepth.accumulateAndGet(queue.size(), Math::max);
+	}
+
+
+	/**
+	 * Writer thread loop. Drains queued operations into batches until the queue is closed and empty.
+	 */
+	private void drain() {
+
+		final List<Operation> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+		// statements are prepared once and confined to the writer thread
+		try (StatementCatalog statements = new StatementCatalog(connection)) {
+			while (running || !queue.isEmpty()) {
+				try {
+					Operation operation = queue.poll(250, TimeUnit.MILLISECONDS);
+					if (operation == null) {
+						continue;
+					}
+					batch.add(operation);
+					queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+					writeBatch(statements, batch);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (RuntimeException e) {
+					// keep the writer thread alive, so later writes are not lost
+					plugin.getLogger().warning("An unexpected error occurred in the SQLite datastore writer: "
+							+ e.getLocalizedMessage());
+					if (plugin.getConfig().getBoolean("debug")) {
+						e.printStackTrace();
+					}
+					for (Operation operation : batch) {
+						if (operation.type == OperationType.BARRIER) {
+							operation.barrier.completeExceptionally(e);
+						}
+					}
+				}
+				finally {
+					batch.clear();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Write a batch of operations in a single transaction. If the transaction fails, each operation
+	 * is retried in its own transaction, so that one bad write does not discard the rest of the batch.
+	 *
+	 * @param statements the writer thread statement catalog
+	 * @param batch the operations to write, in submission order
+	 */
+	private void writeBatch(final StatementCatalog statements, final List<Operation> batch) {
+
+		final long startTime = System.nanoTime();
+
+		try {
+			int count = writeTransaction(statements, batch);
+
+			operationsWritten.addAndGet(count);
+			batchesCommitted.incrementAndGet();
+
+			if (plugin.getConfig().getBoolean("debug") && count > 0) {
+				plugin.getLogger().info("Committed " + count + " datastore writes in "
+						+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms; "
+						+ queue.size() + " writes queued.");
+			}
+
+			// release any threads waiting for this batch
+			for (Operation operation : batch) {
+				if (operation.type == OperationType.BARRIER) {
+					completeBarrier(operation.barrier);
+				}
+			}
+		}
+		catch (SQLException | RuntimeException e) {
+
+			writeErrors.incrementAndGet();
+			rollback(statements);
+
+			// output simple error message
+			plugin.getLogger().warning("An error occurred while committing a batch of " + batch.size()
+					+ " writes to the SQLite datastore; retrying the writes one at a time.");
+			plugin.getLogger().warning(e.getLocalizedMessage());
+
+			// if debugging is enabled, output stack trace
+			if (plugin.getConfig().getBoolean("debug")) {
+				e.printStackTrace();
+			}
+
+			retryBatch(statements, batch);
+		}
+	}
+
+
+	/**
+	 * Write each operation of a failed batch in its own transaction, discarding the operations that fail
+	 *
+	 * @param statements the writer thread statement catalog
+	 * @param batch the operations to write, in submission order
+	 */
+	private void retryBatch(final StatementCatalog statements, final List<Operation> batch) {
+
+		int failed = 0;
+
+		for (Operation operation : batch) {
+
+			// barriers are released in order, after the operations queued before them
+			if (operation.type == OperationType.BARRIER) {
+				completeBarrier(operation.barrier);
+				continue;
+			}
+
+			try {
+				operationsWritten.addAndGet(writeTransaction(statements, List.of(operation)));
+				batchesCommitted.incrementAndGet();
+			}
+			catch (SQLException | RuntimeException e) {
+				rollback(statements);
+				failed++;
+				failuresSinceBarrier++;
+
+				if (plugin.getConfig().getBoolean("debug")) {
+					plugin.getLogger().warning("Discarded " + operation.type + " of '" + operation.key
+							+ "': " + e.getLocalizedMessage());
+				}
+			}
+		}
+
+		if (failed > 0) {
+			plugin.getLogger().warning(failed + " of " + batch.size()
+					+ " writes could not be committed to the SQLite datastore and were discarded.");
+		}
+	}
+
+
+	/**
+	 * Execute operations and commit them in a single transaction. Barriers are skipped.
+	 *
+	 * @param statements the writer thread statement catalog
+	 * @param operations the operations to write, in submission order
+	 * @return the count of operations written
+	 * @throws SQLException if an operation or the commit failed; the transaction is not rolled back
+	 */
+	private int writeTransaction(final StatementCatalog statements, final List<Operation> operations) throws SQLException {
+
+		final PreparedStatement insertStatement = statements.get("InsertDestination");
+		final PreparedStatement deleteStatement = statements.get("DeleteDestination");
+
+		int count = 0;
+
+		connection.setAutoCommit(false);
+
+		try {
+			OperationType pendingType = null;
+
+			for (Operation operation : operations) {
+
+				if (operation.type == OperationType.BARRIER) {
+					continue;
+				}
+
+				// tasks run after the statements queued before them
+				if (operation.type == OperationType.TASK) {
+					if (pendingType != null) {
+						executePending(pendingType, insertStatement, deleteStatement);
+						pendingType = null;
+					}
+					operation.task.run(statements);
+					count++;
+					continue;
+				}
+
+				// execute pending statements when the operation type changes, so that
+				// inserts and deletes of the same key are applied in submission order
+				if (pendingType != null && pendingType != operation.type) {
+					executePending(pendingType, insertStatement, deleteStatement);
+				}
+
+				if (operation.type == OperationType.INSERT) {
+					bindInsert(insertStatement, operation);
+					insertStatement.addBatch();
+				}
+				else {
+					deleteStatement.setString(1, operation.key);
+					deleteStatement.addBatch();
+				}
+
+				pendingType = operation.type;
+				count++;
+			}
+
+			if (pendingType != null) {
+				executePending(pendingType, insertStatement, deleteStatement);
+			}
+
+			connection.commit();
+		}
+		finally {
+			try {
+				connection.setAutoCommit(true);
+			}
+			catch (SQLException e) {
+				plugin.getLogger().warning(e.getLocalizedMessage());
+			}
+		}
+
+		return count;
+	}
+
+
+	/**
+	 * Discard statements not yet executed, and roll back the open transaction
+	 *
+	 * @param statements the writer thread statement catalog
+	 */
+	private void rollback(final StatementCatalog statements) {
+		try {
+			statements.get("InsertDestination").clearBatch();
+			statements.get("DeleteDestination").clearBatch();
+			connection.rollback();
+		}
+		catch (SQLException e) {
+			plugin.getLogger().warning(e.getLocalizedMessage());
+		}
+	}
+
+
+	/**
+	 * Release a thread waiting on a barrier, exceptionally if any write queued since the previous barrier was discarded
+	 *
+	 * @param barrier the barrier future
+	 */
+	private void completeBarrier(final CompletableFuture<Void> barrier) {
+		if (failuresSinceBarrier == 0) {
+			barrier.complete(null);
+		}
+		else {
+			barrier.completeExceptionally(new SQLException(failuresSinceBarrier + " writes could not be committed."));
+			failuresSinceBarrier = 0;
+		}
+	}
+
+
+	private static void executePending(final OperationType type,
+	                                   final PreparedStatement insertStatement,
+	                                   final PreparedStatement deleteStatement) throws SQLException {
+		if (type == OperationType.INSERT) {
+			insertStatement.executeBatch();
+		}
+		else {
+			deleteStatement.executeBatch();
+		}
+	}
+
+
+	private static void bindInsert(final PreparedStatement preparedStatement, final Operation operation) throws SQLException {
+
+		Destination destination = operation.destination;
+
+		preparedStatement.setString(1, destination.getKey());
+		preparedStatement.setString(2, destination.getDisplayName());
+		preparedStatement.setString(3, operation.worldName);
+		preparedStatement.setLong(4, destination.getWorldUid().getMostSignificantBits());
+		preparedStatement.setLong(5, destination.getWorldUid().getLeastSignificantBits());
+		preparedStatement.setDouble(6, destination.getX());
+		preparedStatement.setDouble(7, destination.getY());
+		preparedStatement.setDouble(8, destination.getZ());
+		preparedStatement.setFloat(9, destination.getYaw());
+		preparedStatement.setFloat(10, destination.getPitch());
+	}
+
+
+	/**
+	 * A queued write operation
+	 */
+	private static final class Operation {
+
+		private final OperationType type;
+		private final String key;
+		private final Destination destination;
+		private final String worldName;
+		private final CompletableFuture<Void> barrier;
+		private final Task task;
+
+		private Operation(final OperationType type,
+		                  final String key,
+		                  final Destination destination,
+		                  final String worldName,
+		                  final CompletableFuture<Void> barrier,
+		                  final Task task) {
+			this.type = type;
+			this.key = key;
+			this.destination = destination;
+			this.worldName = worldName;
+			this.barrier = barrier;
+			this.task = task;
+		}
+	}
+
+
+	/**
+	 * Work run on the writer thread with its statement catalog
+	 */
+	@FunctionalInterface
+	interface Task {
+		void run(final StatementCatalog statements) throws SQLException;
+	}
+
+}
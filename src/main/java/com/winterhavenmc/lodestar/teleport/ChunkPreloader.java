@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.teleport;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Loads the chunks around a teleport destination while the player warms up, so that no tick
+ * pays for reading or generating the destination chunk when the player arrives. Chunks are loaded
+ * with the asynchronous chunk API when the server provides one; otherwise they are loaded a few at a
+ * time from the timing wheel, within a time budget per tick.
+ * <p>
+ * Each loaded chunk is held with a plugin chunk ticket until the player's teleport completes or
+ * is cancelled. Tickets are counted in {@link ChunkTickets}, so a chunk preloaded for several players
+ * keeps its ticket until the last of them releases it. The preloader is not thread safe; it must be used
+ * on the main thread.
+ */
+final class ChunkPreloader {
+
+	// largest preload radius accepted from the configuration, in chunks
+	private static final int MAX_RADIUS = 4;
+
+	// time spent loading chunks each tick when the asynchronous chunk API is not available
+	private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+	// asynchronous chunk load method, or null if the server does not provide one
+	private static final Method GET_CHUNK_AT_ASYNC = findAsyncChunkMethod();
+
+	private final JavaPlugin plugin;
+
+	// timing wheel that runs the fallback chunk loads
+	private final TimingWheel timingWheel;
+
+	// reference counted chunk tickets, shared with the hot chunk set
+	private final ChunkTickets chunkTickets;
+
+	// chunks preloaded for each warming up player, by player uuid
+	private final Map<UUID, Preload> preloads = new HashMap<>();
+
+	// chunks waiting to be loaded when the asynchronous chunk API is not available
+	private final Deque<PendingChunk> pendingChunks = new ArrayDeque<>();
+
+	// timeout of the next fallback load, or null if none is scheduled
+	private TimingWheel.Timeout drainTimeout;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 * @param timingWheel the timing wheel that runs the fallback chunk loads
+	 * @param chunkTickets the reference counted chunk tickets
+	 */
+	ChunkPreloader(final JavaPlugin plugin, final TimingWheel timingWheel, final ChunkTickets chunkTickets) {
+		this.plugin = plugin;
+		this.timingWheel = timingWheel;
+		this.chunkTickets = chunkTickets;
+	}
+
+
+	/**
+	 * Start loading the chunks within the configured radius of a destination, replacing any chunks
+	 * already preloaded for the player
+	 *
+	 * @param player the player warming up to teleport
+	 * @param location the destination location
+	 */
+	void preload(final Player player, final Location location) {
+
+		release(player);
+
+		final World world = location.getWorld();
+		if (world == null) {
+			return;
+		}
+
+		final int radius = Math.min(MAX_RADIUS, Math.max(0, plugin.getConfig().getInt("teleport-preload-radius")));
+		final int centerX = location.getBlockX() >> 4;
+		final int centerZ = location.getBlockZ() >> 4;
+
+		final Preload preload = new Preload(world);
+		preloads.put(player.getUniqueId(), preload);
+
+		for (int x = centerX - radius; x <= centerX + radius; x++) {
+			for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+				request(preload, x, z);
+			}
+		}
+	}
+
+
+	/**
+	 * Release the chunk tickets held for a player, and stop loading any of the player's chunks not yet loaded
+	 *
+	 * @param player the player whose teleport completed or was cancelled
+	 */
+	void release(final Player player) {
+
+		final Preload preload = preloads.remove(player.getUniqueId());
+		if (preload == null) {
+			return;
+		}
+
+		preload.released = true;
+		for (long chunkKey : preload.chunkKeys) {
+			chunkTickets.remove(preload.world, chunkKey);
+		}
+		preload.chunkKeys.clear();
+	}
+
+
+	/**
+	 * Release all chunk tickets, and discard pending chunk loads
+	 */
+	void shutdown() {
+
+		for (Preload preload : preloads.values()) {
+			preload.released = true;
+			for (long chunkKey : preload.chunkKeys) {
+				chunkTickets.remove(preload.world, chunkKey);
+			}
+		}
+		preloads.clear();
+		pendingChunks.clear();
+
+		if (drainTimeout != null) {
+			drainTimeout.cancel();
+			drainTimeout = null;
+		}
+	}
+
+
+	/**
+	 * Load a chunk without blocking the tick, and hold a ticket for it once loaded
+	 *
+	 * @param preload the preload the chunk belongs to
+	 * @param x the chunk x coordinate
+	 * @param z the chunk z coordinate
+	 */
+	private void request(final Preload preload, final int x, final int z) {
+
+		// a loaded chunk only needs a ticket to stay loaded
+		if (preload.world.isChunkLoaded(x, z)) {
+			acquire(preload, x, z);
+			return;
+		}
+
+		if (GET_CHUNK_AT_ASYNC != null) {
+			try {
+				CompletableFuture<?> future = (CompletableFuture<?>) GET_CHUNK_AT_ASYNC.invoke(preload.world, x, z, true);
+
+				// the server completes chunk futures on the main thread
+				future.whenComplete((chunk, throwable) -> {
+					if (throwable == null) {
+						acquire(preload, x, z);
+					}
+				});
+				return;
+			}
+			catch (ReflectiveOperationException | ClassCastException e) {
+				if (plugin.getConfig().getBoolean("debug")) {
+					plugin.getLogger().info("Asynchronous chunk load failed; loading chunk on main thread.");
+				}
+			}
+		}
+
+		pendingChunks.add(new PendingChunk(preload, x, z));
+		if (drainTimeout == null) {
+			drainTimeout = timingWheel.schedule(1L, this::drain);
+		}
+	}
+
+
+	/**
+	 * Load pending chunks until the tick budget is spent, and run again on the next tick if any remain
+	 */
+	private void drain() {
+
+		drainTimeout = null;
+
+		final long startTime = System.nanoTime();
+
+		while (!pendingChunks.isEmpty() && System.nanoTime() - startTime < TICK_BUDGET_NANOS) {
+			PendingChunk pendingChunk = pendingChunks.poll();
+
+			// adding the ticket loads the chunk
+			acquire(pendingChunk.preload, pendingChunk.x, pendingChunk.z);
+		}
+
+		if (!pendingChunks.isEmpty()) {
+			drainTimeout = timingWheel.schedule(1L, this::drain);
+		}
+	}
+
+
+	/**
+	 * Hold a ticket on a chunk for a preload, unless the preload has been released
+	 *
+	 * @param preload the preload the chunk belongs to
+	 * @param x the chunk x coordinate
+	 * @param z the chunk z coordinate
+	 */
+	private void acquire(final Preload preload, final int x, final int z) {
+
+		if (preload.released) {
+			return;
+		}
+
+		final long chunkKey = ChunkTickets.chunkKey(x, z);
+		preload.chunkKeys.add(chunkKey);
+		chunkTickets.add(preload.world, chunkKey);
+	}
+
+
+	/**
+	 * Find the asynchronous chunk load method of servers that provide one
+	 *
+	 * @return the method, or null if the server only loads chunks on the main thread
+	 */
+	private static Method findAsyncChunkMethod() {
+		try {
+			return World.class.getMethod("getChunkAtAsync", int.class, int.class, boolean.class);
+		}
+		catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * The chunks preloaded for one player's teleport
+	 */
+	private static final class Preload {
+
+		private final World world;
+
+		// keys of the chunks this preload holds a ticket for
+		private final List<Long> chunkKeys = new ArrayList<>();
+
+		// set when the teleport completes or is cancelled; chunks loaded after this are not held
+		private boolean released;
+
+		private Preload(final World world) {
+			this.world = world;
+		}
+	}
+
+
+	/**
+	 * A chunk waiting to be loaded by the fallback loader
+	 */
+	private static final class PendingChunk {
+
+		private final Preload preload;
+		private final int x;
+		private final int z;
+
+		private PendingChunk(final Preload preload, final int x, final int z) {
+			this.preload = preload;
+			this.x = x;
+			this.z = z;
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.teleport;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Reference counted plugin chunk tickets. The server keeps one plugin ticket per chunk, so chunks held
+ * for several reasons, such as a teleport warmup and a hot destination, are counted here, and the ticket
+ * is only removed when the last holder releases it. Not thread safe; tickets must be added and removed
+ * on the main thread.
+ */
+final class ChunkTickets {
+
+	private final JavaPlugin plugin;
+
+	// number of holders of each plugin chunk ticket, by world uid and chunk key
+	private final Map<UUID, Map<Long, Integer>> ticketCounts = new HashMap<>();
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 */
+	ChunkTickets(final JavaPlugin plugin) {
+		this.plugin = plugin;
+	}
+
+
+	/**
+	 * Add one hold on a chunk ticket, adding the ticket for the first holder. Adding a ticket
+	 * loads the chunk if it is not already loaded.
+	 *
+	 * @param world the world of the chunk
+	 * @param chunkKey the chunk key
+	 */
+	void add(final World world, final long chunkKey) {
+
+		int count = ticketCounts.computeIfAbsent(world.getUID(), worldUid -> new HashMap<>())
+				.merge(chunkKey, 1, Integer::sum);
+
+		if (count == 1) {
+			world.addPluginChunkTicket(chunkX(chunkKey), chunkZ(chunkKey), plugin);
+		}
+	}
+
+
+	/**
+	 * Give up one hold on a chunk ticket, removing the ticket when no holders remain
+	 *
+	 * @param world the world of the chunk
+	 * @param chunkKey the chunk key
+	 */
+	void remove(final World world, final long chunkKey) {
+
+		final Map<Long, Integer> worldCounts = ticketCounts.get(world.getUID());
+		if (worldCounts == null) {
+			return;
+		}
+
+		Integer count = worldCounts.get(chunkKey);
+		if (count == null) {
+			return;
+		}
+
+		if (count > 1) {
+			worldCounts.put(chunkKey, count - 1);
+			return;
+		}
+
+		worldCounts.remove(chunkKey);
+		if (worldCounts.isEmpty()) {
+			ticketCounts.remove(world.getUID());
+		}
+		world.removePluginChunkTicket(chunkX(chunkKey), chunkZ(chunkKey), plugin);
+	}
+
+
+	/**
+	 * Forget the ticket counts of an unloaded world; the server drops its tickets with the world,
+	 * and later releases for the world are ignored
+	 *
+	 * @param worldUid the uid of the unloaded world
+	 */
+	void removeWorld(final UUID worldUid) {
+		ticketCounts.remove(worldUid);
+	}
+
+
+	/**
+	 * Get the number of chunks with a ticket
+	 *
+	 * @return the count of ticketed chunks
+	 */
+	int size() {
+		int size = 0;
+		for (Map<Long, Integer> worldCounts : ticketCounts.values()) {
+			size += worldCounts.size();
+		}
+		return size;
+	}
+
+
+	/**
+	 * Pack chunk coordinates into a single key
+	 *
+	 * @param x the chunk x coordinate
+	 * @param z the chunk z coordinate
+	 * @return the chunk key
+	 */
+	static long chunkKey(final int x, final int z) {
+		return ((long) x << 32) | (z & 0xFFFFFFFFL);
+	}
+
+
+	static int chunkX(final long chunkKey) {
+		return (int) (chunkKey >> 32);
+	}
+
+
+	static int chunkZ(final long chunkKey) {
+		return (int) chunkKey;
+	}
+
+}
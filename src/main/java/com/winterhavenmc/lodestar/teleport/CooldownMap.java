@@ -17,33 +17,74 @@
 
 package com.winterhavenmc.lodestar.teleport;
 
+import com.winterhavenmc.lodestar.PluginMain;
+
 import org.bukkit.entity.Player;
-import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.winterhavenmc.util.TimeUnit.SECONDS;
 
 
+/**
+ * Player cooldowns, kept as primitive expiry times in a {@link CooldownTable}. Cooldowns are not removed
+ * by a task when they expire; expired cooldowns are ignored and removed when they are looked up, and
+ * a sweep on the timing wheel removes the rest a bounded number of slots per tick.
+ * <p>
+ * Cooldowns are persisted in the datastore so that they survive restarts and reloads. Starting a cooldown
+ * only records it in memory; cooldowns started since the last flush are written to the datastore in one
+ * batch on the storage thread, and a player's stored cooldown is loaded when the player joins. Datastores
+ * that do not persist cooldowns are skipped, and a warning is logged that cooldowns will not survive restarts.
+ */
 class CooldownMap {
 
-	private final JavaPlugin plugin;
+	private final PluginMain plugin;
+
+	// timing wheel that runs the sweep, flush and purge
+	private final TimingWheel timingWheel;
+
+	// table of player UUID and cooldown expire time in milliseconds
+	private final CooldownTable cooldownTable;
+
+	// cooldowns started since the last flush, not yet written to the datastore
+	private Map<UUID, Long> unsavedCooldowns = new HashMap<>();
+
+	// true while a sweep is scheduled on the timing wheel
+	private boolean sweepScheduled;
 
-	// hashmap to store player UUID and cooldown expire time in milliseconds
-	private final ConcurrentHashMap<UUID, Long> cooldownMap;
+	// number of table slots checked for expired cooldowns each tick
+	private static final int SWEEP_SLOTS_PER_TICK = 32;
 
+	// number of server ticks in one second
+	private static final long TICKS_PER_SECOND = 20L;
 
-	CooldownMap(final JavaPlugin plugin) {
+
+	CooldownMap(final PluginMain plugin, final TimingWheel timingWheel) {
 		this.plugin = plugin;
-		cooldownMap = new ConcurrentHashMap<>();
+		this.timingWheel = timingWheel;
+		this.cooldownTable = new CooldownTable();
+
+		// refuse cooldown persistence settings the datastore cannot honor
+		if (!plugin.asyncDataStore.storesCooldowns()) {
+			plugin.getLogger().warning("The " + plugin.dataStore + " datastore does not store teleport cooldowns; "
+					+ "storage.cooldowns settings are ignored and cooldowns will not survive restarts.");
+		}
+
+		timingWheel.schedule(getFlushInterval(), this::flush);
+		timingWheel.schedule(getPurgeInterval(), this::purge);
+
+		// load cooldowns of players already online when the plugin is enabled by a reload
+		for (Player player : plugin.getServer().getOnlinePlayers()) {
+			loadPlayerCooldown(player);
+		}
 	}
 
 
 	/**
-	 * Insert player uuid into cooldown hashmap with {@code expiretime} as value.<br>
-	 * Schedule task to remove player uuid from cooldown hashmap when time expires.
+	 * Insert player uuid into cooldown table with {@code expiretime} as value.
 	 *
 	 * @param player the player being inserted into the cooldown map
 	 */
@@ -51,14 +92,16 @@ class CooldownMap {
 
 		int cooldownSeconds = plugin.getConfig().getInt("teleport-cooldown");
 
-		Long expireTime = System.currentTimeMillis() + (SECONDS.toMillis(cooldownSeconds));
-		cooldownMap.put(player.getUniqueId(), expireTime);
+		// a cooldown of zero or less would expire immediately; an expired time replaces any stored cooldown
+		if (cooldownSeconds <= 0) {
+			cooldownTable.remove(player.getUniqueId());
+			markUnsaved(player.getUniqueId(), System.currentTimeMillis());
+			return;
+		}
 
-		new BukkitRunnable() {
-			public void run() {
-				cooldownMap.remove(player.getUniqueId());
-			}
-		}.runTaskLater(plugin, SECONDS.toTicks(cooldownSeconds));
+		long expireTime = System.currentTimeMillis() + (SECONDS.toMillis(cooldownSeconds));
+		putCooldown(player.getUniqueId(), expireTime);
+		markUnsaved(player.getUniqueId(), expireTime);
 	}
 
 
@@ -69,11 +112,9 @@ class CooldownMap {
 	 * @return long remaining time in milliseconds
 	 */
 	long getCooldownTimeRemaining(final Player player) {
-		long remainingTime = 0;
-		if (cooldownMap.containsKey(player.getUniqueId())) {
-			remainingTime = (cooldownMap.get(player.getUniqueId()) - System.currentTimeMillis());
-		}
-		return remainingTime;
+		final long now = System.currentTimeMillis();
+		final long expireTime = cooldownTable.get(player.getUniqueId(), now);
+		return (expireTime == 0) ? 0 : expireTime - now;
 	}
 
 
@@ -87,4 +128,138 @@ class CooldownMap {
 		return getCooldownTimeRemaining(player) > 0;
 	}
 
+
+	/**
+	 * Load a player's stored cooldown from the datastore. A cooldown already held in memory
+	 * is kept if it expires later than the stored cooldown.
+	 *
+	 * @param player the player whose cooldown is loaded
+	 */
+	void loadPlayerCooldown(final Player player) {
+
+		if (!plugin.asyncDataStore.storesCooldowns()) {
+			return;
+		}
+
+		final UUID playerUid = player.getUniqueId();
+
+		plugin.asyncDataStore.selectCooldown(playerUid).thenAccept(storedExpireTime -> {
+			final long now = System.currentTimeMillis();
+			if (storedExpireTime > now && storedExpireTime > cooldownTable.get(playerUid, now)) {
+				putCooldown(playerUid, storedExpireTime);
+			}
+		});
+	}
+
+
+	/**
+	 * Write a player's unsaved cooldown to the datastore without waiting for the next flush,
+	 * so the cooldown is stored before the player can join another server
+	 *
+	 * @param player the player whose cooldown is saved
+	 */
+	void savePlayerCooldown(final Player player) {
+
+		Long expireTime = unsavedCooldowns.remove(player.getUniqueId());
+
+		if (expireTime != null) {
+			plugin.asyncDataStore.insertCooldowns(Collections.singletonMap(player.getUniqueId(), expireTime));
+		}
+	}
+
+
+	/**
+	 * Write all unsaved cooldowns to the datastore; called before the datastore is closed
+	 */
+	void shutdown() {
+		writeUnsavedCooldowns();
+	}
+
+
+	/**
+	 * Insert a cooldown into the table, and start the sweep if it is not already running
+	 *
+	 * @param playerUid the player uuid
+	 * @param expireTime the cooldown expiry time in milliseconds since the epoch
+	 */
+	private void putCooldown(final UUID playerUid, final long expireTime) {
+		cooldownTable.put(playerUid, expireTime);
+		if (!sweepScheduled) {
+			sweepScheduled = true;
+			timingWheel.schedule(1L, this::sweep);
+		}
+	}
+
+
+	/**
+	 * Record a cooldown to be written by the next flush, if the datastore stores cooldowns
+	 *
+	 * @param playerUid the player uuid
+	 * @param expireTime the cooldown expiry time in milliseconds since the epoch
+	 */
+	private void markUnsaved(final UUID playerUid, final long expireTime) {
+		if (plugin.asyncDataStore.storesCooldowns()) {
+			unsavedCooldowns.put(playerUid, expireTime);
+		}
+	}
+
+
+	/**
+	 * Remove a bounded number of expired cooldowns, and run again on the next tick while any cooldowns remain
+	 */
+	private void sweep() {
+		cooldownTable.sweep(System.currentTimeMillis(), SWEEP_SLOTS_PER_TICK);
+		if (cooldownTable.size() > 0) {
+			timingWheel.schedule(1L, this::sweep);
+		}
+		else {
+			sweepScheduled = false;
+		}
+	}
+
+
+	/**
+	 * Write cooldowns started since the last flush, and run again after the flush interval
+	 */
+	private void flush() {
+		writeUnsavedCooldowns();
+		timingWheel.schedule(getFlushInterval(), this::flush);
+	}
+
+
+	/**
+	 * Remove expired cooldowns from the datastore, and run again after the purge interval
+	 */
+	private void purge() {
+		if (plugin.asyncDataStore.storesCooldowns()) {
+			plugin.asyncDataStore.purgeCooldowns();
+		}
+		timingWheel.schedule(getPurgeInterval(), this::purge);
+	}
+
+
+	/**
+	 * Hand the unsaved cooldowns to the storage thread, and start a new map for cooldowns started after this
+	 */
+	private void writeUnsavedCooldowns() {
+
+		if (unsavedCooldowns.isEmpty() || !plugin.asyncDataStore.storesCooldowns()) {
+			return;
+		}
+
+		final Map<UUID, Long> cooldowns = unsavedCooldowns;
+		unsavedCooldowns = new HashMap<>();
+		plugin.asyncDataStore.insertCooldowns(cooldowns);
+	}
+
+
+	private long getFlushInterval() {
+		return Math.max(1, plugin.getConfig().getLong("storage.cooldowns.flush-interval", 5)) * TICKS_PER_SECOND;
+	}
+
+
+	private long getPurgeInterval() {
+		return Math.max(1, plugin.getConfig().getLong("storage.cooldowns.purge-interval", 600)) * TICKS_PER_SECOND;
+	}
+
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.teleport;
+
+import java.util.UUID;
+
+
+/**
+ * Open addressing hash table of player uuids and cooldown expiry times, held in primitive arrays.
+ * Entries are not removed when they expire; a lookup treats an expired entry as absent and removes it,
+ * and {@link #sweep} removes expired entries a bounded number of slots at a time.
+ * <p>
+ * Collisions are resolved by linear probing, and removal shifts later entries of the probe sequence
+ * back, so no tombstones are left behind. The table is not thread safe.
+ */
+final class CooldownTable {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	// expiry time of an empty slot; expiry times are always later than this
+	private static final long EMPTY = 0L;
+
+	private long[] mostSignificantBits;
+	private long[] leastSignificantBits;
+	private long[] expiryTimes;
+	private int mask;
+	private int size;
+
+	// next slot to be checked by the sweep
+	private int sweepIndex;
+
+
+	CooldownTable() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+
+	/**
+	 * Set the expiry time for a player, replacing any existing expiry time
+	 *
+	 * @param playerUid the player uuid
+	 * @param expiryTime the time the cooldown expires, in milliseconds since the epoch
+	 */
+	void put(final UUID playerUid, final long expiryTime) {
+
+		final long msb = playerUid.getMostSignificantBits();
+		final long lsb = playerUid.getLeastSignificantBits();
+
+		int index = indexOf(msb, lsb);
+		if (index >= 0) {
+			expiryTimes[index] = expiryTime;
+			return;
+		}
+
+		// keep load factor at or below one half
+		if ((size + 1) * 2 > expiryTimes.length) {
+			resize(expiryTimes.length * 2);
+		}
+
+		insert(msb, lsb, expiryTime);
+	}
+
+
+	/**
+	 * Get the expiry time for a player, removing the entry if it has expired
+	 *
+	 * @param playerUid the player uuid
+	 * @param now the current time in milliseconds since the epoch
+	 * @return the expiry time, or zero if the player has no cooldown or it has expired
+	 */
+	long get(final UUID playerUid, final long now) {
+
+		int index = indexOf(playerUid.getMostSignificantBits(), playerUid.getLeastSignificantBits());
+		if (index < 0) {
+			return EMPTY;
+		}
+
+		long expiryTime = expiryTimes[index];
+		if (expiryTime <= now) {
+			removeAt(index);
+			return EMPTY;
+		}
+
+		return expiryTime;
+	}
+
+
+	/**
+	 * Remove the expiry time for a player
+	 *
+	 * @param playerUid the player uuid
+	 */
+	void remove(final UUID playerUid) {
+		int index = indexOf(playerUid.getMostSignificantBits(), playerUid.getLeastSignificantBits());
+		if (index >= 0) {
+			removeAt(index);
+		}
+	}
+
+
+	/**
+	 * Check a bounded number of slots for expired entries, continuing where the last sweep stopped
+	 *
+	 * @param now the current time in milliseconds since the epoch
+	 * @param maxSlots the maximum number of slots to check
+	 * @return the number of expired entries removed
+	 */
+	int sweep(final long now, final int maxSlots) {
+
+		int removed = 0;
+
+		for (int checked = 0; checked < maxSlots && size > 0; checked++) {
+
+			if (sweepIndex > mask) {
+				sweepIndex = 0;
+			}
+
+			long expiryTime = expiryTimes[sweepIndex];
+
+			if (expiryTime != EMPTY && expiryTime <= now) {
+				// an entry may be shifted back into this slot, so check it again
+				removeAt(sweepIndex);
+				removed++;
+			}
+			else {
+				sweepIndex++;
+			}
+		}
+
+		return removed;
+	}
+
+
+	/**
+	 * Get the number of entries, including expired entries not yet removed
+	 *
+	 * @return the count of entries
+	 */
+	int size() {
+		return size;
+	}
+
+
+	private int indexOf(final long msb, final long lsb) {
+		for (int index = hash(msb, lsb) & mask; expiryTimes[index] != EMPTY; index = (index + 1) & mask) {
+			if (mostSignificantBits[index] == msb && leastSignificantBits[index] == lsb) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+
+	private void insert(final long msb, final long lsb, final long expiryTime) {
+		int index = hash(msb, lsb) & mask;
+		while (expiryTimes[index] != EMPTY) {
+			index = (index + 1) & mask;
+		}
+		mostSignificantBits[index] = msb;
+		leastSignificantBits[index] = lsb;
+		expiryTimes[index] = expiryTime;
+		size++;
+	}
+
+
+	/**
+	 * Remove the entry in a slot, shifting back later entries of the probe sequence
+	 * that would no longer be found past the emptied slot
+	 *
+	 * @param index the slot to empty
+	 */
+	private void removeAt(final int index) {
+
+		int empty = index;
+		int next = (index + 1) & mask;
+
+		while (expiryTimes[next] != EMPTY) {
+			int home = hash(mostSignificantBits[next], leastSignificantBits[next]) & mask;
+
+			// move entry if its home slot is not cyclically between the empty slot and its position
+			if (((next - home) & mask) >= ((next - empty) & mask)) {
+				mostSignificantBits[empty] = mostSignificantBits[next];
+				leastSignificantBits[empty] = leastSignificantBits[next];
+				expiryTimes[empty] = expiryTimes[next];
+				empty = next;
+			}
+			next = (next + 1) & mask;
+		}
+
+		expiryTimes[empty] = EMPTY;
+		size--;
+	}
+
+
+	private void resize(final int capacity) {
+
+		final long[] oldMsb = mostSignificantBits;
+		final long[] oldLsb = leastSignificantBits;
+		final long[] oldExpiry = expiryTimes;
+
+		allocate(capacity);
+
+		for (int i = 0; i < oldExpiry.length; i++) {
+			if (oldExpiry[i] != EMPTY) {
+				insert(oldMsb[i], oldLsb[i], oldExpiry[i]);
+			}
+		}
+	}
+
+
+	private void allocate(final int capacity) {
+		mostSignificantBits = new long[capacity];
+		leastSignificantBits = new long[capacity];
+		expiryTimes = new long[capacity];
+		mask = capacity - 1;
+		size = 0;
+		sweepIndex = 0;
+	}
+
+
+	private static int hash(final long msb, final long lsb) {
+		long h = msb ^ (lsb * 0x9E3779B97F4A7C15L);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+}
@@ -26,46 +26,45 @@ import com.winterhavenmc.lodestar.messages.MessageId;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.Objects;
+import java.util.Optional;
 
 
 /**
- * Class that extends BukkitRunnable to teleport a player to a predefined location
+ * Task scheduled on the timing wheel to teleport a player to a predefined location
  * after a configured warmup period.
  */
-final class DelayedTeleportTask extends BukkitRunnable {
+final class DelayedTeleportTask implements Runnable {
 
 	private final PluginMain plugin;
 	private final Player player;
 	private final Destination destination;
 	private final ItemStack playerItem;
-	private Location location;
-	private BukkitTask particleTask;
+	private ParticleTask particleTask;
 
 
 	/**
 	 * Class constructor method
 	 *
 	 * @param player      the player to be teleported
-	 * @param destination the teleport destination
+	 * @param destination the teleport destination, whose location is resolved again when the warmup ends
 	 * @param playerItem  the item used to initiate teleport
+	 * @param timingWheel the timing wheel that runs the particle task
 	 */
-	DelayedTeleportTask(final PluginMain plugin, final Player player, final Destination destination, final ItemStack playerItem) {
+	DelayedTeleportTask(final PluginMain plugin, final Player player, final Destination destination,
+	                    final ItemStack playerItem, final TimingWheel timingWheel) {
 
 		this.plugin = plugin;
 		this.player = player;
 		this.destination = destination;
 		this.playerItem = playerItem;
-		this.location = destination.getLocation().orElse(null);
 
 		// start repeating task for generating particles at player location
 		if (plugin.getConfig().getBoolean("particle-effects")) {
 
 			// start particle task with 2 tick delay, so it doesn't self cancel on first run
-			particleTask = new ParticleTask(plugin, player).runTaskTimer(plugin, 2L, 10);
+			particleTask = new ParticleTask(plugin, player, timingWheel, 10).start(2L);
 
 		}
 	}
@@ -73,9 +72,25 @@ final class DelayedTeleportTask extends BukkitRunnable {
 
 	@Override
 	public void run() {
+		try {
+			teleportPlayer();
+		}
+		finally {
+			// release destination chunks held during warmup, whether or not the teleport happened
+			plugin.teleportHandler.releaseDestinationChunks(player);
+		}
+	}
+
+
+	/**
+	 * Teleport the player if still warming up
+	 */
+	private void teleportPlayer() {
 
 		// cancel particles task
-		particleTask.cancel();
+		if (particleTask != null) {
+			particleTask.cancel();
+		}
 
 		// if player is in warmup map
 		if (plugin.teleportHandler.isWarmingUp(player)) {
@@ -83,6 +98,19 @@ final class DelayedTeleportTask extends BukkitRunnable {
 			// remove player from warmup map
 			plugin.teleportHandler.removeWarmingUpPlayer(player);
 
+			// resolve destination location again, since its world may have been unloaded during the warmup
+			Optional<Location> optionalLocation = destination.getLocation();
+
+			// if destination location is empty, send invalid destination message and return
+			if (optionalLocation.isEmpty()) {
+				plugin.messageBuilder.compose(player, MessageId.TELEPORT_FAIL_INVALID_DESTINATION)
+						.setMacro(Macro.DESTINATION, destination.getDisplayName())
+						.send();
+				return;
+			}
+
+			Location location = optionalLocation.get();
+
 			// if destination is spawn, get spawn location from world manager
 			if (destination.isSpawn()) {
 				location = plugin.worldManager.getSpawnLocation(Objects.requireNonNull(location.getWorld()));
@@ -140,6 +168,9 @@ final class DelayedTeleportTask extends BukkitRunnable {
 
 			// start player cooldown
 			plugin.teleportHandler.startPlayerCooldown(player);
+
+			// count teleport for the ranking of hot destinations
+			plugin.teleportHandler.recordDestinationUse(destination);
 		}
 	}
 
@@ -49,7 +49,8 @@ final class DestinationTeleporter extends AbstractTeleporter {
 		// get item key from player item in main hand
 		final String key = plugin.lodeStarUtility.getKey(player.getInventory().getItemInMainHand());
 
-		// execute teleport or send invalid destination message
+		// execute teleport or send invalid destination message; served from the destination cache,
+		// so the lookup stays on the main thread and the held item cannot change before execute
 		plugin.dataStore.selectRecord(key).ifPresentOrElse(
 				destination -> execute(player, destination, MessageId.TELEPORT_WARMUP),
 				() -> sendInvalidDestinationMessage(player, Destination.getDisplayName(key))
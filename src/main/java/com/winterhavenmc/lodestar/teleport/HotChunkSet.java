@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.teleport;
+
+import com.winterhavenmc.lodestar.storage.Destination;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.*;
+
+
+/**
+ * Keeps the chunks around the most used destinations loaded, so teleports to them do not wait for
+ * their chunks to be read from disk. Each teleport adds one use to its destination, and once a minute
+ * all use counts decay by a tenth, so the ranking follows recent use. The destinations are then ranked
+ * by their decayed use count, ties going to the most recently used, and their chunks are pinned with
+ * plugin chunk tickets in rank order until the configured chunk budget is spent. Destinations that fall
+ * out of the budget have their tickets released.
+ * <p>
+ * Pinning never loads a chunk: a selected chunk that is not loaded is pinned at a later ranking, once a
+ * teleport has loaded it. Home destinations are per player and are not tracked, and spawn chunks are
+ * kept loaded by the server. Not thread safe; it must be used on the main thread.
+ */
+final class HotChunkSet {
+
+	// ticks between rankings; one minute
+	private static final long RANK_INTERVAL_TICKS = 1200L;
+
+	// fraction of each use count kept at every ranking; counts halve in about six and a half minutes
+	private static final double DECAY = 0.9;
+
+	// unpinned destinations with fewer recent uses than this are no longer tracked
+	private static final double MIN_TRACKED_USES = 0.1;
+
+	// maximum number of destinations tracked
+	private static final int MAX_TRACKED = 1024;
+
+	// largest radius accepted from the configuration, in chunks
+	private static final int MAX_RADIUS = 4;
+
+	private final JavaPlugin plugin;
+
+	// timing wheel that runs the ranking
+	private final TimingWheel timingWheel;
+
+	// reference counted chunk tickets, shared with the chunk preloader
+	private final ChunkTickets chunkTickets;
+
+	// usage of each tracked destination, by destination key
+	private final Map<String, Usage> usages = new HashMap<>();
+
+	// chunks holding a ticket for this set, by world uid
+	private final Map<UUID, Set<Long>> pinnedChunks = new HashMap<>();
+
+	// timeout of the next ranking
+	private TimingWheel.Timeout rankTimeout;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 * @param timingWheel the timing wheel that runs the ranking
+	 * @param chunkTickets the reference counted chunk tickets
+	 */
+	HotChunkSet(final JavaPlugin plugin, final TimingWheel timingWheel, final ChunkTickets chunkTickets) {
+		this.plugin = plugin;
+		this.timingWheel = timingWheel;
+		this.chunkTickets = chunkTickets;
+		this.rankTimeout = timingWheel.schedule(RANK_INTERVAL_TICKS, this::rank);
+	}
+
+
+	/**
+	 * Count a teleport to a destination
+	 *
+	 * @param destination the destination teleported to
+	 */
+	void recordUse(final Destination destination) {
+
+		if (getMaxChunks() <= 0 || destination.isHome() || destination.isSpawn() || destination.getWorldUid() == null) {
+			return;
+		}
+
+		Usage usage = usages.computeIfAbsent(Destination.deriveKey(destination.getDisplayName()), Usage::new);
+
+		// destination may have been moved since it was last used
+		usage.displayName = destination.getDisplayName();
+		usage.worldUid = destination.getWorldUid();
+		usage.chunkX = ((int) Math.floor(destination.getX())) >> 4;
+		usage.chunkZ = ((int) Math.floor(destination.getZ())) >> 4;
+		usage.uses += 1;
+		usage.lastUsed = System.currentTimeMillis();
+	}
+
+
+	/**
+	 * Get the most used destinations, in rank order
+	 *
+	 * @param limit the maximum number of destinations to return
+	 * @return list of destination usage snapshots
+	 */
+	List<HotDestination> getRanking(final int limit) {
+
+		List<HotDestination> ranking = new ArrayList<>();
+
+		for (Usage usage : ranked()) {
+			if (ranking.size() >= limit) {
+				break;
+			}
+			ranking.add(new HotDestination(usage.displayName, usage.uses, usage.pinned));
+		}
+
+		return ranking;
+	}
+
+
+	/**
+	 * Get the number of chunks pinned for the most used destinations
+	 *
+	 * @return the count of pinned chunks
+	 */
+	int getPinnedChunkCount() {
+		int count = 0;
+		for (Set<Long> chunkKeys : pinnedChunks.values()) {
+			count += chunkKeys.size();
+		}
+		return count;
+	}
+
+
+	/**
+	 * Forget the pinned chunks of an unloaded world; the server drops their tickets with the world
+	 *
+	 * @param worldUid the uid of the unloaded world
+	 */
+	void worldUnloaded(final UUID worldUid) {
+		pinnedChunks.remove(worldUid);
+	}
+
+
+	/**
+	 * Release all pinned chunks, and stop ranking
+	 */
+	void shutdown() {
+
+		if (rankTimeout != null) {
+			rankTimeout.cancel();
+			rankTimeout = null;
+		}
+
+		updatePins(Collections.emptyMap());
+		usages.clear();
+	}
+
+
+	/**
+	 * Decay use counts, rank destinations and pin the chunks of those within the budget,
+	 * and run again after the ranking interval
+	 */
+	private void rank() {
+
+		final int maxChunks = getMaxChunks();
+		final int radius = Math.min(MAX_RADIUS, Math.max(0, plugin.getConfig().getInt("hot-chunks.radius", 1)));
+		final double minUses = plugin.getConfig().getDouble("hot-chunks.min-uses", 5);
+
+		for (Usage usage : usages.values()) {
+			usage.uses *= DECAY;
+			usage.pinned = false;
+		}
+
+		final Map<UUID, Set<Long>> selected = new HashMap<>();
+		final List<Usage> selectedUsages = new ArrayList<>();
+		int selectedCount = 0;
+		int tracked = 0;
+
+		for (Usage usage : ranked()) {
+
+			tracked++;
+
+			// stop tracking the least used destinations beyond the limit, whatever their use count
+			if (tracked > MAX_TRACKED) {
+				usages.remove(usage.key);
+				continue;
+			}
+
+			if (usage.uses < minUses || maxChunks <= 0) {
+				if (usage.uses < MIN_TRACKED_USES) {
+					usages.remove(usage.key);
+				}
+				continue;
+			}
+
+			// chunks of nearby destinations overlap, and only count against the budget once
+			Set<Long> worldSelected = selected.getOrDefault(usage.worldUid, Collections.emptySet());
+			List<Long> newChunks = new ArrayList<>();
+			for (int x = usage.chunkX - radius; x <= usage.chunkX + radius; x++) {
+				for (int z = usage.chunkZ - radius; z <= usage.chunkZ + radius; z++) {
+					long chunkKey = ChunkTickets.chunkKey(x, z);
+					if (!worldSelected.contains(chunkKey)) {
+						newChunks.add(chunkKey);
+					}
+				}
+			}
+
+			if (selectedCount + newChunks.size() > maxChunks) {
+				continue;
+			}
+
+			selected.computeIfAbsent(usage.worldUid, worldUid -> new HashSet<>()).addAll(newChunks);
+			selectedCount += newChunks.size();
+			selectedUsages.add(usage);
+		}
+
+		updatePins(selected);
+
+		// a selected destination is pinned only once its own chunk is loaded and holds a ticket
+		for (Usage usage : selectedUsages) {
+			usage.pinned = pinnedChunks.getOrDefault(usage.worldUid, Collections.emptySet())
+					.contains(ChunkTickets.chunkKey(usage.chunkX, usage.chunkZ));
+		}
+
+		rankTimeout = timingWheel.schedule(RANK_INTERVAL_TICKS, this::rank);
+	}
+
+
+	/**
+	 * Release the tickets of chunks no longer selected, and add tickets to newly selected chunks that are loaded
+	 *
+	 * @param selected the selected chunk keys, by world uid
+	 */
+	private void updatePins(final Map<UUID, Set<Long>> selected) {
+
+		// release chunks that are no longer selected
+		Iterator<Map.Entry<UUID, Set<Long>>> worldIterator = pinnedChunks.entrySet().iterator();
+		while (worldIterator.hasNext()) {
+			Map.Entry<UUID, Set<Long>> entry = worldIterator.next();
+			World world = plugin.getServer().getWorld(entry.getKey());
+			Set<Long> worldSelected = selected.getOrDefault(entry.getKey(), Collections.emptySet());
+
+			Iterator<Long> chunkIterator = entry.getValue().iterator();
+			while (chunkIterator.hasNext()) {
+				long chunkKey = chunkIterator.next();
+				if (world == null || !worldSelected.contains(chunkKey)) {
+					if (world != null) {
+						chunkTickets.remove(world, chunkKey);
+					}
+					chunkIterator.remove();
+				}
+			}
+
+			if (entry.getValue().isEmpty()) {
+				worldIterator.remove();
+			}
+		}
+
+		// pin selected chunks that are loaded and not yet pinned
+		for (Map.Entry<UUID, Set<Long>> entry : selected.entrySet()) {
+			World world = plugin.getServer().getWorld(entry.getKey());
+			if (world == null) {
+				continue;
+			}
+
+			Set<Long> worldPinned = pinnedChunks.computeIfAbsent(entry.getKey(), worldUid -> new HashSet<>());
+			for (long chunkKey : entry.getValue()) {
+				if (!worldPinned.contains(chunkKey)
+						&& world.isChunkLoaded(ChunkTickets.chunkX(chunkKey), ChunkTickets.chunkZ(chunkKey))) {
+					chunkTickets.add(world, chunkKey);
+					worldPinned.add(chunkKey);
+				}
+			}
+
+			if (worldPinned.isEmpty()) {
+				pinnedChunks.remove(entry.getKey());
+			}
+		}
+	}
+
+
+	/**
+	 * Get the tracked destinations, most used first, ties going to the most recently used
+	 *
+	 * @return list of destination usages in rank order
+	 */
+	private List<Usage> ranked() {
+		List<Usage> ranked = new ArrayList<>(usages.values());
+		ranked.sort(Comparator.comparingDouble((Usage usage) -> usage.uses).reversed()
+				.thenComparing(Comparator.comparingLong((Usage usage) -> usage.lastUsed).reversed()));
+		return ranked;
+	}
+
+
+	private int getMaxChunks() {
+		return plugin.getConfig().getInt("hot-chunks.max-chunks", 45);
+	}
+
+
+	/**
+	 * Recent use of one destination
+	 */
+	private static final class Usage {
+		private final String key;
+		private String displayName;
+		private UUID worldUid;
+		private int chunkX;
+		private int chunkZ;
+		private double uses;
+		private long lastUsed;
+		private boolean pinned;
+
+		private Usage(final String key) {
+			this.key = key;
+		}
+	}
+
+}
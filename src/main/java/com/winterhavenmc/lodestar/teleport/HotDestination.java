@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.teleport;
+
+
+/**
+ * Snapshot of the usage of one destination, as ranked by the hot chunk set
+ */
+public final class HotDestination {
+
+	private final String displayName;
+	private final double recentUses;
+	private final boolean pinned;
+
+
+	HotDestination(final String displayName, final double recentUses, final boolean pinned) {
+		this.displayName = displayName;
+		this.recentUses = recentUses;
+		this.pinned = pinned;
+	}
+
+
+	public String getDisplayName() {
+		return displayName;
+	}
+
+
+	/**
+	 * Get the number of recent teleports to the destination, with older teleports counting for less
+	 *
+	 * @return the decayed use count
+	 */
+	public double getRecentUses() {
+		return recentUses;
+	}
+
+
+	/**
+	 * Test if the chunk of the destination is held loaded by a ticket
+	 *
+	 * @return true if the destination is pinned, false if it is not selected or its chunk is not yet loaded
+	 */
+	public boolean isPinned() {
+		return pinned;
+	}
+
+}
@@ -21,29 +21,60 @@ import com.winterhavenmc.lodestar.PluginMain;
 
 import org.bukkit.Effect;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 
 /**
  * A self-cancelling, repeating task that generates ender signal particles
- * at a player's location as long as they are in the warmup hashmap
+ * at a player's location as long as they are in the warmup hashmap.
+ * The task repeats by scheduling itself again on the timing wheel.
  *
  * @author savage
  */
-final class ParticleTask extends BukkitRunnable {
+final class ParticleTask implements Runnable {
 
 	private final PluginMain plugin;
 	private final Player player;
+	private final TimingWheel timingWheel;
+	private final long period;
+
+	// timeout of the next run of this task
+	private TimingWheel.Timeout timeout;
 
 
 	/**
 	 * Class constructor method
 	 *
 	 * @param player the player being teleported
+	 * @param timingWheel the timing wheel the task is scheduled on
+	 * @param period the number of ticks between runs
 	 */
-	ParticleTask(final PluginMain plugin, final Player player) {
+	ParticleTask(final PluginMain plugin, final Player player, final TimingWheel timingWheel, final long period) {
 		this.plugin = plugin;
 		this.player = player;
+		this.timingWheel = timingWheel;
+		this.period = period;
+	}
+
+
+	/**
+	 * Schedule the first run of this task
+	 *
+	 * @param delay the number of ticks before the first run
+	 * @return this task
+	 */
+	ParticleTask start(final long delay) {
+		timeout = timingWheel.schedule(delay, this);
+		return this;
+	}
+
+
+	/**
+	 * Cancel the next run of this task
+	 */
+	void cancel() {
+		if (timeout != null) {
+			timeout.cancel();
+		}
 	}
 
 
@@ -53,11 +84,9 @@ final class ParticleTask extends BukkitRunnable {
 		// if player is in the warmup hashmap, display the particle effect at their location
 		if (plugin.teleportHandler.isWarmingUp(player)) {
 			player.getWorld().playEffect(player.getLocation().add(0.0d, 1.0d, 0.0d), Effect.ENDER_SIGNAL, 0, 10);
+			timeout = timingWheel.schedule(period, this);
 		}
-		// otherwise, cancel this repeating task if the player is not in the warmup hashmap
-		else {
-			this.cancel();
-		}
+		// otherwise, do not run again if the player is not in the warmup hashmap
 	}
 
 }
@@ -26,7 +26,8 @@ import com.winterhavenmc.lodestar.storage.Destination;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Optional;
 
 import static com.winterhavenmc.util.TimeUnit.SECONDS;
 
@@ -35,11 +36,18 @@ class TeleportExecutor {
 
 	protected final PluginMain plugin;
 	protected final WarmupMap warmupMap;
+	protected final TimingWheel timingWheel;
+	protected final ChunkPreloader chunkPreloader;
 
 
-	TeleportExecutor(final PluginMain plugin, final WarmupMap warmupMap) {
+	TeleportExecutor(final PluginMain plugin,
+	                 final WarmupMap warmupMap,
+	                 final TimingWheel timingWheel,
+	                 final ChunkPreloader chunkPreloader) {
 		this.plugin = plugin;
 		this.warmupMap = warmupMap;
+		this.timingWheel = timingWheel;
+		this.chunkPreloader = chunkPreloader;
 	}
 
 
@@ -54,16 +62,22 @@ class TeleportExecutor {
 
 		ItemStack playerItem = player.getInventory().getItemInMainHand();
 
+		// resolve destination location once, for all checks and the delayed teleport
+		Optional<Location> optionalLocation = destination.getLocation();
+
 		// if destination location is empty, send invalid destination message and return
-		if (destination.getLocation().isEmpty()) {
+		if (optionalLocation.isEmpty()) {
 			plugin.messageBuilder.compose(player, MessageId.TELEPORT_FAIL_INVALID_DESTINATION)
 					.setMacro(Macro.DESTINATION, destination.getDisplayName())
 					.send();
 			return;
 		}
 
+		// unwrap optional destination location
+		Location location = optionalLocation.get();
+
 		// if player is less than configured minimum distance from destination, send player proximity message and return
-		if (isUnderMinimumDistance(player, destination)) {
+		if (isUnderMinimumDistance(player, location)) {
 			plugin.messageBuilder.compose(player, MessageId.TELEPORT_FAIL_PROXIMITY)
 					.setMacro(Macro.DESTINATION, destination.getDisplayName())
 					.send();
@@ -74,17 +88,17 @@ class TeleportExecutor {
 		removeFromInventoryOnUse(player, playerItem);
 
 		// initiate delayed teleport for player to final destination
-		BukkitTask teleportTask = new DelayedTeleportTask(plugin, player, destination, playerItem.clone())
-				.runTaskLater(plugin, SECONDS.toTicks(plugin.getConfig().getLong("teleport-warmup")));
+		TimingWheel.Timeout teleportTimeout = timingWheel.schedule(SECONDS.toTicks(plugin.getConfig().getLong("teleport-warmup")),
+				new DelayedTeleportTask(plugin, player, destination, playerItem.clone(), timingWheel));
 
 		// if configured warmup time is greater than zero, send warmup message
 		sendWarmupMessage(player, destination, messageId);
 
-		// insert player and taskId into warmup hashmap
-		warmupMap.startPlayerWarmUp(player, teleportTask.getTaskId());
+		// insert player and delayed teleport timeout into warmup hashmap
+		warmupMap.startPlayerWarmUp(player, teleportTimeout);
 
-		// load destination chunk if not already loaded
-		loadDestinationChunk(destination);
+		// start loading destination chunks, held until the teleport completes or is cancelled
+		chunkPreloader.preload(player, location);
 
 		// if log-use is enabled in config, write log entry
 		logUsage(player, destination);
@@ -117,45 +131,14 @@ class TeleportExecutor {
 	}
 
 
-	/**
-	 * Preload chunk at teleport destination if not already loaded
-	 *
-	 * @param destination the destination location
-	 */
-	private void loadDestinationChunk(final Destination destination) {
-
-		// if optional destination location is empty, do nothing and return
-		if (destination.getLocation().isEmpty()) {
-			return;
-		}
-
-		// unwrap optional destination location
-		Location location = destination.getLocation().get();
-
-		if (location.getWorld() != null) {
-			if (!location.getWorld().getChunkAt(location).isLoaded()) {
-				location.getWorld().getChunkAt(location).load();
-			}
-		}
-	}
-
-
 	/**
 	 * Check if player is within configured minimum distance from destination
 	 *
-	 * @param player      the player
-	 * @param destination the destination
+	 * @param player   the player
+	 * @param location the destination location
 	 * @return true if under minimum distance, false if not
 	 */
-	private boolean isUnderMinimumDistance(final Player player, final Destination destination) {
-
-		// if destination location is empty, return false
-		if (destination.getLocation().isEmpty()) {
-			return false;
-		}
-
-		// unwrap optional destination location
-		Location location = destination.getLocation().get();
+	private boolean isUnderMinimumDistance(final Player player, final Location location) {
 
 		// check if location is within minimum proximity to player
 		return location.getWorld() != null
@@ -22,8 +22,11 @@ import com.winterhavenmc.lodestar.messages.Macro;
 import com.winterhavenmc.lodestar.messages.MessageId;
 import com.winterhavenmc.lodestar.storage.Destination;
 
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+
 
 /**
  * Class that manages player teleportation, including warmup and cooldown.
@@ -33,12 +36,24 @@ public final class TeleportHandler {
 	// reference to main class
 	private final PluginMain plugin;
 
-	// map containing player UUID as key and warmup task id as value
+	// timing wheel that holds all warmup and interact delay deadlines, and the cooldown sweep, flush and purge
+	private final TimingWheel timingWheel;
+
+	// map containing player UUID as key and delayed teleport timeout as value
 	private final WarmupMap warmupMap;
 
 	// map to store player UUID and cooldown expire time in milliseconds
 	private final CooldownMap cooldownMap;
 
+	// loads and holds destination chunks during warmup
+	private final ChunkPreloader chunkPreloader;
+
+	// keeps the chunks around the most used destinations loaded
+	private final HotChunkSet hotChunkSet;
+
+	// reference counted chunk tickets, shared by the chunk preloader and hot chunk set
+	private final ChunkTickets chunkTickets;
+
 	// teleport executor instance that serves all teleporters
 	private final TeleportExecutor teleportExecutor;
 
@@ -50,9 +65,26 @@ public final class TeleportHandler {
 	 */
 	public TeleportHandler(final PluginMain plugin) {
 		this.plugin = plugin;
-		this.warmupMap = new WarmupMap(plugin);
-		this.cooldownMap = new CooldownMap(plugin);
-		this.teleportExecutor = new TeleportExecutor(plugin, warmupMap);
+		this.timingWheel = new TimingWheel(plugin);
+		this.warmupMap = new WarmupMap(plugin, timingWheel);
+		this.cooldownMap = new CooldownMap(plugin, timingWheel);
+		this.chunkTickets = new ChunkTickets(plugin);
+		this.chunkPreloader = new ChunkPreloader(plugin, timingWheel, chunkTickets);
+		this.hotChunkSet = new HotChunkSet(plugin, timingWheel, chunkTickets);
+		this.teleportExecutor = new TeleportExecutor(plugin, warmupMap, timingWheel, chunkPreloader);
+		this.timingWheel.start();
+	}
+
+
+	/**
+	 * Write unsaved cooldowns to the datastore, release destination and hot chunks,
+	 * and stop the timing wheel, discarding pending warmups
+	 */
+	public void shutdown() {
+		cooldownMap.shutdown();
+		chunkPreloader.shutdown();
+		hotChunkSet.shutdown();
+		timingWheel.stop();
 	}
 
 
@@ -109,6 +141,26 @@ public final class TeleportHandler {
 	}
 
 
+	/**
+	 * Load a player's stored cooldown from the datastore. Public pass through method.
+	 *
+	 * @param player the player whose cooldown is loaded
+	 */
+	public void loadPlayerCooldown(final Player player) {
+		cooldownMap.loadPlayerCooldown(player);
+	}
+
+
+	/**
+	 * Write a player's unsaved cooldown to the datastore. Public pass through method.
+	 *
+	 * @param player the player whose cooldown is saved
+	 */
+	public void savePlayerCooldown(final Player player) {
+		cooldownMap.savePlayerCooldown(player);
+	}
+
+
 	/**
 	 * Cancel pending teleport for player
 	 *
@@ -117,17 +169,62 @@ public final class TeleportHandler {
 	public void cancelTeleport(final Player player) {
 
 		// if player is in warmup hashmap, cancel delayed teleport task and remove player from warmup hashmap
-		if (warmupMap.containsPlayer(player)) {
+		warmupMap.cancelPlayerWarmUp(player);
 
-			// get delayed teleport task id
-			int taskId = warmupMap.getTaskId(player);
+		// release any chunks preloaded for the teleport
+		chunkPreloader.release(player);
+	}
 
-			// cancel delayed teleport task
-			plugin.getServer().getScheduler().cancelTask(taskId);
 
-			// remove player from warmup hashmap
-			warmupMap.removePlayer(player);
-		}
+	/**
+	 * Release the destination chunks preloaded for a player's teleport
+	 *
+	 * @param player the player whose teleport has completed
+	 */
+	void releaseDestinationChunks(final Player player) {
+		chunkPreloader.release(player);
+	}
+
+
+	/**
+	 * Count a completed teleport to a destination, for the ranking of hot destinations
+	 *
+	 * @param destination the destination teleported to
+	 */
+	void recordDestinationUse(final Destination destination) {
+		hotChunkSet.recordUse(destination);
+	}
+
+
+	/**
+	 * Get the most used destinations, in rank order
+	 *
+	 * @param limit the maximum number of destinations to return
+	 * @return list of destination usage snapshots
+	 */
+	public List<HotDestination> getHotDestinations(final int limit) {
+		return hotChunkSet.getRanking(limit);
+	}
+
+
+	/**
+	 * Forget the chunk tickets held in a world that is being unloaded
+	 *
+	 * @param world the world being unloaded
+	 */
+	public void worldUnloaded(final World world) {
+		hotChunkSet.worldUnloaded(world.getUID());
+		chunkTickets.removeWorld(world.getUID());
+	}
+
+
+	/**
+	 * Get the number of chunks kept loaded for the most used destinations
+	 *
+	 * @return the count of pinned chunks
+	 */
+	public int getHotChunkCount() {
+		return hotChunkSet.getPinnedChunkCount();
 	}
 
 
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2022 Tim Savage.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.winterhavenmc.lodestar.teleport;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Hashed timing wheel that holds the teleport warmup, interact delay and particle deadlines of all players,
+ * and the cooldown sweep, flush and purge, driven by a single repeating task that ticks the wheel once
+ * per server tick.
+ * Each slot holds a doubly linked list of timeouts, so scheduling and cancelling are constant time,
+ * and each tick only visits the timeouts in one slot. Deadlines further away than one turn of the
+ * wheel wait in their slot for the remaining number of turns.
+ * <p>
+ * The wheel is not thread safe; timeouts must be scheduled and cancelled on the main server thread.
+ */
+final class TimingWheel {
+
+	// number of slots, a power of two; 512 ticks is about 25 seconds per turn
+	private static final int WHEEL_SIZE = 512;
+	private static final int MASK = WHEEL_SIZE - 1;
+
+	private final JavaPlugin plugin;
+
+	// head of the list of timeouts in each slot
+	private final Timeout[] slots = new Timeout[WHEEL_SIZE];
+
+	// number of ticks since the wheel was started
+	private long currentTick;
+
+	private int size;
+
+	// timeouts that expire on the current tick, reused between ticks
+	private final List<Timeout> expired = new ArrayList<>();
+
+	private BukkitTask tickTask;
+
+
+	/**
+	 * Class constructor
+	 *
+	 * @param plugin reference to plugin main class
+	 */
+	TimingWheel(final JavaPlugin plugin) {
+		this.plugin = plugin;
+	}
+
+
+	/**
+	 * Start ticking the wheel once per server tick
+	 */
+	void start() {
+		if (tickTask == null) {
+			tickTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+		}
+	}
+
+
+	/**
+	 * Stop ticking the wheel; pending timeouts are discarded
+	 */
+	void stop() {
+		if (tickTask != null) {
+			tickTask.cancel();
+			tickTask = null;
+		}
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			for (Timeout timeout = slots[i]; timeout != null; timeout = timeout.next) {
+				timeout.wheel = null;
+			}
+			slots[i] = null;
+		}
+		size = 0;
+	}
+
+
+	/**
+	 * Schedule a task to run on the main thread after a delay
+	 *
+	 * @param delayTicks the delay in server ticks; delays of less than one tick run on the next tick
+	 * @param task the task to run
+	 * @return the timeout, which may be used to cancel the task
+	 */
+	Timeout schedule(final long delayTicks, final Runnable task) {
+
+		final long delay = Math.max(1, delayTicks);
+		final long deadline = currentTick + delay;
+
+		final Timeout timeout = new Timeout(task);
+		timeout.slot = (int) (deadline & MASK);
+		timeout.remainingRounds = (delay - 1) / WHEEL_SIZE;
+		link(timeout);
+
+		return timeout;
+	}
+
+
+	/**
+	 * Get the number of pending timeouts
+	 *
+	 * @return the count of scheduled timeouts that have not run or been cancelled
+	 */
+	int size() {
+		return size;
+	}
+
+
+	/**
+	 * Advance the wheel one tick, and run the timeouts whose deadline has been reached
+	 */
+	void tick() {
+
+		currentTick++;
+
+		// collect expired timeouts first, since running tasks may schedule and cancel timeouts in this slot
+		for (Timeout timeout = slots[(int) (currentTick & MASK)]; timeout != null; timeout = timeout.next) {
+			if (timeout.remainingRounds > 0) {
+				timeout.remainingRounds--;
+			}
+			else {
+				expired.add(timeout);
+			}
+		}
+
+		for (int i = 0; i < expired.size(); i++) {
+			Timeout timeout = expired.get(i);
+
+			// skip timeouts cancelled by a task that ran before them
+			if (!timeout.isPending()) {
+				continue;
+			}
+
+			unlink(timeout);
+			try {
+				timeout.task.run();
+			}
+			catch (RuntimeException e) {
+				plugin.getLogger().warning("An error occurred while running a scheduled teleport task.");
+				plugin.getLogger().warning(e.getLocalizedMessage());
+				if (plugin.getConfig().getBoolean("debug")) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		expired.clear();
+	}
+
+
+	private void link(final Timeout timeout) {
+		Timeout head = slots[timeout.slot];
+		timeout.next = head;
+		if (head != null) {
+			head.prev = timeout;
+		}
+		slots[timeout.slot] = timeout;
+		timeout.wheel = this;
+		size++;
+	}
+
+
+	private void unlink(final Timeout timeout) {
+		if (timeout.prev != null) {
+			timeout.prev.next = timeout.next;
+		}
+		else {
+			slots[timeout.slot] = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.prev = timeout.prev;
+		}
+		timeout.prev = null;
+		timeout.next = null;
+		timeout.wheel = null;
+		size--;
+	}
+
+
+	/**
+	 * A task scheduled on the wheel
+	 */
+	static final class Timeout {
+
+		private final Runnable task;
+
+		// wheel the timeout is linked into, or null once it has run or been cancelled
+		private TimingWheel wheel;
+
+		private int slot;
+		private long remainingRounds;
+		private Timeout prev;
+		private Timeout next;
+
+		private Timeout(final Runnable task) {
+			this.task = task;
+		}
+
+		/**
+		 * Cancel the task if it has not run yet
+		 */
+		void cancel() {
+			if (wheel != null) {
+				wheel.unlink(this);
+			}
+		}
+
+		/**
+		 * Test if the task is still waiting to run
+		 *
+		 * @return true if the task has not run or been cancelled, false if it has
+		 */
+		boolean isPending() {
+			return wheel != null;
+		}
+	}
+
+}
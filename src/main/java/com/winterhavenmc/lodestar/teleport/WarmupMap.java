@@ -19,10 +19,8 @@ package com.winterhavenmc.lodestar.teleport;
 
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
-
-import java.util.Set;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -31,23 +29,28 @@ class WarmupMap {
 	// reference to plugin main class
 	private final JavaPlugin plugin;
 
-	// HashMap containing player UUID as key and warmup task id as value
-	private final ConcurrentHashMap<UUID, Integer> warmupMap;
+	// timing wheel that holds warmup and interact delay deadlines
+	private final TimingWheel timingWheel;
+
+	// HashMap containing player UUID as key and delayed teleport timeout as value
+	private final ConcurrentHashMap<UUID, TimingWheel.Timeout> warmupMap;
 
-	// Map containing player uuid for teleport initiated
-	private final Set<UUID> teleportInitiated;
+	// Map containing player uuid for teleport initiated, with timeout that removes the player
+	private final Map<UUID, TimingWheel.Timeout> teleportInitiated;
 
 
-	WarmupMap(final JavaPlugin plugin) {
+	WarmupMap(final JavaPlugin plugin, final TimingWheel timingWheel) {
 
 		// set reference to main class
 		this.plugin = plugin;
 
+		this.timingWheel = timingWheel;
+
 		// initialize warmup HashMap
 		warmupMap = new ConcurrentHashMap<>();
 
-		// initialize teleport initiated set
-		teleportInitiated = ConcurrentHashMap.newKeySet();
+		// initialize teleport initiated map
+		teleportInitiated = new ConcurrentHashMap<>();
 	}
 
 
@@ -73,36 +76,48 @@ class WarmupMap {
 
 
 	/**
-	 * Insert player uuid and taskId into warmup hashmap.
+	 * Insert player uuid and delayed teleport timeout into warmup hashmap.
 	 *
 	 * @param player the player to be inserted in the warmup map
-	 * @param taskId the taskId of the player's delayed teleport task
+	 * @param teleportTimeout the timeout of the player's delayed teleport task
 	 */
-	void startPlayerWarmUp(final Player player, final Integer taskId) {
+	void startPlayerWarmUp(final Player player, final TimingWheel.Timeout teleportTimeout) {
 
-		warmupMap.put(player.getUniqueId(), taskId);
+		final UUID playerUid = player.getUniqueId();
 
-		// insert player uuid into teleport initiated set
-		teleportInitiated.add(player.getUniqueId());
+		warmupMap.put(playerUid, teleportTimeout);
 
-		// create task to remove player uuid from tpi set after set amount of ticks
-		new BukkitRunnable() {
-			@Override
-			public void run() {
-				teleportInitiated.remove(player.getUniqueId());
-			}
-		}.runTaskLater(plugin, plugin.getConfig().getLong("interact-delay"));
+		// insert player uuid into teleport initiated map, removing it after set amount of ticks
+		TimingWheel.Timeout previous = teleportInitiated.put(playerUid,
+				timingWheel.schedule(plugin.getConfig().getLong("interact-delay"), () -> teleportInitiated.remove(playerUid)));
 
+		if (previous != null) {
+			previous.cancel();
+		}
 	}
 
 
-	boolean containsPlayer(final Player player) {
-		return warmupMap.containsKey(player.getUniqueId());
+	/**
+	 * Cancel the delayed teleport of a player, and remove the player from the warmup hashmap
+	 *
+	 * @param player the player whose teleport is cancelled
+	 * @return {@code true} if the player was warming up, {@code false} if not
+	 */
+	boolean cancelPlayerWarmUp(final Player player) {
+
+		TimingWheel.Timeout teleportTimeout = warmupMap.remove(player.getUniqueId());
+
+		if (teleportTimeout == null) {
+			return false;
+		}
+
+		teleportTimeout.cancel();
+		return true;
 	}
 
 
-	int getTaskId(final Player player) {
-		return warmupMap.get(player.getUniqueId());
+	boolean containsPlayer(final Player player) {
+		return warmupMap.containsKey(player.getUniqueId());
 	}
 
 
@@ -119,7 +134,7 @@ class WarmupMap {
 			return false;
 		}
 
-		return !teleportInitiated.contains(player.getUniqueId());
+		return !teleportInitiated.containsKey(player.getUniqueId());
 	}
 
 }
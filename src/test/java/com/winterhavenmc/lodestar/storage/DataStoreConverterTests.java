@@ -0,0 +1,193 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DataStoreConverterTests {
+
+	private PluginMain plugin;
+	private World world;
+
+	@BeforeAll
+	public void setUp() {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+		Destination.invalidateWorlds();
+	}
+
+	@AfterAll
+	public void tearDown() throws IOException {
+		deleteFiles();
+
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@BeforeEach
+	public void deleteFiles() throws IOException {
+		Files.deleteIfExists(storageFile(DataStoreType.LOG).toPath());
+		Files.deleteIfExists(storageFile(DataStoreType.MAPPED).toPath());
+		Files.deleteIfExists(retiredFile(DataStoreType.LOG).toPath());
+	}
+
+	@Test
+	@DisplayName("complete copy is verified against the backing datastore.")
+	void CopyVerified() throws Exception {
+		DataStoreLog source = new DataStoreLog(plugin);
+		source.initialize();
+		source.insertRecords(List.of(
+				new Destination("Convert_One", new Location(world, 1, 2, 3)),
+				new Destination("Convert_Two", new Location(world, 4, 5, 6)),
+				new Destination("Convert_Three", new Location(world, 7, 8, 9))));
+
+		DataStore target = new DataStoreCache(plugin, new DataStoreMapped(plugin));
+		target.initialize();
+
+		try {
+			DataStoreConverter.Result result = new DataStoreConverter(plugin, source, target).run();
+
+			Assertions.assertEquals(3, result.getRecordCount());
+			Assertions.assertEquals(3, result.getWrittenCount());
+			Assertions.assertTrue(result.isVerified(), "complete copy was not verified.");
+			Assertions.assertTrue(target.unwrap().selectRecord("convert_two").isPresent(), "record not in backing datastore.");
+		}
+		finally {
+			source.close();
+			target.close();
+		}
+	}
+
+	@Test
+	@DisplayName("copy missing a record rejected by the target is not verified.")
+	void CopyNotVerified() throws Exception {
+		// the log keeps records in unknown worlds, which the mapped datastore rejects
+		writeLogEntry("Known_World", world.getName(), world.getUID());
+		writeLogEntry("Unknown_World", "missing", UUID.randomUUID());
+
+		DataStoreLog source = new DataStoreLog(plugin);
+		source.initialize();
+
+		DataStore target = new DataStoreCache(plugin, new DataStoreMapped(plugin));
+		target.initialize();
+
+		try {
+			DataStoreConverter.Result result = new DataStoreConverter(plugin, source, target).run();
+
+			Assertions.assertEquals(2, result.getRecordCount());
+			Assertions.assertEquals(1, result.getWrittenCount());
+			Assertions.assertFalse(result.isVerified(), "incomplete copy was verified.");
+		}
+		finally {
+			source.close();
+			target.close();
+		}
+	}
+
+	@Test
+	@DisplayName("unverified source is renamed, so it is not converted again.")
+	void UnverifiedSourceRetired() throws Exception {
+		writeLogEntry("Known_World", world.getName(), world.getUID());
+		writeLogEntry("Unknown_World", "missing", UUID.randomUUID());
+
+		DataStore target = new DataStoreCache(plugin, new DataStoreMapped(plugin));
+		target.initialize();
+
+		try {
+			DataStoreType.convert(plugin, new DataStoreLog(plugin), target);
+
+			Assertions.assertFalse(DataStoreType.LOG.storageObjectExists(plugin), "unverified source still converted on start.");
+			Assertions.assertTrue(retiredFile(DataStoreType.LOG).exists(), "unverified source not kept.");
+			Assertions.assertTrue(target.selectRecord("known_world").isPresent(), "record not converted.");
+		}
+		finally {
+			target.close();
+		}
+	}
+
+	@Test
+	@DisplayName("copy of an empty datastore is verified.")
+	void EmptyCopyVerified() throws Exception {
+		DataStoreLog source = new DataStoreLog(plugin);
+		source.initialize();
+
+		DataStoreMapped target = new DataStoreMapped(plugin);
+		target.initialize();
+
+		try {
+			DataStoreConverter.Result result = new DataStoreConverter(plugin, source, target).run();
+
+			Assertions.assertEquals(0, result.getRecordCount());
+			Assertions.assertTrue(result.isVerified(), "empty copy was not verified.");
+		}
+		finally {
+			source.close();
+			target.close();
+		}
+	}
+
+
+	private File storageFile(final DataStoreType type) {
+		return new File(plugin.getDataFolder(), type.getStorageName());
+	}
+
+
+	private File retiredFile(final DataStoreType type) {
+		return new File(plugin.getDataFolder(), type.getStorageName() + ".unconverted");
+	}
+
+
+	/**
+	 * Append a put entry to the log datastore file, framed with its length and checksum
+	 */
+	private void writeLogEntry(final String key, final String worldName, final UUID worldUid) throws IOException {
+
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(payload);
+		out.writeByte(1);
+		out.writeUTF(key);
+		out.writeUTF(key);
+		out.writeUTF(worldName);
+		out.writeLong(worldUid.getMostSignificantBits());
+		out.writeLong(worldUid.getLeastSignificantBits());
+		out.writeDouble(0);
+		out.writeDouble(64);
+		out.writeDouble(0);
+		out.writeFloat(0);
+		out.writeFloat(0);
+
+		CRC32 crc = new CRC32();
+		crc.update(payload.toByteArray());
+
+		ByteArrayOutputStream entry = new ByteArrayOutputStream();
+		DataOutputStream frame = new DataOutputStream(entry);
+		frame.writeInt(payload.size());
+		frame.writeInt((int) crc.getValue());
+		frame.write(payload.toByteArray());
+
+		File logFile = storageFile(DataStoreType.LOG);
+		Files.createDirectories(logFile.getParentFile().toPath());
+		Files.write(logFile.toPath(), entry.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+}
@@ -0,0 +1,189 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DataStoreLogTests {
+
+	private PluginMain plugin;
+	private World world;
+	private Path logFilePath;
+
+	@BeforeAll
+	public void setUp() {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+		Destination.invalidateWorlds();
+
+		logFilePath = new File(plugin.getDataFolder(), DataStoreType.LOG.getStorageName()).toPath();
+	}
+
+	@AfterAll
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(logFilePath);
+
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@BeforeEach
+	public void deleteLog() throws IOException {
+		Files.deleteIfExists(logFilePath);
+	}
+
+	@Test
+	@DisplayName("inserts and deletes are replayed when the log is reopened.")
+	void Replay() throws IOException {
+		DataStoreLog dataStore = open();
+		dataStore.insertRecord(new Destination("Kept", new Location(world, 1, 1, 1)));
+		dataStore.insertRecord(new Destination("Removed", new Location(world, 2, 2, 2)));
+		dataStore.deleteRecord("removed");
+		dataStore.insertRecord(new Destination("Kept", new Location(world, 5, 5, 5)));
+		dataStore.close();
+
+		dataStore = open();
+		try {
+			Optional<Destination> destination = dataStore.selectRecord("KEPT");
+			Assertions.assertTrue(destination.isPresent(), "record not replayed.");
+			Assertions.assertEquals(5, destination.get().getX());
+			Assertions.assertFalse(dataStore.selectRecord("removed").isPresent(), "deleted record replayed.");
+		}
+		finally {
+			dataStore.close();
+		}
+	}
+
+	@Test
+	@DisplayName("torn entry at the end of the log is truncated.")
+	void TornEntry() throws IOException {
+		DataStoreLog dataStore = open();
+		dataStore.insertRecord(new Destination("Before_Tear", new Location(world, 0, 0, 0)));
+		dataStore.close();
+
+		final long validLength = Files.size(logFilePath);
+
+		// frame header claiming a longer payload than was written
+		Files.write(logFilePath, new byte[] { 0, 0, 0, 100, 1, 2, 3, 4, 1, 0 }, StandardOpenOption.APPEND);
+
+		dataStore = open();
+		try {
+			Assertions.assertTrue(dataStore.selectRecord("before_tear").isPresent(), "record before the torn entry lost.");
+			Assertions.assertEquals(validLength, Files.size(logFilePath), "torn entry not truncated.");
+		}
+		finally {
+			dataStore.close();
+		}
+	}
+
+	@Test
+	@DisplayName("corrupt entry in the middle of the log is skipped, keeping later entries.")
+	void CorruptEntry() throws IOException {
+		DataStoreLog dataStore = open();
+		dataStore.insertRecord(new Destination("First", new Location(world, 0, 0, 0)));
+		dataStore.close();
+
+		final long corruptPosition = Files.size(logFilePath);
+
+		dataStore = open();
+		dataStore.insertRecord(new Destination("Corrupted", new Location(world, 0, 0, 0)));
+		dataStore.insertRecord(new Destination("Last", new Location(world, 0, 0, 0)));
+		dataStore.close();
+
+		// flip a byte in the payload of the second entry
+		try (RandomAccessFile file = new RandomAccessFile(logFilePath.toFile(), "rw")) {
+			file.seek(corruptPosition + 12);
+			int value = file.read();
+			file.seek(corruptPosition + 12);
+			file.write(value ^ 0xFF);
+		}
+
+		dataStore = open();
+		dataStore.close();
+
+		// reopen after the compaction queued for the corrupt log, which removes the corrupt entry
+		dataStore = open();
+		try {
+			Assertions.assertTrue(dataStore.selectRecord("first").isPresent(), "entry before corruption lost.");
+			Assertions.assertFalse(dataStore.selectRecord("corrupted").isPresent(), "corrupt entry replayed.");
+			Assertions.assertTrue(dataStore.selectRecord("last").isPresent(), "entry after corruption lost.");
+		}
+		finally {
+			dataStore.close();
+		}
+	}
+
+	@Test
+	@DisplayName("delete removes the log and a compacted log left by a crash.")
+	void DeleteRemovesCompactedLog() throws IOException {
+		DataStoreLog dataStore = open();
+		dataStore.insertRecord(new Destination("Deleted", new Location(world, 0, 0, 0)));
+		dataStore.close();
+
+		Path compactionPath = logFilePath.resolveSibling(logFilePath.getFileName() + ".compact");
+		Files.write(compactionPath, new byte[] { 1, 2, 3 });
+
+		Assertions.assertTrue(dataStore.delete(), "log not deleted.");
+		Assertions.assertFalse(Files.exists(logFilePath), "log still present.");
+		Assertions.assertFalse(Files.exists(compactionPath), "compacted log still present.");
+	}
+
+	@Test
+	@DisplayName("log is compacted once dead entries pass the threshold.")
+	void Compaction() throws IOException {
+		plugin.getConfig().set("storage.log.compaction-threshold", 0.5);
+		plugin.getConfig().set("storage.log.compaction-min-entries", 10);
+
+		DataStoreLog dataStore = open();
+		dataStore.insertRecord(new Destination("Churn", new Location(world, 0, 0, 0)));
+		dataStore.close();
+
+		final long singleEntryLength = Files.size(logFilePath);
+
+		dataStore = open();
+		for (int x = 1; x <= 50; x++) {
+			dataStore.insertRecord(new Destination("Churn", new Location(world, x, 0, 0)));
+		}
+
+		// close waits for the queued compaction to finish
+		dataStore.close();
+
+		Assertions.assertTrue(Files.size(logFilePath) < singleEntryLength * 10, "log was not compacted.");
+
+		dataStore = open();
+		try {
+			Optional<Destination> destination = dataStore.selectRecord("churn");
+			Assertions.assertTrue(destination.isPresent(), "record lost by compaction.");
+			Assertions.assertEquals(50, destination.get().getX());
+		}
+		finally {
+			dataStore.close();
+		}
+	}
+
+
+	private DataStoreLog open() throws IOException {
+		DataStoreLog dataStore = new DataStoreLog(plugin);
+		dataStore.initialize();
+		return dataStore;
+	}
+
+}
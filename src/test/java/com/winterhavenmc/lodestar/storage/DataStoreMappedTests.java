@@ -0,0 +1,140 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DataStoreMappedTests {
+
+	private PluginMain plugin;
+	private World world;
+	private DataStoreMapped dataStore;
+
+	@BeforeAll
+	public void setUp() throws Exception {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+		Destination.invalidateWorlds();
+
+		dataStore = new DataStoreMapped(plugin);
+		dataStore.delete();
+		dataStore.initialize();
+	}
+
+	@AfterAll
+	public void tearDown() {
+		dataStore.close();
+		dataStore.delete();
+
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@Test
+	@DisplayName("datastore is initialized.")
+	void DataStoreInitialized() {
+		Assertions.assertTrue(dataStore.isInitialized(), "datastore is not initialized.");
+	}
+
+	@Test
+	@DisplayName("inserted record can be selected case-insensitively.")
+	void InsertAndSelect() {
+		dataStore.insertRecord(new Destination("Mapped_Test", new Location(world, 1, 2, 3)));
+
+		Optional<Destination> destination = dataStore.selectRecord("MAPPED_TEST");
+		Assertions.assertTrue(destination.isPresent(), "inserted record not found.");
+		Assertions.assertEquals("Mapped_Test", destination.get().getDisplayName());
+		Assertions.assertEquals(world.getUID(), destination.get().getWorldUid());
+		Assertions.assertEquals(2, destination.get().getY());
+	}
+
+	@Test
+	@DisplayName("records read before a rewrite are still read correctly after it.")
+	void ReadAfterRewrite() {
+		dataStore.insertRecord(new Destination("Before_Rewrite", new Location(world, 4, 5, 6)));
+		Assertions.assertTrue(dataStore.selectRecord("before_rewrite").isPresent(), "inserted record not found.");
+
+		dataStore.insertRecord(new Destination("After_Rewrite", new Location(world, 7, 8, 9)));
+
+		Optional<Destination> destination = dataStore.selectRecord("before_rewrite");
+		Assertions.assertTrue(destination.isPresent(), "record lost by rewrite.");
+		Assertions.assertEquals(4, destination.get().getX());
+	}
+
+	@Test
+	@DisplayName("batch insert writes all records, and keys are returned in order.")
+	void InsertRecordsInOrder() {
+		int count = dataStore.insertRecords(List.of(
+				new Destination("Batch_C", new Location(world, 0, 0, 0)),
+				new Destination("Batch_A", new Location(world, 0, 0, 0)),
+				new Destination("Batch_B", new Location(world, 0, 0, 0))));
+
+		Assertions.assertEquals(3, count);
+		Assertions.assertEquals(List.of("Batch_A", "Batch_B", "Batch_C"), dataStore.selectKeysByPrefix("batch_", 10));
+	}
+
+	@Test
+	@DisplayName("record in a world that is not loaded is not inserted.")
+	void InsertInvalidWorld() {
+		Destination destination = new Destination("No_World", "No_World", "missing",
+				UUID.randomUUID(), 0, 0, 0, 0, 0);
+
+		Assertions.assertEquals(0, dataStore.insertRecords(List.of(destination)));
+		Assertions.assertFalse(dataStore.selectRecord("no_world").isPresent(), "record in invalid world inserted.");
+	}
+
+	@Test
+	@DisplayName("rejected record is not counted as written.")
+	void RejectedInsertNotCounted() {
+		InstrumentedDataStore instrumented = new InstrumentedDataStore(dataStore);
+		Destination destination = new Destination("No_World", "No_World", "missing",
+				UUID.randomUUID(), 0, 0, 0, 0, 0);
+
+		Assertions.assertFalse(instrumented.insertRecord(destination), "record in invalid world accepted.");
+		Assertions.assertTrue(instrumented.insertRecord(new Destination("Counted", new Location(world, 0, 0, 0))),
+				"record in loaded world rejected.");
+		Assertions.assertEquals(1, instrumented.getStatistics().orElseThrow().getRowsWritten());
+	}
+
+	@Test
+	@DisplayName("deleted record is returned and removed.")
+	void DeleteRecord() {
+		dataStore.insertRecord(new Destination("Deleted", new Location(world, 0, 0, 0)));
+
+		Assertions.assertTrue(dataStore.deleteRecord("deleted").isPresent(), "deleted record not returned.");
+		Assertions.assertFalse(dataStore.selectRecord("deleted").isPresent(), "deleted record still present.");
+		Assertions.assertFalse(dataStore.deleteRecord("deleted").isPresent(), "missing record returned by delete.");
+	}
+
+	@Test
+	@DisplayName("records are read from the file when the datastore is reopened.")
+	void Reopen() throws Exception {
+		dataStore.insertRecord(new Destination("Persisted", new Location(world, 10, 20, 30)));
+
+		DataStoreMapped reopened = new DataStoreMapped(plugin);
+		reopened.initialize();
+		try {
+			Optional<Destination> destination = reopened.selectRecord("persisted");
+			Assertions.assertTrue(destination.isPresent(), "record not found after reopen.");
+			Assertions.assertEquals(30, destination.get().getZ());
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DataStoreSQLTests {
+
+	private PluginMain plugin;
+	private World world;
+	private DataStoreSQL dataStore;
+
+	@BeforeAll
+	public void setUp() throws Exception {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+
+		// in-memory H2 database in MySQL mode stands in for a networked server;
+		// the MySQL driver properties set by the dialect are ignored by H2
+		plugin.getConfig().set("storage.sql.dialect", "MySQL");
+		plugin.getConfig().set("storage.sql.url", "jdbc:h2:mem:lodestar;MODE=MySQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE");
+		plugin.getConfig().set("storage.sql.username", "sa");
+		plugin.getConfig().set("storage.sql.password", "");
+
+		dataStore = new DataStoreSQL(plugin);
+		dataStore.initialize();
+	}
+
+	@AfterAll
+	public void tearDown() {
+		dataStore.close();
+
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@Test
+	@DisplayName("datastore is initialized.")
+	void DataStoreInitialized() {
+		Assertions.assertTrue(dataStore.isInitialized(), "datastore is not initialized.");
+	}
+
+	@Test
+	@DisplayName("inserted record can be selected case-insensitively.")
+	void InsertAndSelect() {
+		dataStore.insertRecord(new Destination("Sql_Test", new Location(world, 1, 2, 3)));
+
+		Optional<Destination> destination = dataStore.selectRecord("SQL_TEST");
+		Assertions.assertTrue(destination.isPresent(), "inserted record not found.");
+		Assertions.assertEquals("Sql_Test", destination.get().getDisplayName());
+		Assertions.assertEquals(2, destination.get().getY());
+	}
+
+	@Test
+	@DisplayName("insert replaces existing record with same key.")
+	void InsertReplaces() {
+		dataStore.insertRecord(new Destination("Replaced", new Location(world, 1, 1, 1)));
+		dataStore.insertRecord(new Destination("Replaced", new Location(world, 5, 5, 5)));
+
+		Optional<Destination> destination = dataStore.selectRecord("replaced");
+		Assertions.assertTrue(destination.isPresent(), "replaced record not found.");
+		Assertions.assertEquals(5, destination.get().getX());
+	}
+
+	@Test
+	@DisplayName("prefix query returns only matching keys.")
+	void SelectKeysByPrefix() {
+		dataStore.insertRecord(new Destination("Prefix_One", new Location(world, 0, 0, 0)));
+		dataStore.insertRecord(new Destination("Prefix_Two", new Location(world, 0, 0, 0)));
+		dataStore.insertRecord(new Destination("PrefixThree", new Location(world, 0, 0, 0)));
+
+		List<String> keys = dataStore.selectKeysByPrefix("prefix_", 10);
+		Assertions.assertEquals(2, keys.size(), "underscore in prefix was not matched literally.");
+
+		DestinationPage page = dataStore.selectPage(0, 1, world.getName(), "prefix");
+		Assertions.assertEquals(3, page.getTotalCount());
+		Assertions.assertEquals(1, page.getDestinations().size());
+	}
+
+	@Test
+	@DisplayName("deleted record is returned and removed.")
+	void DeleteRecord() {
+		dataStore.insertRecord(new Destination("Deleted", new Location(world, 0, 0, 0)));
+
+		Assertions.assertTrue(dataStore.deleteRecord("deleted").isPresent(), "deleted record not returned.");
+		Assertions.assertFalse(dataStore.selectRecord("deleted").isPresent(), "deleted record still present.");
+	}
+
+	@Test
+	@DisplayName("changes since a revision include inserted and deleted records.")
+	void SelectChangesSince() {
+		long revision = dataStore.selectRevision();
+
+		dataStore.insertRecord(new Destination("Changed", new Location(world, 0, 0, 0)));
+		dataStore.insertRecord(new Destination("Removed", new Location(world, 0, 0, 0)));
+		dataStore.deleteRecord("removed");
+
+		List<String> inserted = new ArrayList<>();
+		List<String> deleted = new ArrayList<>();
+		long newRevision = dataStore.selectChangesSince(revision,
+				destination -> inserted.add(destination.getDisplayName()), deleted::add);
+
+		Assertions.assertEquals(revision + 3, newRevision);
+		Assertions.assertEquals(List.of("Changed"), inserted);
+		Assertions.assertEquals(List.of("removed"), deleted);
+
+		Assertions.assertEquals(newRevision, dataStore.selectChangesSince(newRevision,
+				destination -> Assertions.fail("unchanged record returned."),
+				key -> Assertions.fail("unchanged key returned.")));
+	}
+
+}
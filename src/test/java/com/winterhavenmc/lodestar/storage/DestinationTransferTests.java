@@ -0,0 +1,197 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DestinationTransferTests {
+
+	private PluginMain plugin;
+	private World world;
+	private DataStoreLog dataStore;
+
+	@BeforeAll
+	public void setUp() {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+		Destination.invalidateWorlds();
+	}
+
+	@AfterAll
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(logFile().toPath());
+
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@BeforeEach
+	public void openDataStore() throws IOException {
+		Files.deleteIfExists(logFile().toPath());
+		dataStore = new DataStoreLog(plugin);
+		dataStore.initialize();
+	}
+
+	@AfterEach
+	public void closeDataStore() {
+		dataStore.close();
+	}
+
+	@Test
+	@DisplayName("binary export can be imported into an empty datastore.")
+	void BinaryRoundTrip() throws IOException {
+		insertSampleRecords();
+		Assertions.assertEquals(3, new DestinationTransfer(plugin, dataStore).exportTo("round_trip.bin").getCount());
+
+		emptyDataStore();
+
+		TransferResult result = new DestinationTransfer(plugin, dataStore).importFrom("round_trip.bin");
+		Assertions.assertEquals(3, result.getCount());
+		Assertions.assertEquals(0, result.getSkipped());
+		assertSampleRecords();
+	}
+
+	@Test
+	@DisplayName("csv export can be imported into an empty datastore.")
+	void CsvRoundTrip() throws IOException {
+		insertSampleRecords();
+		Assertions.assertEquals(3, new DestinationTransfer(plugin, dataStore).exportTo("round_trip.csv").getCount());
+
+		emptyDataStore();
+
+		TransferResult result = new DestinationTransfer(plugin, dataStore).importFrom("round_trip.csv");
+		Assertions.assertEquals(3, result.getCount());
+		Assertions.assertEquals(0, result.getSkipped());
+		assertSampleRecords();
+	}
+
+	@Test
+	@DisplayName("csv export of a name with line breaks can be imported.")
+	void CsvLineBreakRoundTrip() throws IOException {
+		dataStore.insertRecords(List.of(
+				new Destination("Two\nLines", new Location(world, 1, 2, 3)),
+				new Destination("After", new Location(world, 4, 5, 6))));
+		Assertions.assertEquals(2, new DestinationTransfer(plugin, dataStore).exportTo("line_break.csv").getCount());
+
+		emptyDataStore();
+
+		TransferResult result = new DestinationTransfer(plugin, dataStore).importFrom("line_break.csv");
+		Assertions.assertEquals(2, result.getCount());
+		Assertions.assertEquals(0, result.getSkipped());
+
+		Optional<Destination> destination = dataStore.selectRecord(Destination.deriveKey("Two\nLines"));
+		Assertions.assertTrue(destination.isPresent(), "record with line break not imported.");
+		Assertions.assertEquals("Two\nLines", destination.get().getDisplayName());
+		Assertions.assertTrue(dataStore.selectRecord("after").isPresent(), "record after line break not imported.");
+	}
+
+	@Test
+	@DisplayName("damaged binary file imports nothing.")
+	void DamagedBinary() throws IOException {
+		insertSampleRecords();
+		new DestinationTransfer(plugin, dataStore).exportTo("damaged.bin");
+
+		emptyDataStore();
+
+		File file = transferFile("damaged.bin");
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			randomAccessFile.seek(file.length() / 2);
+			int value = randomAccessFile.read();
+			randomAccessFile.seek(file.length() / 2);
+			randomAccessFile.write(value ^ 0xFF);
+		}
+
+		Assertions.assertThrows(IOException.class,
+				() -> new DestinationTransfer(plugin, dataStore).importFrom("damaged.bin"));
+		Assertions.assertTrue(dataStore.selectAllKeys().isEmpty(), "records imported from damaged file.");
+	}
+
+	@Test
+	@DisplayName("edited csv keys are derived, and records in unknown worlds are skipped.")
+	void EditedCsv() throws IOException {
+		Files.createDirectories(transferFile("edited.csv").getParentFile().toPath());
+		Files.write(transferFile("edited.csv").toPath(), List.of(
+				"key,display_name,world_name,world_uid,x,y,z,yaw,pitch",
+				",Edited Name,world,,1,2,3,0,0",
+				"Elsewhere,Elsewhere,missing_world,,1,2,3,0,0",
+				"Short,line"), StandardCharsets.UTF_8);
+
+		TransferResult result = new DestinationTransfer(plugin, dataStore).importFrom("edited.csv");
+		Assertions.assertEquals(1, result.getCount());
+		Assertions.assertEquals(2, result.getSkipped());
+
+		Optional<Destination> destination = dataStore.selectRecord("edited_name");
+		Assertions.assertTrue(destination.isPresent(), "record with derived key not imported.");
+		Assertions.assertEquals("Edited_Name", destination.get().getKey());
+		Assertions.assertEquals("Edited Name", destination.get().getDisplayName());
+		Assertions.assertEquals(world.getUID(), destination.get().getWorldUid());
+	}
+
+	@Test
+	@DisplayName("file names with path separators are rejected.")
+	void InvalidFileName() {
+		Assertions.assertFalse(DestinationTransfer.isValidFileName("../destinations.db"), "parent path accepted.");
+		Assertions.assertFalse(DestinationTransfer.isValidFileName("sub/file.csv"), "path separator accepted.");
+		Assertions.assertTrue(DestinationTransfer.isValidFileName("backup-1.csv"), "valid file name rejected.");
+	}
+
+
+	private void insertSampleRecords() {
+		dataStore.insertRecords(List.of(
+				new Destination("Plain", new Location(world, 1.5, 64, -2.5, 90, 10)),
+				new Destination("Quoted, \"Name\"", new Location(world, 3, 70, 4)),
+				new Destination("Spaced Name", new Location(world, -100, 5, 100))));
+	}
+
+
+	private void assertSampleRecords() {
+		Optional<Destination> plain = dataStore.selectRecord("plain");
+		Assertions.assertTrue(plain.isPresent(), "record not imported.");
+		Assertions.assertEquals(1.5, plain.get().getX());
+		Assertions.assertEquals(-2.5, plain.get().getZ());
+		Assertions.assertEquals(90, plain.get().getYaw());
+		Assertions.assertEquals(world.getUID(), plain.get().getWorldUid());
+
+		Optional<Destination> quoted = dataStore.selectRecord(Destination.deriveKey("Quoted, \"Name\""));
+		Assertions.assertTrue(quoted.isPresent(), "record with quoted name not imported.");
+		Assertions.assertEquals("Quoted, \"Name\"", quoted.get().getDisplayName());
+
+		Assertions.assertTrue(dataStore.selectRecord("spaced_name").isPresent(), "record with spaced name not imported.");
+	}
+
+
+	private void emptyDataStore() {
+		for (String key : dataStore.selectAllKeys()) {
+			dataStore.deleteRecord(key);
+		}
+	}
+
+
+	private File logFile() {
+		return new File(plugin.getDataFolder(), DataStoreType.LOG.getStorageName());
+	}
+
+
+	private File transferFile(final String fileName) {
+		return new File(new File(plugin.getDataFolder(), DestinationTransfer.FOLDER_NAME), fileName);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.winterhavenmc.lodestar.storage;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class LatencyHistogramTests {
+
+	@Test
+	@DisplayName("empty histogram reports zero.")
+	void Empty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		Assertions.assertEquals(0, histogram.getCount());
+		Assertions.assertEquals(0, histogram.getMax());
+		Assertions.assertEquals(0, histogram.getPercentile(99));
+	}
+
+	@Test
+	@DisplayName("small values are reported exactly.")
+	void SmallValuesExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int value = 0; value < 32; value++) {
+			histogram.record(value);
+		}
+
+		Assertions.assertEquals(32, histogram.getCount());
+		Assertions.assertEquals(15, histogram.getPercentile(50));
+		Assertions.assertEquals(31, histogram.getPercentile(100));
+	}
+
+	@Test
+	@DisplayName("bucket bounds are within one sub-bucket above the recorded value.")
+	void BucketBounds() {
+		for (long value : new long[] { 32, 33, 63, 64, 65, 1000, 123_456, 987_654_321L }) {
+			LatencyHistogram histogram = new LatencyHistogram();
+			histogram.record(value);
+			histogram.record(value * 10);
+
+			long bound = histogram.getPercentile(50);
+			Assertions.assertTrue(bound >= value, "percentile understates " + value + ".");
+			Assertions.assertTrue(bound <= value + value / 32, "percentile of " + value + " is " + bound + ".");
+		}
+	}
+
+	@Test
+	@DisplayName("percentile is capped at the largest recorded value.")
+	void CappedAtMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000);
+
+		Assertions.assertEquals(1000, histogram.getMax());
+		Assertions.assertEquals(1000, histogram.getPercentile(100));
+	}
+
+	@Test
+	@DisplayName("negative and very large values are clamped.")
+	void Clamped() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+
+		Assertions.assertEquals(2, histogram.getCount());
+		Assertions.assertEquals(0, histogram.getPercentile(50));
+		Assertions.assertEquals((1L << 37) - 1, histogram.getMax());
+	}
+
+	@Test
+	@DisplayName("recordings from several threads are all counted.")
+	void ConcurrentRecording() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					histogram.record(i);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Assertions.assertEquals(40_000, histogram.getCount());
+		Assertions.assertEquals(9_999, histogram.getMax());
+	}
+
+}
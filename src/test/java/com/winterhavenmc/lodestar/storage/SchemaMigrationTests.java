@@ -0,0 +1,183 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.sql.*;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SchemaMigrationTests {
+
+	private PluginMain plugin;
+	private World world;
+
+	@BeforeAll
+	public void setUp() throws Exception {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+		Destination.invalidateWorlds();
+
+		Queries.load();
+	}
+
+	@AfterAll
+	public void tearDown() {
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@Test
+	@DisplayName("new database is created at the latest schema version.")
+	void NewDatabase() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+
+			Assertions.assertEquals(SchemaMigration.latestVersion(), SchemaMigration.migrate(plugin, connection));
+			Assertions.assertEquals(SchemaMigration.latestVersion(), userVersion(connection));
+			Assertions.assertTrue(tableExists(connection, "destinations"), "destination table not created.");
+			Assertions.assertTrue(tableExists(connection, "cooldowns"), "cooldown table not created.");
+		}
+	}
+
+	@Test
+	@DisplayName("v0 records are migrated with world uids, keeping records of unknown worlds.")
+	void MigrateV0() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+
+			createV0Table(connection);
+			insertV0Record(connection, "loaded", world.getName());
+			insertV0Record(connection, "unknown", "missing_world");
+
+			Assertions.assertEquals(SchemaMigration.latestVersion(), SchemaMigration.migrate(plugin, connection));
+			Assertions.assertEquals(SchemaMigration.latestVersion(), userVersion(connection));
+
+			try (PreparedStatement statement = connection.prepareStatement(
+					"SELECT worldUidMsb, worldUidLsb FROM destinations WHERE key = ?")) {
+
+				statement.setString(1, "loaded");
+				try (ResultSet rs = statement.executeQuery()) {
+					Assertions.assertTrue(rs.next(), "record of loaded world was lost.");
+					Assertions.assertEquals(world.getUID().getMostSignificantBits(), rs.getLong(1));
+					Assertions.assertEquals(world.getUID().getLeastSignificantBits(), rs.getLong(2));
+				}
+
+				statement.setString(1, "unknown");
+				try (ResultSet rs = statement.executeQuery()) {
+					Assertions.assertTrue(rs.next(), "record of unknown world was lost.");
+					Assertions.assertEquals(0, rs.getLong(1));
+					Assertions.assertEquals(0, rs.getLong(2));
+				}
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("keys differing only by case are merged by the v2 migration.")
+	void MergeCaseVariants() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+
+			createV0Table(connection);
+			insertV0Record(connection, "Mixed_Case", world.getName());
+			insertV0Record(connection, "mixed_case", world.getName());
+
+			SchemaMigration.migrate(plugin, connection);
+
+			Assertions.assertEquals(1, countRecords(connection), "case variants were not merged.");
+		}
+	}
+
+	@Test
+	@DisplayName("most recently written case variant is kept by the v2 migration.")
+	void KeepLatestCaseVariant() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate(Queries.getQuery("CreateMigrationTableV1"));
+				statement.executeUpdate(Queries.getQuery("RenameMigrationTable"));
+				statement.executeUpdate("PRAGMA user_version = 1");
+				statement.executeUpdate("INSERT INTO destinations VALUES ('latest_case', 'older', 'world', 0, 0, 1, 2, 3, 0, 0)");
+				statement.executeUpdate("INSERT INTO destinations VALUES ('Latest_Case', 'newer', 'world', 0, 0, 1, 2, 3, 0, 0)");
+			}
+
+			SchemaMigration.migrate(plugin, connection);
+
+			try (Statement statement = connection.createStatement();
+			     ResultSet rs = statement.executeQuery("SELECT key, displayname FROM destinations")) {
+				Assertions.assertTrue(rs.next(), "case variants were all dropped.");
+				Assertions.assertEquals("Latest_Case", rs.getString("key"));
+				Assertions.assertEquals("newer", rs.getString("displayname"));
+				Assertions.assertFalse(rs.next(), "case variants were not merged.");
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("database at the latest version is not migrated again.")
+	void AlreadyCurrent() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+
+			createV0Table(connection);
+			insertV0Record(connection, "current", world.getName());
+			SchemaMigration.migrate(plugin, connection);
+
+			Assertions.assertEquals(SchemaMigration.latestVersion(), SchemaMigration.migrate(plugin, connection));
+			Assertions.assertEquals(1, countRecords(connection), "records changed by second migration.");
+		}
+	}
+
+
+	private static void createV0Table(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("CREATE TABLE destinations (key VARCHAR PRIMARY KEY NOT NULL, displayname VARCHAR, "
+					+ "worldname VARCHAR(255) NOT NULL, x DOUBLE NOT NULL, y DOUBLE NOT NULL, z DOUBLE NOT NULL, "
+					+ "yaw FLOAT NOT NULL, pitch FLOAT NOT NULL)");
+		}
+	}
+
+
+	private static void insertV0Record(final Connection connection, final String key, final String worldName) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO destinations (key, displayname, worldname, x, y, z, yaw, pitch) VALUES (?,?,?,1,2,3,0,0)")) {
+			statement.setString(1, key);
+			statement.setString(2, key);
+			statement.setString(3, worldName);
+			statement.executeUpdate();
+		}
+	}
+
+
+	private static int userVersion(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+		     ResultSet rs = statement.executeQuery("PRAGMA user_version")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+
+	private static boolean tableExists(final Connection connection, final String tableName) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"SELECT name FROM sqlite_master WHERE type='table' AND name = ?")) {
+			statement.setString(1, tableName);
+			try (ResultSet rs = statement.executeQuery()) {
+				return rs.next();
+			}
+		}
+	}
+
+
+	private static int countRecords(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+		     ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM destinations")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+}
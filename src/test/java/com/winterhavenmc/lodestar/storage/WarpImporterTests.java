@@ -0,0 +1,171 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class WarpImporterTests {
+
+	private PluginMain plugin;
+	private World world;
+	private DataStoreLog dataStore;
+
+	@BeforeAll
+	public void setUp() throws IOException {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+		Destination.invalidateWorlds();
+
+		writeWarpFile("WarpTest/warps.yml",
+				"warps:",
+				"  market:",
+				"    world: world",
+				"    x: 10.5",
+				"    y: 64",
+				"    z: -3",
+				"    yaw: 90",
+				"  Nether Gate:",
+				"    world: " + world.getUID(),
+				"    x: 1",
+				"    y: 2",
+				"    z: 3",
+				"    tags: [ portal, nether ]",
+				"  lost:",
+				"    world: missing_world",
+				"    x: 0",
+				"    y: 0",
+				"    z: 0",
+				"  broken:",
+				"    world: world",
+				"    x: not_a_number",
+				"    y: 0",
+				"    z: 0");
+
+		writeWarpFile("WarpTest/essentials/base.yml",
+				"world: " + world.getUID(),
+				"world-name: world",
+				"x: 5",
+				"y: 6",
+				"z: 7",
+				"name: Base Camp");
+
+		writeWarpFile("WarpTest/essentials/old.yml",
+				"world: world",
+				"x: 8",
+				"y: 9",
+				"z: 10");
+
+		writeWarpFile("WarpTest/essentials/repeated.yml",
+				"world: world",
+				"x: 0",
+				"y: 0",
+				"z: 0",
+				"name: base camp");
+	}
+
+	@AfterAll
+	public void tearDown() {
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@BeforeEach
+	public void openDataStore() throws IOException {
+		Files.deleteIfExists(new File(plugin.getDataFolder(), DataStoreType.LOG.getStorageName()).toPath());
+		dataStore = new DataStoreLog(plugin);
+		dataStore.initialize();
+	}
+
+	@AfterEach
+	public void closeDataStore() {
+		dataStore.close();
+	}
+
+	@Test
+	@DisplayName("yaml warps are imported, skipping warps in unknown worlds or with bad coordinates.")
+	void ImportYaml() throws IOException {
+		TransferResult result = new WarpImporter(plugin, dataStore, WarpFormat.YAML, false).importFrom("WarpTest/warps.yml");
+
+		Assertions.assertEquals(2, result.getCount());
+		Assertions.assertEquals(2, result.getSkipped());
+		Assertions.assertEquals(0, result.getConflicts());
+
+		Optional<Destination> market = dataStore.selectRecord("market");
+		Assertions.assertTrue(market.isPresent(), "warp named by mapping key not imported.");
+		Assertions.assertEquals(10.5, market.get().getX());
+		Assertions.assertEquals(90, market.get().getYaw());
+		Assertions.assertEquals(world.getUID(), market.get().getWorldUid());
+
+		Optional<Destination> gate = dataStore.selectRecord("nether_gate");
+		Assertions.assertTrue(gate.isPresent(), "warp with world uid not imported.");
+		Assertions.assertEquals("Nether Gate", gate.get().getDisplayName());
+	}
+
+	@Test
+	@DisplayName("essentials warps are imported from a folder, reporting repeated names as conflicts.")
+	void ImportEssentialsFolder() throws IOException {
+		TransferResult result = new WarpImporter(plugin, dataStore, WarpFormat.ESSENTIALS, false).importFrom("WarpTest/essentials");
+
+		Assertions.assertEquals(2, result.getCount());
+		Assertions.assertEquals(1, result.getConflicts());
+
+		Optional<Destination> base = dataStore.selectRecord("base_camp");
+		Assertions.assertTrue(base.isPresent(), "warp named by name field not imported.");
+		Assertions.assertEquals(5, base.get().getX());
+
+		Assertions.assertTrue(dataStore.selectRecord("old").isPresent(), "warp named by file name not imported.");
+	}
+
+	@Test
+	@DisplayName("existing destination is not replaced by a warp with the same name.")
+	void ExistingNotReplaced() throws IOException {
+		dataStore.insertRecord(new Destination("Market", new Location(world, 100, 100, 100)));
+
+		TransferResult result = new WarpImporter(plugin, dataStore, WarpFormat.YAML, false).importFrom("WarpTest/warps.yml");
+
+		Assertions.assertEquals(1, result.getCount());
+		Assertions.assertEquals(1, result.getConflicts());
+		Assertions.assertEquals(100, dataStore.selectRecord("market").orElseThrow().getX());
+	}
+
+	@Test
+	@DisplayName("dry run counts warps without writing them.")
+	void DryRun() throws IOException {
+		TransferResult result = new WarpImporter(plugin, dataStore, WarpFormat.YAML, true).importFrom("WarpTest/warps.yml");
+
+		Assertions.assertEquals(2, result.getCount());
+		Assertions.assertTrue(dataStore.selectAllKeys().isEmpty(), "dry run wrote records.");
+	}
+
+	@Test
+	@DisplayName("paths outside the plugins folder are refused.")
+	void OutsidePluginsFolder() {
+		Assertions.assertThrows(IOException.class,
+				() -> new WarpImporter(plugin, dataStore, WarpFormat.YAML, true).importFrom("../warps.yml"));
+	}
+
+
+	private void writeWarpFile(final String path, final String... lines) throws IOException {
+		File file = new File(plugin.getDataFolder().getParentFile(), path);
+		Files.createDirectories(file.getParentFile().toPath());
+		Files.write(file.toPath(), List.of(lines), StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.winterhavenmc.lodestar.storage;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class WriteQueueTests {
+
+	private World world;
+	private DataStore dataStore;
+	private Connection connection;
+	private WriteQueue writeQueue;
+
+	@BeforeAll
+	public void setUp() throws Exception {
+		// Start the mock server
+		ServerMock server = MockBukkit.mock();
+
+		// start the mock plugin
+		PluginMain plugin = MockBukkit.load(PluginMain.class);
+
+		world = server.addSimpleWorld("world");
+
+		// read back through the plugin's own SQLite datastore, bypassing its cache
+		dataStore = plugin.dataStore.unwrap();
+
+		// separate write connection to the same database file, drained by the queue under test
+		connection = DriverManager.getConnection("jdbc:sqlite:"
+				+ new File(plugin.getDataFolder(), DataStoreType.SQLITE.getStorageName()).getPath());
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("PRAGMA busy_timeout = 5000");
+		}
+
+		writeQueue = new WriteQueue(plugin, connection);
+	}
+
+	@AfterAll
+	public void tearDown() throws SQLException {
+		writeQueue.close();
+		connection.close();
+
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@Test
+	@DisplayName("flush returns true when all queued writes are committed.")
+	void FlushCommitted() {
+		Destination destination = new Destination("Queued", new Location(world, 1, 2, 3));
+		writeQueue.insert(destination, world.getName());
+
+		Assertions.assertTrue(writeQueue.flush(), "flush reported a discarded write.");
+		Assertions.assertTrue(dataStore.selectRecord(destination.getKey()).isPresent(), "queued record not written.");
+	}
+
+	@Test
+	@DisplayName("a failed write is discarded without losing the other writes of its batch.")
+	void FailedWriteDiscarded() {
+		long writeErrors = writeQueue.getWriteErrors();
+
+		Destination before = new Destination("Before_Failure", new Location(world, 0, 0, 0));
+		Destination after = new Destination("After_Failure", new Location(world, 0, 0, 0));
+
+		writeQueue.insert(before, world.getName());
+		writeQueue.submit(statements -> {
+			throw new SQLException("failed on purpose.");
+		});
+		writeQueue.insert(after, world.getName());
+
+		Assertions.assertFalse(writeQueue.flush(), "flush did not report the discarded write.");
+		Assertions.assertTrue(writeQueue.getWriteErrors() > writeErrors, "failed batch was not counted.");
+		Assertions.assertTrue(dataStore.selectRecord(before.getKey()).isPresent(), "write queued before the failure was lost.");
+		Assertions.assertTrue(dataStore.selectRecord(after.getKey()).isPresent(), "write queued after the failure was lost.");
+	}
+
+	@Test
+	@DisplayName("writer keeps running after a write throws a runtime exception.")
+	void RuntimeExceptionSurvived() {
+		writeQueue.submit(statements -> {
+			throw new IllegalStateException("failed on purpose.");
+		});
+		Assertions.assertFalse(writeQueue.flush(), "flush did not report the discarded write.");
+
+		Destination destination = new Destination("After_Exception", new Location(world, 0, 0, 0));
+		writeQueue.insert(destination, world.getName());
+
+		Assertions.assertTrue(writeQueue.flush(), "flush reported a failure already reported by the previous flush.");
+		Assertions.assertTrue(dataStore.selectRecord(destination.getKey()).isPresent(), "write after the exception was lost.");
+	}
+
+	@Test
+	@DisplayName("inserts and deletes of the same key are applied in submission order.")
+	void SubmissionOrder() {
+		Destination moved = new Destination("Moved", new Location(world, 1, 1, 1));
+		writeQueue.insert(moved, world.getName());
+		writeQueue.delete(moved.getKey());
+		writeQueue.insert(new Destination("Moved", new Location(world, 9, 9, 9)), world.getName());
+
+		Destination removed = new Destination("Removed_Again", new Location(world, 1, 1, 1));
+		writeQueue.insert(removed, world.getName());
+		writeQueue.delete(removed.getKey());
+
+		Assertions.assertTrue(writeQueue.flush(), "flush reported a discarded write.");
+
+		Optional<Destination> destination = dataStore.selectRecord(moved.getKey());
+		Assertions.assertTrue(destination.isPresent(), "reinserted record not found.");
+		Assertions.assertEquals(9, destination.get().getX());
+		Assertions.assertFalse(dataStore.selectRecord(removed.getKey()).isPresent(), "deleted record still present.");
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.winterhavenmc.lodestar.teleport;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+
+public class CooldownTableTests {
+
+	private static final long NOW = 1_000_000L;
+
+	@Test
+	@DisplayName("entry can be read back until it expires.")
+	void PutAndGet() {
+		CooldownTable table = new CooldownTable();
+		UUID playerUid = UUID.randomUUID();
+		table.put(playerUid, NOW + 100);
+
+		Assertions.assertEquals(NOW + 100, table.get(playerUid, NOW));
+		Assertions.assertEquals(1, table.size());
+
+		Assertions.assertEquals(0, table.get(playerUid, NOW + 100));
+		Assertions.assertEquals(0, table.size(), "expired entry not removed by lookup.");
+	}
+
+	@Test
+	@DisplayName("put replaces the expiry time of an existing entry.")
+	void PutReplaces() {
+		CooldownTable table = new CooldownTable();
+		UUID playerUid = UUID.randomUUID();
+		table.put(playerUid, NOW + 100);
+		table.put(playerUid, NOW + 200);
+
+		Assertions.assertEquals(NOW + 200, table.get(playerUid, NOW));
+		Assertions.assertEquals(1, table.size());
+	}
+
+	@Test
+	@DisplayName("removing an absent entry changes nothing.")
+	void RemoveAbsent() {
+		CooldownTable table = new CooldownTable();
+		UUID playerUid = UUID.randomUUID();
+		table.put(playerUid, NOW + 100);
+
+		table.remove(UUID.randomUUID());
+
+		Assertions.assertEquals(1, table.size());
+		Assertions.assertEquals(NOW + 100, table.get(playerUid, NOW));
+	}
+
+	@Test
+	@DisplayName("entries stay reachable through random puts and deletes.")
+	void RandomDeletes() {
+		CooldownTable table = new CooldownTable();
+		Map<UUID, Long> expected = new HashMap<>();
+		List<UUID> players = new ArrayList<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 500; i++) {
+			players.add(new UUID(random.nextLong(), random.nextLong()));
+		}
+
+		for (int operation = 0; operation < 20_000; operation++) {
+			UUID playerUid = players.get(random.nextInt(players.size()));
+			if (random.nextInt(3) == 0) {
+				table.remove(playerUid);
+				expected.remove(playerUid);
+			}
+			else {
+				long expiryTime = NOW + 1 + random.nextInt(1000);
+				table.put(playerUid, expiryTime);
+				expected.put(playerUid, expiryTime);
+			}
+		}
+
+		Assertions.assertEquals(expected.size(), table.size());
+		for (UUID playerUid : players) {
+			Assertions.assertEquals((long) expected.getOrDefault(playerUid, 0L), table.get(playerUid, NOW),
+					"entry lost or left behind by a delete.");
+		}
+	}
+
+	@Test
+	@DisplayName("sweep removes expired entries and keeps the rest reachable.")
+	void SweepRemovesExpired() {
+		CooldownTable table = new CooldownTable();
+		List<UUID> expired = new ArrayList<>();
+		List<UUID> live = new ArrayList<>();
+
+		for (int i = 0; i < 1000; i++) {
+			UUID playerUid = UUID.randomUUID();
+			if (i % 2 == 0) {
+				table.put(playerUid, NOW - i);
+				expired.add(playerUid);
+			}
+			else {
+				table.put(playerUid, NOW + i);
+				live.add(playerUid);
+			}
+		}
+
+		// sweep a bounded number of slots at a time, until a full pass removes nothing
+		int removed = 0;
+		int lastRemoved;
+		do {
+			lastRemoved = 0;
+			for (int pass = 0; pass < 4096 / 32; pass++) {
+				lastRemoved += table.sweep(NOW, 32);
+			}
+			removed += lastRemoved;
+		} while (lastRemoved > 0);
+
+		Assertions.assertEquals(expired.size(), removed);
+		Assertions.assertEquals(live.size(), table.size());
+		for (UUID playerUid : live) {
+			Assertions.assertTrue(table.get(playerUid, NOW) > NOW, "live entry lost by sweep.");
+		}
+		for (UUID playerUid : expired) {
+			Assertions.assertEquals(0, table.get(playerUid, NOW));
+		}
+	}
+
+	@Test
+	@DisplayName("sweep of an empty table does nothing.")
+	void SweepEmpty() {
+		CooldownTable table = new CooldownTable();
+
+		Assertions.assertEquals(0, table.sweep(NOW, 32));
+		Assertions.assertEquals(0, table.size());
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.winterhavenmc.lodestar.teleport;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.winterhavenmc.lodestar.PluginMain;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TimingWheelTests {
+
+	private PluginMain plugin;
+
+	@BeforeAll
+	public void setUp() {
+		// Start the mock server
+		MockBukkit.mock();
+
+		// start the mock plugin
+		plugin = MockBukkit.load(PluginMain.class);
+	}
+
+	@AfterAll
+	public void tearDown() {
+		// Stop the mock server
+		MockBukkit.unmock();
+	}
+
+	@Test
+	@DisplayName("task runs on its deadline tick and not before.")
+	void RunsOnDeadline() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<Long> runs = new ArrayList<>();
+		timingWheel.schedule(3, () -> runs.add(3L));
+
+		tick(timingWheel, 2);
+		Assertions.assertTrue(runs.isEmpty(), "task ran before its deadline.");
+
+		tick(timingWheel, 1);
+		Assertions.assertEquals(List.of(3L), runs);
+		Assertions.assertEquals(0, timingWheel.size());
+	}
+
+	@Test
+	@DisplayName("delay of less than one tick runs on the next tick.")
+	void ZeroDelay() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<Long> runs = new ArrayList<>();
+		timingWheel.schedule(0, () -> runs.add(0L));
+
+		tick(timingWheel, 1);
+		Assertions.assertEquals(List.of(0L), runs);
+	}
+
+	@Test
+	@DisplayName("deadlines more than one turn away run after the remaining turns.")
+	void SeveralTurns() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<Long> runs = new ArrayList<>();
+		long[] currentTick = { 0 };
+		for (long delay : new long[] { 511, 512, 513, 1024, 1500 }) {
+			timingWheel.schedule(delay, () -> runs.add(currentTick[0]));
+		}
+
+		for (int i = 0; i < 1500; i++) {
+			currentTick[0]++;
+			timingWheel.tick();
+		}
+
+		Assertions.assertEquals(List.of(511L, 512L, 513L, 1024L, 1500L), runs);
+	}
+
+	@Test
+	@DisplayName("cancelled task does not run.")
+	void Cancel() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<Long> runs = new ArrayList<>();
+		TimingWheel.Timeout timeout = timingWheel.schedule(2, () -> runs.add(2L));
+		Assertions.assertEquals(1, timingWheel.size());
+
+		timeout.cancel();
+		Assertions.assertFalse(timeout.isPending(), "cancelled timeout is still pending.");
+		Assertions.assertEquals(0, timingWheel.size());
+
+		tick(timingWheel, 2);
+		Assertions.assertTrue(runs.isEmpty(), "cancelled task ran.");
+	}
+
+	@Test
+	@DisplayName("task cancelled by a task in the same slot does not run.")
+	void CancelledBySameSlot() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<String> runs = new ArrayList<>();
+
+		// the most recently scheduled timeout is at the head of its slot, and runs first
+		TimingWheel.Timeout second = timingWheel.schedule(1, () -> runs.add("second"));
+		timingWheel.schedule(1, () -> {
+			runs.add("first");
+			second.cancel();
+		});
+
+		tick(timingWheel, 1);
+		Assertions.assertEquals(List.of("first"), runs);
+		Assertions.assertEquals(0, timingWheel.size());
+	}
+
+	@Test
+	@DisplayName("task rescheduled one turn ahead from its own slot waits a full turn.")
+	void RescheduleSameSlot() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<Long> runs = new ArrayList<>();
+		long[] currentTick = { 0 };
+		timingWheel.schedule(1, () -> {
+			runs.add(currentTick[0]);
+			timingWheel.schedule(512, () -> runs.add(currentTick[0]));
+		});
+
+		for (int i = 0; i < 600; i++) {
+			currentTick[0]++;
+			timingWheel.tick();
+		}
+
+		Assertions.assertEquals(List.of(1L, 513L), runs);
+	}
+
+	@Test
+	@DisplayName("task that throws does not stop other tasks in its slot.")
+	void ThrowingTask() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		List<String> runs = new ArrayList<>();
+		timingWheel.schedule(1, () -> runs.add("after"));
+		timingWheel.schedule(1, () -> {
+			throw new IllegalStateException("failed on purpose.");
+		});
+
+		tick(timingWheel, 1);
+		Assertions.assertEquals(List.of("after"), runs);
+	}
+
+	@Test
+	@DisplayName("stopped wheel discards pending timeouts.")
+	void Stop() {
+		TimingWheel timingWheel = new TimingWheel(plugin);
+		TimingWheel.Timeout timeout = timingWheel.schedule(5, () -> Assertions.fail("discarded task ran."));
+
+		timingWheel.stop();
+		Assertions.assertFalse(timeout.isPending(), "discarded timeout is still pending.");
+		Assertions.assertEquals(0, timingWheel.size());
+
+		tick(timingWheel, 5);
+	}
+
+
+	private static void tick(final TimingWheel timingWheel, final int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			timingWheel.tick();
+		}
+	}
+
+}